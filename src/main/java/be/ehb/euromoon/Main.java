@@ -1,19 +1,35 @@
 package be.ehb.euromoon;
 
+import be.ehb.euromoon.analytics.TicketAnalytics;
+import be.ehb.euromoon.event.BookingEventPublisher;
+import be.ehb.euromoon.event.EventBus;
+import be.ehb.euromoon.event.EventLogSink;
+import be.ehb.euromoon.exception.InvalidTrainException;
+import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.metrics.MetricsReporter;
+import be.ehb.euromoon.metrics.Operation;
+import be.ehb.euromoon.metrics.ServiceMetrics;
 import be.ehb.euromoon.model.journey.Journey;
 import be.ehb.euromoon.model.person.Passenger;
 import be.ehb.euromoon.model.person.personnel.*;
 import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.timetable.TimetablePattern;
+import be.ehb.euromoon.model.ticket.Ticket;
 import be.ehb.euromoon.model.train.*;
+import be.ehb.euromoon.replication.ReplicationFollower;
+import be.ehb.euromoon.replication.ReplicationLeader;
 import be.ehb.euromoon.repository.*;
 import be.ehb.euromoon.service.*;
+import be.ehb.euromoon.service.export.BoardingListFormat;
+import be.ehb.euromoon.util.IdGenerator;
 import be.ehb.euromoon.util.InputValidator;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Scanner;
-import java.util.UUID;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.*;
+import java.util.function.Function;
 
 /**
  * Main application class for the Euromoon train ticket booking system.
@@ -23,47 +39,246 @@ import java.util.UUID;
  */
 public class Main {
     private static final Scanner scanner = new Scanner(System.in);
+    private static final int SEARCH_RESULT_LIMIT = 20;
+    private static final int PAGE_SIZE = 20;
+    private static final String METRICS_FILE = "euromoon-metrics.log";
+    private static final String EVENT_LOG_FILE = "euromoon-events.log";
+    private static final Duration METRICS_INTERVAL = Duration.ofMinutes(1);
+    private static final int TIMETABLE_HORIZON_DAYS = 7;
+    private static final int BUSIEST_ROUTE_LIMIT = 5;
 
     private static PassengerService passengerService;
     private static TrainService trainService;
     private static JourneyService journeyService;
+    private static TimetableService timetableService;
     private static TicketService ticketService;
     private static BoardingListService boardingListService;
+    private static CheckInService checkInService;
+    private static ReportService reportService;
     private static PersonnelRepository personnelRepository;
+    private static LocomotiveTypeRegistry locomotiveTypes;
+    private static final List<CompositionTemplate> compositionTemplates = new ArrayList<>();
+    private static ServiceMetrics metrics;
+    private static MetricsReporter metricsReporter;
+    private static RepositorySnapshot repositories;
+    private static Path snapshotFile;
+    private static EventBus eventBus;
+    private static EventLogSink eventLogSink;
+    private static Integer replicationPort;
+    private static ReplicationLeader replicationLeader;
+
+    public static void main(String[] args) throws IOException, ValidationException {
+        boolean startupOnly = false;
+        String leaderAddress = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--snapshot") && i + 1 < args.length) {
+                    snapshotFile = Path.of(args[++i]);
+                } else if (args[i].equals("--startup-only")) {
+                    startupOnly = true;
+                } else if (args[i].equals("--replication-port") && i + 1 < args.length) {
+                    replicationPort = Integer.parseInt(args[++i]);
+                } else if (args[i].equals("--follow") && i + 1 < args.length) {
+                    leaderAddress = args[++i];
+                } else {
+                    throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Usage: Main [--snapshot <file>] [--startup-only] [--replication-port <port>]");
+            System.out.println("       Main --follow <host>:<port>");
+            return;
+        }
+        if (leaderAddress != null) {
+            runFollower(leaderAddress);
+            return;
+        }
 
-    public static void main(String[] args) {
         initializeServices();
         initializeSampleData();
 
         System.out.println("=".repeat(70));
         System.out.println("   EUROMOON TRAIN TICKET BOOKING SYSTEM");
         System.out.println("=".repeat(70));
+        printStartupTime();
+        if (replicationLeader != null) {
+            System.out.println("   Replicating to followers on port " + replicationLeader.getPort());
+        }
         System.out.println();
 
-        boolean running = true;
+        boolean running = !startupOnly;
         while (running) {
             running = showMenuAndProcess();
         }
 
         scanner.close();
+        if (snapshotFile != null && !startupOnly) {
+            long start = metrics.start();
+            repositories.write(snapshotFile);
+            metrics.record(Operation.WRITE_SNAPSHOT, start);
+            System.out.println("Snapshot written to " + snapshotFile);
+        }
+        if (replicationLeader != null) {
+            replicationLeader.close();
+        }
+        ticketService.close();
+        metricsReporter.close();
+        eventBus.close();
+        eventLogSink.close();
         System.out.println("Thank you for using Euromoon Train Booking System!");
     }
 
-    private static void initializeServices() {
-        PassengerRepository passengerRepository = new PassengerRepository();
-        personnelRepository = new PersonnelRepository();
-        TrainRepository trainRepository = new TrainRepository();
-        JourneyRepository journeyRepository = new JourneyRepository();
-        TicketRepository ticketRepository = new TicketRepository();
-
-        passengerService = new PassengerService(passengerRepository);
-        trainService = new TrainService(trainRepository);
-        journeyService = new JourneyService(journeyRepository);
-        ticketService = new TicketService(ticketRepository);
-        boardingListService = new BoardingListService(ticketService);
+    private static void printStartupTime() {
+        Optional<Instant> processStart = ProcessHandle.current().info().startInstant();
+        Runtime runtime = Runtime.getRuntime();
+        long heapUsed = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+        System.out.println("   Ready in " +
+            processStart.map(start -> Duration.between(start, Instant.now()).toMillis() + " ms, ").orElse("") +
+            heapUsed + " MB heap in use, " + repositories.getTicketRepository().count() + " tickets");
+    }
+
+    private static void initializeServices() throws IOException, ValidationException {
+        metrics = new ServiceMetrics();
+        long start = metrics.start();
+        locomotiveTypes = LocomotiveTypeRegistry.loadDefault();
+        metrics.record(Operation.LOAD_LOCOMOTIVE_TYPES, start);
+
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            start = metrics.start();
+            repositories = RepositorySnapshot.load(snapshotFile, locomotiveTypes::findByName);
+            metrics.record(Operation.LOAD_SNAPSHOT, start);
+        } else {
+            repositories = new RepositorySnapshot();
+        }
+
+        PassengerRepository passengerRepository = repositories.getPassengerRepository();
+        personnelRepository = repositories.getPersonnelRepository();
+        TrainRepository trainRepository = repositories.getTrainRepository();
+        JourneyRepository journeyRepository = repositories.getJourneyRepository();
+        TicketRepository ticketRepository = repositories.getTicketRepository();
+        SeatAvailabilityCache seatAvailabilityCache = new SeatAvailabilityCache(ticketRepository,
+            new OverbookingPolicy());
+        IdGenerator idGenerator = IdGenerator.timeOrdered();
+        FleetRegistry fleetRegistry = new FleetRegistry();
+        trainRepository.stream().forEach(fleetRegistry::register);
+        journeyRepository.stream()
+            .filter(journey -> journey.getTrain() != null)
+            .forEach(journey -> fleetRegistry.reserve(journey.getTrain(), journey));
+
+        passengerService = new PassengerService(passengerRepository, metrics);
+        trainService = new TrainService(trainRepository, metrics, fleetRegistry);
+        journeyService = new JourneyService(journeyRepository, seatAvailabilityCache, idGenerator, metrics,
+            fleetRegistry);
+        trainService.addTrainListener(journeyService);
+        timetableService = new TimetableService(repositories.getTimetableRepository(), journeyRepository,
+            idGenerator, metrics);
+        ticketService = new TicketService(ticketRepository, seatAvailabilityCache, idGenerator, metrics);
+        ticketService.addTicketListener(journeyService);
+        boardingListService = new BoardingListService(ticketService, metrics);
+        checkInService = new CheckInService(ticketService);
+
+        eventBus = new EventBus();
+        eventLogSink = new EventLogSink(Path.of(EVENT_LOG_FILE));
+        eventBus.subscribe(eventLogSink);
+        reportService = new ReportService(eventBus, ticketRepository);
+        BookingEventPublisher eventPublisher = new BookingEventPublisher(eventBus);
+        ticketService.addTicketListener(eventPublisher);
+        journeyService.addJourneyListener(eventPublisher);
+        eventBus.start();
+
+        if (replicationPort != null) {
+            replicationLeader = new ReplicationLeader(replicationPort);
+            journeyRepository.stream().forEach(replicationLeader::publishJourney);
+            ticketRepository.stream().forEach(replicationLeader::ticketSold);
+            ticketService.addTicketListener(replicationLeader);
+            journeyService.addJourneyListener(replicationLeader);
+        }
+
+        metricsReporter = new MetricsReporter(metrics, METRICS_FILE);
+        metricsReporter.start(METRICS_INTERVAL);
+    }
+
+    private static void runFollower(String leaderAddress) throws IOException, ValidationException {
+        int separator = leaderAddress.lastIndexOf(':');
+        if (separator <= 0 || !leaderAddress.substring(separator + 1).matches("\\d{1,5}")) {
+            System.out.println("Leader address must be <host>:<port>, e.g. localhost:7070");
+            return;
+        }
+        String host = leaderAddress.substring(0, separator);
+        int port = Integer.parseInt(leaderAddress.substring(separator + 1));
+        locomotiveTypes = LocomotiveTypeRegistry.loadDefault();
+
+        try (ReplicationFollower follower = new ReplicationFollower(host, port, locomotiveTypes::findByName)) {
+            System.out.println("=".repeat(70));
+            System.out.println("   EUROMOON TRAIN TICKET BOOKING SYSTEM - READ-ONLY COPY OF " + leaderAddress);
+            System.out.println("=".repeat(70));
+
+            boolean running = true;
+            while (running) {
+                System.out.println("\n--- FOLLOWER MENU ---");
+                System.out.println("1. Show journeys and availability");
+                System.out.println("2. Show boarding list");
+                System.out.println("0. Exit");
+                System.out.print("\nChoose an option: ");
+                switch (scanner.nextLine().trim()) {
+                    case "1" -> showReplicatedJourneys(follower);
+                    case "2" -> showReplicatedBoardingList(follower);
+                    case "0" -> running = false;
+                    default -> System.out.println("Invalid option. Please choose 0-2.");
+                }
+            }
+        }
+        scanner.close();
+    }
+
+    private static void showReplicatedJourneys(ReplicationFollower follower) {
+        System.out.println("\n--- JOURNEYS ---");
+        List<Journey> journeys = follower.getJourneys();
+        if (journeys.isEmpty()) {
+            System.out.println("No journeys replicated yet.");
+        }
+        for (Journey journey : journeys) {
+            System.out.println(journey +
+                "\n    First class available: " + follower.getAvailableSeats(journey.getId(), ClassType.FIRST) +
+                "\n    Second class available: " + follower.getAvailableSeats(journey.getId(), ClassType.SECOND));
+        }
+        System.out.println("\nReplicated up to mutation " + follower.getAppliedSequence() +
+            (follower.isConnected() ? "" : " (not connected to the leader)"));
+    }
+
+    private static void showReplicatedBoardingList(ReplicationFollower follower) {
+        List<Journey> journeys = follower.getJourneys();
+        if (journeys.isEmpty()) {
+            System.out.println("No journeys replicated yet.");
+            return;
+        }
+        System.out.println("\nAvailable journeys:");
+        for (int i = 0; i < journeys.size(); i++) {
+            System.out.println((i + 1) + ". " + journeys.get(i));
+        }
+        System.out.print("Choice: ");
+        try {
+            int index = Integer.parseInt(scanner.nextLine().trim()) - 1;
+            if (index < 0 || index >= journeys.size()) {
+                System.out.println("Invalid journey selection.");
+                return;
+            }
+            List<Ticket> tickets = follower.getBoardingList(journeys.get(index).getId());
+            System.out.println("\n--- BOARDING LIST (" + tickets.size() + " passengers) ---");
+            for (Ticket ticket : tickets) {
+                System.out.println("  " + ticket.getClassType() + "  " + ticket.getPassenger().getLastname() + ", " +
+                    ticket.getPassenger().getName() + " (" + ticket.getPassenger().getRijksregisternummer() + ")");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid input. Please enter a number.");
+        }
     }
 
     private static void initializeSampleData() {
+        if (personnelRepository.stream().findAny().isPresent()) {
+            initializeCompositionTemplates();
+            return;
+        }
         try {
             Conductor conductor1 = new Conductor("verdacht John", "Driver", "78.05.12-456.78", LocalDate.of(1978, 5, 12));
             conductor1.addCertification("Rijbewijs B1");
@@ -84,6 +299,26 @@ public class Main {
         } catch (Exception e) {
             System.out.println("Warning: Could not initialize sample personnel data");
         }
+        initializeCompositionTemplates();
+    }
+
+    private static void initializeCompositionTemplates() {
+        try {
+            CompositionTemplate class373 = new CompositionTemplate("Class 373 standard",
+                locomotiveTypes.findByName("Class 373").orElseThrow());
+            class373.addWagons(ClassType.FIRST, 2);
+            class373.addWagons(ClassType.SECOND, 8);
+            compositionTemplates.add(class373);
+
+            CompositionTemplate class374 = new CompositionTemplate("Class 374 standard",
+                locomotiveTypes.findByName("Class 374").orElseThrow());
+            class374.addWagons(ClassType.FIRST, 3);
+            class374.addWagons(ClassType.SECOND, 10);
+            compositionTemplates.add(class374);
+
+        } catch (Exception e) {
+            System.out.println("Warning: Could not initialize composition templates");
+        }
     }
 
     private static boolean showMenuAndProcess() {
@@ -93,6 +328,9 @@ public class Main {
         System.out.println("3. Link train to journey");
         System.out.println("4. Sell ticket to passenger");
         System.out.println("5. Print boarding list");
+        System.out.println("6. Gate check-in");
+        System.out.println("7. Create timetable");
+        System.out.println("8. Show reports");
         System.out.println("0. Exit");
         System.out.print("\nChoose an option: ");
 
@@ -105,10 +343,13 @@ public class Main {
                 case 3 -> linkTrainToJourney();
                 case 4 -> sellTicket();
                 case 5 -> printBoardingList();
+                case 6 -> gateCheckIn();
+                case 7 -> createTimetable();
+                case 8 -> showReports();
                 case 0 -> {
                     return false;
                 }
-                default -> System.out.println("Invalid option. Please choose 0-5.");
+                default -> System.out.println("Invalid option. Please choose 0-8.");
             }
         } catch (NumberFormatException e) {
             System.out.println("Invalid input. Please enter a number.");
@@ -153,6 +394,9 @@ public class Main {
             System.out.print("Departure station: ");
             String departureStation = scanner.nextLine();
 
+            System.out.print("Intermediate stops (comma separated, empty for none): ");
+            String intermediateStops = scanner.nextLine();
+
             System.out.print("Arrival station: ");
             String arrivalStation = scanner.nextLine();
 
@@ -160,7 +404,16 @@ public class Main {
             String departureTimeStr = scanner.nextLine();
             LocalDateTime departureTime = InputValidator.parseDateTime(departureTimeStr);
 
-            Journey journey = journeyService.createJourney(departureStation, arrivalStation, departureTime);
+            List<String> stops = new ArrayList<>();
+            stops.add(departureStation);
+            for (String stop : intermediateStops.split(",")) {
+                if (!stop.trim().isEmpty()) {
+                    stops.add(stop.trim());
+                }
+            }
+            stops.add(arrivalStation);
+
+            Journey journey = journeyService.createJourney(stops, departureTime);
             System.out.println("✓ Journey created successfully!");
             System.out.println("  Journey ID: " + journey.getId());
             System.out.println("  Route: " + journey);
@@ -170,138 +423,192 @@ public class Main {
         }
     }
 
+    private static void createTimetable() {
+        try {
+            System.out.println("\n--- CREATE TIMETABLE ---");
+            System.out.print("Stations (comma separated, in travel order): ");
+            List<String> stops = new ArrayList<>();
+            for (String stop : scanner.nextLine().split(",")) {
+                if (!stop.trim().isEmpty()) {
+                    stops.add(stop.trim());
+                }
+            }
+
+            System.out.print("Departure time (HH:mm, e.g., 08:15): ");
+            LocalTime departureTime = InputValidator.parseTime(scanner.nextLine().trim());
+
+            System.out.print("Days (e.g., MON,WED,FRI, empty for every day): ");
+            String daysStr = scanner.nextLine().trim();
+            Set<DayOfWeek> days = daysStr.isEmpty()
+                ? EnumSet.allOf(DayOfWeek.class)
+                : InputValidator.parseDaysOfWeek(daysStr);
+
+            System.out.print("Valid from (yyyy-MM-dd, empty for today): ");
+            String validFromStr = scanner.nextLine().trim();
+            LocalDate validFrom = validFromStr.isEmpty() ? LocalDate.now() : InputValidator.parseDate(validFromStr);
+
+            System.out.print("Valid until (yyyy-MM-dd, empty for one year): ");
+            String validUntilStr = scanner.nextLine().trim();
+            LocalDate validUntil = validUntilStr.isEmpty()
+                ? validFrom.plusYears(1)
+                : InputValidator.parseDate(validUntilStr);
+
+            TimetablePattern pattern = timetableService.createPattern(stops, departureTime, days,
+                validFrom, validUntil);
+
+            System.out.print("Dates without service (comma separated yyyy-MM-dd, empty for none): ");
+            for (String date : scanner.nextLine().split(",")) {
+                if (!date.trim().isEmpty()) {
+                    timetableService.addException(pattern.getId(), InputValidator.parseDate(date.trim()));
+                }
+            }
+
+            System.out.println("✓ Timetable created successfully!");
+            System.out.println("  " + pattern);
+
+        } catch (Exception e) {
+            System.out.println("✗ Error creating timetable: " + e.getMessage());
+        }
+    }
+
     private static void linkTrainToJourney() {
         try {
             System.out.println("\n--- LINK TRAIN TO JOURNEY ---");
 
-            List<Journey> journeys = journeyService.getAllJourneys();
-            if (journeys.isEmpty()) {
+            Page<Journey> journeys = upcomingJourneys();
+            if (journeys.getItems().isEmpty()) {
                 System.out.println("No journeys available. Please create a journey first.");
                 return;
             }
 
             System.out.println("\nAvailable journeys:");
-            for (int i = 0; i < journeys.size(); i++) {
-                Journey j = journeys.get(i);
-                System.out.println((i + 1) + ". " + j + " [ID: " + j.getId() + "]");
-            }
-
-            System.out.print("\nSelect journey number: ");
-            int journeyIndex = Integer.parseInt(scanner.nextLine()) - 1;
-            if (journeyIndex < 0 || journeyIndex >= journeys.size()) {
-                System.out.println("Invalid journey selection.");
+            Journey selectedJourney = selectFromPages("journey", journeys,
+                cursor -> journeyService.getUpcomingJourneys(cursor, PAGE_SIZE),
+                j -> j + " [ID: " + j.getId() + "]");
+            if (selectedJourney == null) {
                 return;
             }
-            Journey selectedJourney = journeys.get(journeyIndex);
 
-            List<Train> trains = trainService.getAllTrains();
-            if (trains.isEmpty()) {
+            Page<Train> trains = trainService.getTrains(null, PAGE_SIZE);
+            if (trains.getItems().isEmpty()) {
                 System.out.println("\nNo trains exist. Creating a new train...");
                 System.out.print("Train ID: ");
                 String trainId = scanner.nextLine();
 
-                System.out.println("Select locomotive type:");
-                System.out.println("1. Class 373 (max 12 wagons)");
-                System.out.println("2. Class 374 (max 14 wagons)");
-                System.out.print("Choice: ");
-                int locChoice = Integer.parseInt(scanner.nextLine());
-
-                LocomotiveType locType = locChoice == 1 ? new Class373() : new Class374();
-                Train train = trainService.createTrain(trainId, locType);
-
-                System.out.print("\nHow many first class wagons? ");
-                int firstClassCount = Integer.parseInt(scanner.nextLine());
-                for (int i = 1; i <= firstClassCount; i++) {
-                    trainService.addWagonToTrain(trainId, i, ClassType.FIRST, 50);
+                System.out.println("Select composition:");
+                for (int i = 0; i < compositionTemplates.size(); i++) {
+                    System.out.println((i + 1) + ". " + compositionTemplates.get(i));
                 }
+                System.out.println((compositionTemplates.size() + 1) + ". Custom composition");
+                System.out.print("Choice: ");
+                int templateChoice = Integer.parseInt(scanner.nextLine());
 
-                System.out.print("How many second class wagons? ");
-                int secondClassCount = Integer.parseInt(scanner.nextLine());
-                for (int i = firstClassCount + 1; i <= firstClassCount + secondClassCount; i++) {
-                    trainService.addWagonToTrain(trainId, i, ClassType.SECOND, 70);
-                }
+                CompositionTemplate template = templateChoice >= 1 && templateChoice <= compositionTemplates.size()
+                    ? compositionTemplates.get(templateChoice - 1)
+                    : createCustomTemplate();
+                Train train = trainService.createTrainFromTemplate(trainId, template);
 
                 journeyService.assignTrainToJourney(selectedJourney.getId(), train);
                 System.out.println("✓ New train created and assigned to journey!");
 
             } else {
-                System.out.println("\nAvailable trains:");
-                for (int i = 0; i < trains.size(); i++) {
-                    System.out.println((i + 1) + ". " + trains.get(i));
+                System.out.print("\nPick an available train automatically? (y/n): ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                    System.out.print("Minimum number of seats: ");
+                    int requiredSeats = Integer.parseInt(scanner.nextLine());
+                    Train train = journeyService.assignAvailableTrain(selectedJourney.getId(), requiredSeats);
+                    System.out.println("✓ " + train + " assigned to journey!");
+                    assignAllPersonnel(selectedJourney);
+                    return;
                 }
 
-                System.out.print("\nSelect train number: ");
-                int trainIndex = Integer.parseInt(scanner.nextLine()) - 1;
-                if (trainIndex < 0 || trainIndex >= trains.size()) {
-                    System.out.println("Invalid train selection.");
+                System.out.println("\nAvailable trains:");
+                Train selectedTrain = selectFromPages("train", trains,
+                    cursor -> trainService.getTrains(cursor, PAGE_SIZE), Train::toString);
+                if (selectedTrain == null) {
                     return;
                 }
-                Train selectedTrain = trains.get(trainIndex);
 
                 journeyService.assignTrainToJourney(selectedJourney.getId(), selectedTrain);
                 System.out.println("✓ Train assigned to journey successfully!");
             }
 
-            System.out.println("\nAssigning personnel to journey...");
-            List<Personnel> allPersonnel = personnelRepository.findAll();
-            for (Personnel p : allPersonnel) {
-                journeyService.assignPersonnelToJourney(selectedJourney.getId(), p);
-            }
-            System.out.println("✓ Personnel assigned!");
+            assignAllPersonnel(selectedJourney);
 
         } catch (Exception e) {
             System.out.println("✗ Error linking train to journey: " + e.getMessage());
         }
     }
 
+    private static CompositionTemplate createCustomTemplate() throws InvalidTrainException {
+        List<LocomotiveType> types = locomotiveTypes.findAll();
+        System.out.println("Select locomotive type:");
+        for (int i = 0; i < types.size(); i++) {
+            System.out.println((i + 1) + ". " + types.get(i));
+        }
+        System.out.print("Choice: ");
+        int locChoice = Integer.parseInt(scanner.nextLine());
+        if (locChoice < 1 || locChoice > types.size()) {
+            throw new InvalidTrainException("Invalid locomotive type selection.");
+        }
+
+        LocomotiveType locType = types.get(locChoice - 1);
+        CompositionTemplate template = new CompositionTemplate("Custom", locType);
+
+        for (ClassType classType : ClassType.values()) {
+            if (locType.supportsClass(classType)) {
+                System.out.print("How many " + classType.name().toLowerCase() + " class wagons? ");
+                template.addWagons(classType, Integer.parseInt(scanner.nextLine()));
+            }
+        }
+        return template;
+    }
+
+    private static void assignAllPersonnel(Journey journey) throws ValidationException {
+        System.out.println("\nAssigning personnel to journey...");
+        List<Personnel> allPersonnel = personnelRepository.findAll();
+        for (Personnel p : allPersonnel) {
+            journeyService.assignPersonnelToJourney(journey.getId(), p);
+        }
+        System.out.println("✓ Personnel assigned!");
+    }
+
     private static void sellTicket() {
         try {
             System.out.println("\n--- SELL TICKET ---");
 
-            List<Passenger> passengers = passengerService.getAllPassengers();
-            if (passengers.isEmpty()) {
-                System.out.println("No passengers registered. Please register a passenger first.");
+            System.out.print("Search passenger by name (empty to list all): ");
+            String query = scanner.nextLine().trim();
+
+            Page<Passenger> passengers = query.isEmpty()
+                ? passengerService.getPassengers(null, PAGE_SIZE)
+                : new Page<>(passengerService.searchPassengers(query, SEARCH_RESULT_LIMIT), null);
+            if (passengers.getItems().isEmpty()) {
+                System.out.println(query.isEmpty()
+                    ? "No passengers registered. Please register a passenger first."
+                    : "No passengers found matching: " + query);
                 return;
             }
 
             System.out.println("\nRegistered passengers:");
-            for (int i = 0; i < passengers.size(); i++) {
-                System.out.println((i + 1) + ". " + passengers.get(i));
-            }
-
-            System.out.print("\nSelect passenger number: ");
-            int passengerIndex = Integer.parseInt(scanner.nextLine()) - 1;
-            if (passengerIndex < 0 || passengerIndex >= passengers.size()) {
-                System.out.println("Invalid passenger selection.");
+            Passenger selectedPassenger = selectFromPages("passenger", passengers,
+                cursor -> passengerService.getPassengers(cursor, PAGE_SIZE), Passenger::toString);
+            if (selectedPassenger == null) {
                 return;
             }
-            Passenger selectedPassenger = passengers.get(passengerIndex);
 
-            List<Journey> journeys = journeyService.getAllJourneys();
-            if (journeys.isEmpty()) {
+            Page<Journey> journeys = upcomingJourneys();
+            if (journeys.getItems().isEmpty()) {
                 System.out.println("\nNo journeys available. Please create a journey first.");
                 return;
             }
 
             System.out.println("\nAvailable journeys:");
-            for (int i = 0; i < journeys.size(); i++) {
-                Journey j = journeys.get(i);
-                System.out.println((i + 1) + ". " + j);
-                if (j.getTrain() != null) {
-                    System.out.println("    First class available: " +
-                        ticketService.getAvailableSeats(j, ClassType.FIRST));
-                    System.out.println("    Second class available: " +
-                        ticketService.getAvailableSeats(j, ClassType.SECOND));
-                }
-            }
-
-            System.out.print("\nSelect journey number: ");
-            int journeyIndex = Integer.parseInt(scanner.nextLine()) - 1;
-            if (journeyIndex < 0 || journeyIndex >= journeys.size()) {
-                System.out.println("Invalid journey selection.");
+            Journey selectedJourney = selectFromPages("journey", journeys,
+                cursor -> journeyService.getUpcomingJourneys(cursor, PAGE_SIZE), Main::describeWithAvailability);
+            if (selectedJourney == null) {
                 return;
             }
-            Journey selectedJourney = journeys.get(journeyIndex);
 
             System.out.println("\nClass type:");
             System.out.println("1. First class");
@@ -310,7 +617,24 @@ public class Main {
             int classChoice = Integer.parseInt(scanner.nextLine());
             ClassType classType = classChoice == 1 ? ClassType.FIRST : ClassType.SECOND;
 
-            var ticket = ticketService.sellTicket(selectedPassenger, selectedJourney, classType);
+            String boardingStation = selectedJourney.getDepartureStation();
+            String alightingStation = selectedJourney.getArrivalStation();
+            if (selectedJourney.getSegmentCount() > 1) {
+                System.out.println("\nStops: " + String.join(", ", selectedJourney.getStops()));
+                System.out.print("Boarding station (empty for " + boardingStation + "): ");
+                String input = scanner.nextLine().trim();
+                if (!input.isEmpty()) {
+                    boardingStation = input;
+                }
+                System.out.print("Alighting station (empty for " + alightingStation + "): ");
+                input = scanner.nextLine().trim();
+                if (!input.isEmpty()) {
+                    alightingStation = input;
+                }
+            }
+
+            var ticket = ticketService.sellTicket(selectedPassenger, selectedJourney, classType,
+                boardingStation, alightingStation);
             System.out.println("✓ Ticket sold successfully!");
             System.out.println("  " + ticket);
 
@@ -323,27 +647,40 @@ public class Main {
         try {
             System.out.println("\n--- PRINT BOARDING LIST ---");
 
-            List<Journey> journeys = journeyService.getAllJourneys();
-            if (journeys.isEmpty()) {
+            Page<Journey> journeys = upcomingJourneys();
+            if (journeys.getItems().isEmpty()) {
                 System.out.println("No journeys available.");
                 return;
             }
 
             System.out.println("\nAvailable journeys:");
-            for (int i = 0; i < journeys.size(); i++) {
-                Journey j = journeys.get(i);
-                System.out.println((i + 1) + ". " + j);
+            Journey selectedJourney = selectFromPages("journey", journeys,
+                cursor -> journeyService.getUpcomingJourneys(cursor, PAGE_SIZE), Journey::toString);
+            if (selectedJourney == null) {
+                return;
             }
 
-            System.out.print("\nSelect journey number: ");
-            int journeyIndex = Integer.parseInt(scanner.nextLine()) - 1;
-            if (journeyIndex < 0 || journeyIndex >= journeys.size()) {
-                System.out.println("Invalid journey selection.");
+            System.out.print("\nOnly write changes since the last boarding list? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                String deltaFilename = boardingListService.generateBoardingListDelta(selectedJourney);
+                System.out.println("✓ Boarding list changes written successfully!");
+                System.out.println("  File: " + deltaFilename);
                 return;
             }
-            Journey selectedJourney = journeys.get(journeyIndex);
 
-            String filename = boardingListService.generateBoardingList(selectedJourney);
+            BoardingListFormat[] formats = BoardingListFormat.values();
+            System.out.println("\nFormat:");
+            for (int i = 0; i < formats.length; i++) {
+                System.out.println((i + 1) + ". " + formats[i]);
+            }
+            System.out.print("Choice: ");
+            int formatIndex = Integer.parseInt(scanner.nextLine()) - 1;
+            if (formatIndex < 0 || formatIndex >= formats.length) {
+                System.out.println("Invalid format selection.");
+                return;
+            }
+
+            String filename = boardingListService.generateBoardingList(selectedJourney, formats[formatIndex]);
             System.out.println("✓ Boarding list generated successfully!");
             System.out.println("  File: " + filename);
 
@@ -351,4 +688,131 @@ public class Main {
             System.out.println("✗ Error generating boarding list: " + e.getMessage());
         }
     }
+
+    private static void showReports() {
+        System.out.println("\n--- REPORTS ---");
+
+        LocalDate today = LocalDate.now();
+        System.out.println("\nTickets for journeys departing today:");
+        for (ClassType classType : ClassType.values()) {
+            System.out.println("  " + classType + ": " + reportService.getTicketsOnDay(today, classType));
+        }
+
+        ZonedDateTime startOfDay = today.atStartOfDay(ZoneId.systemDefault());
+        SortedMap<Instant, Long> soldPerHour = reportService.getSoldPerHour(startOfDay.toInstant(),
+            startOfDay.plusDays(1).toInstant());
+        System.out.println("\nTickets sold today per hour:");
+        if (soldPerHour.isEmpty()) {
+            System.out.println("  No tickets sold today.");
+        }
+        soldPerHour.forEach((hour, sold) -> System.out.println("  " +
+            LocalTime.ofInstant(hour, ZoneId.systemDefault()) + ": " + sold));
+
+        List<Map.Entry<String, Long>> routes = reportService.getBusiestRoutes(BUSIEST_ROUTE_LIMIT);
+        System.out.println("\nBusiest routes:");
+        if (routes.isEmpty()) {
+            System.out.println("  No passengers yet.");
+        }
+        for (Map.Entry<String, Long> route : routes) {
+            System.out.println("  " + route.getKey() + ": " + route.getValue() + " passengers");
+        }
+
+        TicketAnalytics analytics = reportService.analyseTickets();
+        int peakHour = analytics.getPeakHour(ZoneId.systemDefault().getRules().getOffset(Instant.now()));
+        System.out.println("\nPeak sales hour: " + (peakHour < 0 ? "no tickets sold" : LocalTime.of(peakHour, 0)));
+    }
+
+    private static void gateCheckIn() {
+        try {
+            System.out.println("\n--- GATE CHECK-IN ---");
+
+            Page<Journey> journeys = upcomingJourneys();
+            if (journeys.getItems().isEmpty()) {
+                System.out.println("No journeys available.");
+                return;
+            }
+
+            System.out.println("\nAvailable journeys:");
+            Journey selectedJourney = selectFromPages("journey", journeys,
+                cursor -> journeyService.getUpcomingJourneys(cursor, PAGE_SIZE), Journey::toString);
+            if (selectedJourney == null) {
+                return;
+            }
+            checkInService.openBoarding(selectedJourney);
+
+            while (true) {
+                System.out.print("Scan rijksregisternummer (empty to stop): ");
+                String rrn = scanner.nextLine().trim();
+                if (rrn.isEmpty()) {
+                    break;
+                }
+                switch (checkInService.checkIn(selectedJourney, rrn)) {
+                    case BOARDED -> System.out.println("✓ Boarded");
+                    case ALREADY_BOARDED -> System.out.println("✗ Already boarded");
+                    case NO_TICKET -> System.out.println("✗ No ticket for this journey");
+                }
+            }
+
+            System.out.println("Boarded: " + checkInService.getBoardedCount(selectedJourney) +
+                " of " + checkInService.getTicketCount(selectedJourney) + " passengers");
+
+            System.out.print("Close boarding, the train has departed? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                checkInService.closeBoarding(selectedJourney);
+                System.out.println("✓ Boarding closed, no-shows recorded");
+            }
+
+        } catch (Exception e) {
+            System.out.println("✗ Error during check-in: " + e.getMessage());
+        }
+    }
+
+    private static String describeWithAvailability(Journey journey) {
+        if (journey.getTrain() == null) {
+            return journey.toString();
+        }
+        return journey +
+            "\n    First class available: " + ticketService.getAvailableSeats(journey, ClassType.FIRST) +
+            "\n    Second class available: " + ticketService.getAvailableSeats(journey, ClassType.SECOND);
+    }
+
+    private static Page<Journey> upcomingJourneys() throws ValidationException {
+        LocalDate today = LocalDate.now();
+        timetableService.materialise(today, today.plusDays(TIMETABLE_HORIZON_DAYS - 1));
+        return journeyService.getUpcomingJourneys(null, PAGE_SIZE);
+    }
+
+    /**
+     * Lets the user select an item from a paged listing.
+     *
+     * <p>Only one page is printed at a time. When more pages exist, the user
+     * can enter "n" to see the next one.
+     *
+     * @return the selected item, or null if the selection was invalid
+     */
+    private static <T> T selectFromPages(String label, Page<T> firstPage,
+                                         Function<String, Page<T>> nextPage,
+                                         Function<T, String> describer) {
+        Page<T> page = firstPage;
+        while (true) {
+            List<T> items = page.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                System.out.println((i + 1) + ". " + describer.apply(items.get(i)));
+            }
+
+            System.out.print("\nSelect " + label + " number" + (page.hasNext() ? " (n for next page)" : "") + ": ");
+            String input = scanner.nextLine().trim();
+            if (page.hasNext() && input.equalsIgnoreCase("n")) {
+                page = nextPage.apply(page.getNextCursor());
+                continue;
+            }
+
+            int index = Integer.parseInt(input) - 1;
+            if (index < 0 || index >= items.size()) {
+                System.out.println("Invalid " + label + " selection.");
+                return null;
+            }
+            return items.get(index);
+        }
+    }
 }
@@ -0,0 +1,234 @@
+package be.ehb.euromoon.analytics;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.ticket.ClassType;
+
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregations over ticket columns, computed in parallel with fork-join.
+ *
+ * <p>Every aggregation is a histogram: the rows are split into ranges,
+ * each range is counted into its own array of buckets by a plain loop over
+ * the columns, and the arrays are added up while the tasks are joined.
+ * The ranges are sized so that each worker of the pool gets a few of
+ * them, which keeps all cores busy without creating many bucket arrays.
+ *
+ * <p>The columns must not be appended to while an aggregation runs.
+ */
+public class TicketAnalytics {
+    private static final int CLASS_COUNT = ClassType.values().length;
+    private static final int HOURS_PER_DAY = 24;
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = HOURS_PER_DAY * MILLIS_PER_HOUR;
+    private static final int MIN_RANGE_SIZE = 1 << 16;
+    private static final int RANGES_PER_WORKER = 4;
+
+    private final TicketColumns columns;
+    private final ForkJoinPool pool;
+    private final int rangeSize;
+
+    public TicketAnalytics(TicketColumns columns) {
+        this(columns, ForkJoinPool.commonPool());
+    }
+
+    public TicketAnalytics(TicketColumns columns, ForkJoinPool pool) {
+        this.columns = columns;
+        this.pool = pool;
+        this.rangeSize = Math.max(MIN_RANGE_SIZE, columns.size() / (pool.getParallelism() * RANGES_PER_WORKER) + 1);
+    }
+
+    /**
+     * Counts the tickets per journey and class type.
+     *
+     * @return the counts, indexed by journey ordinal times the number of class types plus class ordinal
+     */
+    public long[] countByJourneyAndClass() {
+        int[] journeyColumn = columns.journeyColumn();
+        byte[] classColumn = columns.classColumn();
+        return histogram(columns.getJourneyCount() * CLASS_COUNT, (buckets, from, to) -> {
+            for (int i = from; i < to; i++) {
+                buckets[journeyColumn[i] * CLASS_COUNT + classColumn[i]]++;
+            }
+        });
+    }
+
+    /**
+     * Calculates the share of seats sold on each journey for a class type.
+     *
+     * <p>A seat can be sold several times on a multi-leg journey, once for
+     * each part of the route, so the load of a journey is that of its
+     * busiest segment. The tickets are counted into a difference array per
+     * journey, +1 at the boarding stop and -1 at the alighting stop, whose
+     * running sum is the number of tickets on each segment.
+     *
+     * <p>Journeys without a train or without seats of the class type are left out.
+     * A load factor above 1 means the journey is overbooked.
+     *
+     * @param classType the class type
+     * @return the load factor of each journey, keyed by journey ID
+     */
+    public Map<UUID, Double> getLoadFactors(ClassType classType) {
+        int journeyCount = columns.getJourneyCount();
+        int[] firstBucket = new int[journeyCount + 1];
+        for (int ordinal = 0; ordinal < journeyCount; ordinal++) {
+            firstBucket[ordinal + 1] = firstBucket[ordinal] + columns.getJourney(ordinal).getSegmentCount() + 1;
+        }
+        int[] journeyColumn = columns.journeyColumn();
+        byte[] classColumn = columns.classColumn();
+        int[] fromStopColumn = columns.fromStopColumn();
+        int[] toStopColumn = columns.toStopColumn();
+        byte classOrdinal = (byte) classType.ordinal();
+        long[] changes = histogram(firstBucket[journeyCount], (buckets, from, to) -> {
+            for (int i = from; i < to; i++) {
+                if (classColumn[i] == classOrdinal) {
+                    int first = firstBucket[journeyColumn[i]];
+                    buckets[first + fromStopColumn[i]]++;
+                    buckets[first + toStopColumn[i]]--;
+                }
+            }
+        });
+
+        Map<UUID, Double> loadFactors = new LinkedHashMap<>();
+        for (int ordinal = 0; ordinal < journeyCount; ordinal++) {
+            Journey journey = columns.getJourney(ordinal);
+            if (journey.getTrain() == null) {
+                continue;
+            }
+            int seats = journey.getTrain().getAvailableSeats(classType);
+            if (seats > 0) {
+                long occupied = 0;
+                long peak = 0;
+                for (int bucket = firstBucket[ordinal]; bucket < firstBucket[ordinal + 1]; bucket++) {
+                    occupied += changes[bucket];
+                    peak = Math.max(peak, occupied);
+                }
+                loadFactors.put(journey.getId(), (double) peak / seats);
+            }
+        }
+        return loadFactors;
+    }
+
+    /**
+     * Counts the tickets sold in each hour of the day.
+     *
+     * <p>Tickets whose issue time is unknown are not counted.
+     *
+     * @param offset the offset from UTC of the local time the hours are counted in
+     * @return the number of tickets sold, indexed by hour of the day from 0 to 23
+     */
+    public long[] getSalesByHourOfDay(ZoneOffset offset) {
+        long[] issuedAtColumn = columns.issuedAtColumn();
+        long offsetMillis = offset.getTotalSeconds() * 1000L;
+        return histogram(HOURS_PER_DAY, (buckets, from, to) -> {
+            for (int i = from; i < to; i++) {
+                long issuedAt = issuedAtColumn[i];
+                if (issuedAt != TicketColumns.UNKNOWN_TIME) {
+                    buckets[(int) (Math.floorMod(issuedAt + offsetMillis, MILLIS_PER_DAY) / MILLIS_PER_HOUR)]++;
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the hour of the day in which the most tickets are sold.
+     *
+     * @param offset the offset from UTC of the local time the hours are counted in
+     * @return the busiest hour of the day from 0 to 23, or -1 if there are no tickets
+     */
+    public int getPeakHour(ZoneOffset offset) {
+        long[] sales = getSalesByHourOfDay(offset);
+        int peakHour = -1;
+        for (int hour = 0; hour < sales.length; hour++) {
+            if (sales[hour] > 0 && (peakHour < 0 || sales[hour] > sales[peakHour])) {
+                peakHour = hour;
+            }
+        }
+        return peakHour;
+    }
+
+    /**
+     * Counts the tickets per route, from the departure to the arrival station of their journey.
+     *
+     * @return the routes and their number of tickets, most popular first
+     */
+    public List<Map.Entry<String, Long>> getRoutePopularity() {
+        Map<String, Integer> routeOrdinals = new HashMap<>();
+        List<String> routes = new ArrayList<>();
+        int[] routeOfJourney = new int[columns.getJourneyCount()];
+        for (int ordinal = 0; ordinal < routeOfJourney.length; ordinal++) {
+            Journey journey = columns.getJourney(ordinal);
+            String route = journey.getDepartureStation() + " -> " + journey.getArrivalStation();
+            routeOfJourney[ordinal] = routeOrdinals.computeIfAbsent(route, r -> {
+                routes.add(r);
+                return routes.size() - 1;
+            });
+        }
+
+        int[] journeyColumn = columns.journeyColumn();
+        long[] counts = histogram(routes.size(), (buckets, from, to) -> {
+            for (int i = from; i < to; i++) {
+                buckets[routeOfJourney[journeyColumn[i]]]++;
+            }
+        });
+
+        List<Map.Entry<String, Long>> popularity = new ArrayList<>(routes.size());
+        for (int i = 0; i < routes.size(); i++) {
+            if (counts[i] > 0) {
+                popularity.add(Map.entry(routes.get(i), counts[i]));
+            }
+        }
+        popularity.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return popularity;
+    }
+
+    private long[] histogram(int bucketCount, RangeCounter counter) {
+        return pool.invoke(new HistogramTask(counter, 0, columns.size(), bucketCount));
+    }
+
+    /**
+     * Counts the rows in a range into buckets.
+     */
+    @FunctionalInterface
+    private interface RangeCounter {
+        void count(long[] buckets, int from, int to);
+    }
+
+    /**
+     * Counts a range of rows, splitting the range while it is larger than the range size.
+     */
+    private class HistogramTask extends RecursiveTask<long[]> {
+        private final RangeCounter counter;
+        private final int from;
+        private final int to;
+        private final int bucketCount;
+
+        HistogramTask(RangeCounter counter, int from, int to, int bucketCount) {
+            this.counter = counter;
+            this.from = from;
+            this.to = to;
+            this.bucketCount = bucketCount;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= rangeSize) {
+                long[] buckets = new long[bucketCount];
+                counter.count(buckets, from, to);
+                return buckets;
+            }
+            int middle = (from + to) >>> 1;
+            HistogramTask left = new HistogramTask(counter, from, middle, bucketCount);
+            left.fork();
+            long[] buckets = new HistogramTask(counter, middle, to, bucketCount).compute();
+            long[] leftBuckets = left.join();
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] += leftBuckets[i];
+            }
+            return buckets;
+        }
+    }
+}
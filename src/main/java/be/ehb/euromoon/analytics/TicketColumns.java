@@ -0,0 +1,177 @@
+package be.ehb.euromoon.analytics;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.util.TimeOrderedIdGenerator;
+
+import java.util.*;
+
+/**
+ * Ticket data stored column by column in primitive arrays.
+ *
+ * <p>Each ticket is a row made of the ordinal of its journey, the ordinal
+ * of its class type, its boarding and alighting stop and the time it was
+ * issued in epoch milliseconds, or {@link #UNKNOWN_TIME} if that is not
+ * known. The journeys themselves are stored once, in the order they were
+ * first seen.
+ * Aggregations over the columns read a few contiguous arrays instead of
+ * following a pointer from every ticket to its journey, and can split the
+ * rows into ranges that are processed in parallel.
+ *
+ * <p>Rows can only be appended. Appending is not thread-safe, so the
+ * columns are normally filled by one thread and then only read.
+ */
+public class TicketColumns {
+    public static final long UNKNOWN_TIME = Long.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final List<Journey> journeys = new ArrayList<>();
+    private final Map<UUID, Integer> journeyOrdinals = new HashMap<>();
+    private int[] journeyColumn;
+    private byte[] classColumn;
+    private int[] fromStopColumn;
+    private int[] toStopColumn;
+    private long[] issuedAtColumn;
+    private int size;
+
+    public TicketColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TicketColumns(int capacity) {
+        journeyColumn = new int[capacity];
+        classColumn = new byte[capacity];
+        fromStopColumn = new int[capacity];
+        toStopColumn = new int[capacity];
+        issuedAtColumn = new long[capacity];
+    }
+
+    /**
+     * Copies tickets into columns.
+     *
+     * <p>The issue time of a ticket is taken from its time-ordered ID. It is
+     * unknown for tickets whose ID is not time-ordered.
+     *
+     * @param tickets the tickets to copy
+     * @return the columns holding the tickets
+     */
+    public static TicketColumns of(Iterable<Ticket> tickets) {
+        TicketColumns columns = new TicketColumns();
+        for (Ticket ticket : tickets) {
+            columns.add(ticket);
+        }
+        return columns;
+    }
+
+    /**
+     * Appends a ticket.
+     *
+     * @param ticket the ticket to append
+     */
+    public void add(Ticket ticket) {
+        long issuedAt = TimeOrderedIdGenerator.isTimeOrdered(ticket.getId())
+            ? TimeOrderedIdGenerator.timestampOf(ticket.getId()).toEpochMilli()
+            : UNKNOWN_TIME;
+        add(journeyOrdinal(ticket.getJourney()), ticket.getClassType(), ticket.getFromStop(), ticket.getToStop(),
+            issuedAt);
+    }
+
+    /**
+     * Appends a ticket row over the whole route of a journey that was already registered.
+     *
+     * @param journeyOrdinal the ordinal of the journey, as returned by {@link #journeyOrdinal(Journey)}
+     * @param classType the class type of the ticket
+     * @param issuedAt the time the ticket was issued, in epoch milliseconds, or {@link #UNKNOWN_TIME}
+     */
+    public void add(int journeyOrdinal, ClassType classType, long issuedAt) {
+        if (journeyOrdinal < 0 || journeyOrdinal >= journeys.size()) {
+            throw new IllegalArgumentException("Unknown journey ordinal: " + journeyOrdinal);
+        }
+        add(journeyOrdinal, classType, 0, journeys.get(journeyOrdinal).getSegmentCount(), issuedAt);
+    }
+
+    /**
+     * Appends a ticket row between two stops of a journey that was already registered.
+     *
+     * @param journeyOrdinal the ordinal of the journey, as returned by {@link #journeyOrdinal(Journey)}
+     * @param classType the class type of the ticket
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     * @param issuedAt the time the ticket was issued, in epoch milliseconds, or {@link #UNKNOWN_TIME}
+     */
+    public void add(int journeyOrdinal, ClassType classType, int fromStop, int toStop, long issuedAt) {
+        if (journeyOrdinal < 0 || journeyOrdinal >= journeys.size()) {
+            throw new IllegalArgumentException("Unknown journey ordinal: " + journeyOrdinal);
+        }
+        if (size == journeyColumn.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            journeyColumn = Arrays.copyOf(journeyColumn, capacity);
+            classColumn = Arrays.copyOf(classColumn, capacity);
+            fromStopColumn = Arrays.copyOf(fromStopColumn, capacity);
+            toStopColumn = Arrays.copyOf(toStopColumn, capacity);
+            issuedAtColumn = Arrays.copyOf(issuedAtColumn, capacity);
+        }
+        journeyColumn[size] = journeyOrdinal;
+        classColumn[size] = (byte) classType.ordinal();
+        fromStopColumn[size] = fromStop;
+        toStopColumn[size] = toStop;
+        issuedAtColumn[size] = issuedAt;
+        size++;
+    }
+
+    /**
+     * Returns the ordinal of a journey, registering the journey if it is new.
+     *
+     * @param journey the journey
+     * @return the ordinal used for the journey in the journey column
+     */
+    public int journeyOrdinal(Journey journey) {
+        Integer ordinal = journeyOrdinals.get(journey.getId());
+        if (ordinal == null) {
+            ordinal = journeys.size();
+            journeys.add(journey);
+            journeyOrdinals.put(journey.getId(), ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Returns the journey with an ordinal.
+     *
+     * @param ordinal the journey ordinal
+     * @return the journey
+     */
+    public Journey getJourney(int ordinal) {
+        return journeys.get(ordinal);
+    }
+
+    public int getJourneyCount() {
+        return journeys.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    int[] journeyColumn() {
+        return journeyColumn;
+    }
+
+    byte[] classColumn() {
+        return classColumn;
+    }
+
+    int[] fromStopColumn() {
+        return fromStopColumn;
+    }
+
+    int[] toStopColumn() {
+        return toStopColumn;
+    }
+
+    long[] issuedAtColumn() {
+        return issuedAtColumn;
+    }
+}
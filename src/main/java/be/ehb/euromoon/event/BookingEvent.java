@@ -0,0 +1,48 @@
+package be.ehb.euromoon.event;
+
+import java.util.UUID;
+
+/**
+ * Base class of all events about changes to bookings and journeys.
+ *
+ * <p>Events are immutable values. They copy the identifiers and fields
+ * that consumers need instead of referring to the mutable domain objects,
+ * so an event means the same when it is handled later on another thread
+ * or replayed from a file.
+ */
+public abstract class BookingEvent {
+    private final long timestamp;
+    private final UUID journeyId;
+
+    protected BookingEvent(long timestamp, UUID journeyId) {
+        this.timestamp = timestamp;
+        this.journeyId = journeyId;
+    }
+
+    /**
+     * Returns the kind of this event.
+     *
+     * @return the event type
+     */
+    public abstract BookingEventType getType();
+
+    /**
+     * Returns the time at which the change happened.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the ID of the journey the change belongs to.
+     *
+     * <p>Events of the same journey are always delivered in the order they were published.
+     *
+     * @return the journey ID
+     */
+    public UUID getJourneyId() {
+        return journeyId;
+    }
+}
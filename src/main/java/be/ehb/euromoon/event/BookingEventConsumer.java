@@ -0,0 +1,22 @@
+package be.ehb.euromoon.event;
+
+import java.util.List;
+
+/**
+ * Consumer of the events published on an {@link EventBus}.
+ *
+ * <p>Events are handed over in batches. Each partition of the bus delivers
+ * from its own thread, so a consumer may be called concurrently and must be
+ * thread-safe. The batch list is reused after the call returns and must not
+ * be kept.
+ */
+@FunctionalInterface
+public interface BookingEventConsumer {
+
+    /**
+     * Handles a batch of events.
+     *
+     * @param events the events, in the order they were published per journey
+     */
+    void accept(List<BookingEvent> events);
+}
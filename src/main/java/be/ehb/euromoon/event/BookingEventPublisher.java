@@ -0,0 +1,92 @@
+package be.ehb.euromoon.event;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.model.train.Train;
+import be.ehb.euromoon.service.JourneyListener;
+import be.ehb.euromoon.service.TicketListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns the changes reported by the ticket and journey services into events on an {@link EventBus}.
+ *
+ * <p>Register an instance with {@code TicketService.addTicketListener} and
+ * {@code JourneyService.addJourneyListener}. Publishing only copies a few
+ * fields and queues the event, so the calling service is never slowed down
+ * by the consumers of the bus.
+ *
+ * <p>An event whose partition of the bus is full is lost; this is counted
+ * and reported as a warning, and consumers that need every event
+ * resynchronise from the repositories. A publisher created with a maximum
+ * wait applies back-pressure instead: it waits for room up to that limit,
+ * slowing the calling service down to the pace of the consumers. That is
+ * opt-in, since the services call their listeners while a sale is still
+ * in progress.
+ */
+public class BookingEventPublisher implements TicketListener, JourneyListener {
+    private static final long WARNING_INTERVAL = 1000;
+
+    private final EventBus eventBus;
+    private final Duration maxWait;
+    private final AtomicLong lostCount = new AtomicLong();
+
+    public BookingEventPublisher(EventBus eventBus) {
+        this(eventBus, Duration.ZERO);
+    }
+
+    /**
+     * Creates a publisher that waits for room on a full bus.
+     *
+     * @param eventBus the bus to publish to
+     * @param maxWait how long a service call may wait for room on the bus before the event is lost, zero to never wait
+     */
+    public BookingEventPublisher(EventBus eventBus, Duration maxWait) {
+        this.eventBus = eventBus;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public void ticketSold(Ticket ticket) {
+        publish(new TicketSoldEvent(System.currentTimeMillis(), ticket));
+    }
+
+    @Override
+    public void ticketCancelled(Ticket ticket) {
+        publish(new TicketCancelledEvent(System.currentTimeMillis(), ticket));
+    }
+
+    @Override
+    public void trainAssigned(Journey journey, Train train) {
+        publish(new TrainAssignedEvent(System.currentTimeMillis(), journey.getId(), train.getTrainId()));
+    }
+
+    @Override
+    public void personnelAssigned(Journey journey, Personnel personnel) {
+        publish(new PersonnelAssignedEvent(System.currentTimeMillis(), journey.getId(),
+            personnel.getRijksregisternummer(), personnel.getClass().getSimpleName()));
+    }
+
+    /**
+     * Returns the number of events that could not be published.
+     *
+     * @return the number of lost events
+     */
+    public long getLostCount() {
+        return lostCount.get();
+    }
+
+    private void publish(BookingEvent event) {
+        boolean published = maxWait.isZero() ? eventBus.publish(event) : eventBus.publish(event, maxWait);
+        if (published) {
+            return;
+        }
+        long lost = lostCount.incrementAndGet();
+        if (lost == 1 || lost % WARNING_INTERVAL == 0) {
+            System.err.println("Warning: Event bus is full or closed, " + lost + " booking event(s) lost so far (last: " +
+                event.getType() + " for journey " + event.getJourneyId() + ")");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package be.ehb.euromoon.event;
+
+/**
+ * The kinds of events published on the {@link EventBus}.
+ */
+public enum BookingEventType {
+    /**
+     * A ticket was sold.
+     */
+    TICKET_SOLD,
+
+    /**
+     * A ticket was cancelled.
+     */
+    TICKET_CANCELLED,
+
+    /**
+     * A train was assigned to a journey.
+     */
+    TRAIN_ASSIGNED,
+
+    /**
+     * A personnel member was assigned to a journey.
+     */
+    PERSONNEL_ASSIGNED
+}
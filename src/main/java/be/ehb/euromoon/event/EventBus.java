@@ -0,0 +1,243 @@
+package be.ehb.euromoon.event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process bus that delivers booking events to consumers on background threads.
+ *
+ * <p>Events are spread over a fixed number of partitions by journey ID, so
+ * all events of one journey keep their order. Each partition is a bounded
+ * lock-free ring buffer drained by its own daemon thread, which hands the
+ * events to every consumer in batches.
+ *
+ * <p>{@link #publish(BookingEvent)} never blocks. When a partition is full
+ * because consumers cannot keep up, it returns false and the event is
+ * counted as dropped, so the caller can decide what to do while a sale is
+ * never held up by a slow consumer. Callers that must not lose events use
+ * {@link #publish(BookingEvent, Duration)}, which waits for room up to a
+ * time limit and so slows the publisher down to the pace of the consumers.
+ */
+public class EventBus implements AutoCloseable {
+    public static final int DEFAULT_PARTITIONS = 4;
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private static final int SPINS_BEFORE_PARK = 1000;
+    private static final long PARK_NANOS = 100_000;
+
+    private final EventRingBuffer[] partitions;
+    private final int partitionMask;
+    private final int batchSize;
+    private final Thread[] dispatchers;
+    private final List<BookingEventConsumer> consumers = new CopyOnWriteArrayList<>();
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private volatile boolean closed;
+
+    public EventBus() {
+        this(DEFAULT_PARTITIONS, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a bus with custom sizes.
+     *
+     * @param partitions the number of partitions, rounded up to a power of two
+     * @param capacity the number of events each partition can hold, rounded up to a power of two
+     * @param batchSize the maximum number of events handed to a consumer at once
+     */
+    public EventBus(int partitions, int capacity, int batchSize) {
+        int partitionCount = roundUpToPowerOfTwo(partitions);
+        int partitionCapacity = roundUpToPowerOfTwo(capacity);
+        this.partitions = new EventRingBuffer[partitionCount];
+        this.dispatchers = new Thread[partitionCount];
+        this.partitionMask = partitionCount - 1;
+        this.batchSize = batchSize;
+        for (int i = 0; i < partitionCount; i++) {
+            EventRingBuffer partition = new EventRingBuffer(partitionCapacity);
+            this.partitions[i] = partition;
+            this.dispatchers[i] = new Thread(() -> dispatch(partition), "event-bus-" + i);
+            this.dispatchers[i].setDaemon(true);
+        }
+    }
+
+    /**
+     * Registers a consumer that receives every event published from now on.
+     *
+     * @param consumer the consumer to register
+     */
+    public void subscribe(BookingEventConsumer consumer) {
+        if (consumer != null) {
+            consumers.add(consumer);
+        }
+    }
+
+    /**
+     * Starts delivering events to the consumers.
+     *
+     * <p>Events published before the bus is started are kept until it starts,
+     * as long as the partitions have room for them.
+     */
+    public synchronized void start() {
+        for (Thread dispatcher : dispatchers) {
+            if (dispatcher.getState() == Thread.State.NEW) {
+                dispatcher.start();
+            }
+        }
+    }
+
+    /**
+     * Publishes an event without waiting.
+     *
+     * @param event the event to publish
+     * @return true if the event was queued, false if its partition is full or the bus is closed
+     */
+    public boolean publish(BookingEvent event) {
+        if (closed) {
+            droppedCount.increment();
+            return false;
+        }
+        if (partitionOf(event).offer(event)) {
+            publishedCount.increment();
+            return true;
+        }
+        droppedCount.increment();
+        return false;
+    }
+
+    /**
+     * Publishes an event, waiting for room in its partition if it is full.
+     *
+     * <p>The publisher first spins briefly, then parks for growing intervals
+     * until the dispatcher has drained enough events or the time limit has
+     * passed.
+     *
+     * @param event the event to publish
+     * @param timeout how long to wait for room at most
+     * @return true if the event was queued, false if there was no room within the time limit or the bus is closed
+     */
+    public boolean publish(BookingEvent event, Duration timeout) {
+        EventRingBuffer partition = partitionOf(event);
+        if (!closed && partition.offer(event)) {
+            publishedCount.increment();
+            return true;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long parkNanos = 1_000;
+        int spins = 0;
+        while (!closed) {
+            if (partition.offer(event)) {
+                publishedCount.increment();
+                return true;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            if (spins < SPINS_BEFORE_PARK) {
+                spins++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(Math.min(parkNanos, remaining));
+                parkNanos = Math.min(parkNanos * 2, PARK_NANOS);
+            }
+        }
+        droppedCount.increment();
+        return false;
+    }
+
+    /**
+     * Returns the number of events that were queued for delivery.
+     *
+     * @return the number of published events
+     */
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    /**
+     * Returns the number of events that were rejected because a partition was full or the bus was closed.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Returns the number of events that are queued but not yet delivered.
+     *
+     * @return the number of pending events over all partitions
+     */
+    public int getBacklog() {
+        int backlog = 0;
+        for (EventRingBuffer partition : partitions) {
+            backlog += partition.size();
+        }
+        return backlog;
+    }
+
+    /**
+     * Stops accepting events, delivers the events that are still queued and stops the delivery threads.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread dispatcher : dispatchers) {
+            if (dispatcher.getState() == Thread.State.NEW) {
+                dispatcher.start();
+            }
+            LockSupport.unpark(dispatcher);
+        }
+        for (Thread dispatcher : dispatchers) {
+            try {
+                dispatcher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private EventRingBuffer partitionOf(BookingEvent event) {
+        int hash = event.getJourneyId().hashCode();
+        return partitions[(hash ^ (hash >>> 16)) & partitionMask];
+    }
+
+    private void dispatch(EventRingBuffer partition) {
+        List<BookingEvent> batch = new ArrayList<>(batchSize);
+        List<BookingEvent> view = Collections.unmodifiableList(batch);
+        int idleSpins = 0;
+        while (!closed || partition.size() > 0) {
+            if (partition.drainTo(batch, batchSize) > 0) {
+                deliver(view);
+                batch.clear();
+                idleSpins = 0;
+            } else if (idleSpins < SPINS_BEFORE_PARK) {
+                idleSpins++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    private void deliver(List<BookingEvent> batch) {
+        for (BookingEventConsumer consumer : consumers) {
+            try {
+                consumer.accept(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Warning: Event consumer failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static int roundUpToPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+}
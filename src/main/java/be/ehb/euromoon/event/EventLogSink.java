@@ -0,0 +1,148 @@
+package be.ehb.euromoon.event;
+
+import be.ehb.euromoon.model.ticket.ClassType;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Consumer that appends every event to a binary log file, which can be replayed later.
+ *
+ * <p>Each record starts with the event type (1 byte, ordinal), the
+ * timestamp (8 bytes) and the journey ID (16 bytes), followed by the fields
+ * of the event type. Strings are written as modified UTF-8, date-times as
+ * epoch seconds (8 bytes) and nanoseconds (4 bytes) in UTC.
+ *
+ * <p>Records are written through a buffer that is flushed after every
+ * batch, so a crash loses at most the batch being written. A record that
+ * was cut off is ignored on replay.
+ */
+public class EventLogSink implements BookingEventConsumer, AutoCloseable {
+    private static final BookingEventType[] TYPES = BookingEventType.values();
+    private static final ClassType[] CLASS_TYPES = ClassType.values();
+
+    private final DataOutputStream out;
+
+    public EventLogSink(Path path) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    @Override
+    public synchronized void accept(List<BookingEvent> events) {
+        try {
+            for (BookingEvent event : events) {
+                write(event);
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write events to log", e);
+        }
+    }
+
+    /**
+     * Flushes and closes the log file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Reads all events from a log file and hands them to a consumer in batches.
+     *
+     * @param path the log file to read
+     * @param consumer the consumer to hand the events to
+     * @param batchSize the maximum number of events per batch
+     * @return the number of events replayed
+     * @throws IOException if the file cannot be read
+     */
+    public static long replay(Path path, BookingEventConsumer consumer, int batchSize) throws IOException {
+        long count = 0;
+        List<BookingEvent> batch = new ArrayList<>(batchSize);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                BookingEvent event;
+                try {
+                    int type = in.read();
+                    if (type < 0) {
+                        break;
+                    }
+                    event = read(TYPES[type], in);
+                } catch (EOFException e) {
+                    break;
+                }
+                batch.add(event);
+                count++;
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+        return count;
+    }
+
+    private void write(BookingEvent event) throws IOException {
+        out.writeByte(event.getType().ordinal());
+        out.writeLong(event.getTimestamp());
+        writeUuid(event.getJourneyId());
+        switch (event.getType()) {
+            case TICKET_SOLD, TICKET_CANCELLED -> {
+                TicketEvent ticketEvent = (TicketEvent) event;
+                writeUuid(ticketEvent.getTicketId());
+                out.writeUTF(ticketEvent.getRijksregisternummer());
+                out.writeByte(ticketEvent.getClassType().ordinal());
+                out.writeLong(ticketEvent.getDepartureTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(ticketEvent.getDepartureTime().getNano());
+                out.writeUTF(ticketEvent.getBoardingStation());
+                out.writeUTF(ticketEvent.getAlightingStation());
+            }
+            case TRAIN_ASSIGNED -> out.writeUTF(((TrainAssignedEvent) event).getTrainId());
+            case PERSONNEL_ASSIGNED -> {
+                PersonnelAssignedEvent personnelEvent = (PersonnelAssignedEvent) event;
+                out.writeUTF(personnelEvent.getRijksregisternummer());
+                out.writeUTF(personnelEvent.getRole());
+            }
+        }
+    }
+
+    private void writeUuid(UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static BookingEvent read(BookingEventType type, DataInputStream in) throws IOException {
+        long timestamp = in.readLong();
+        UUID journeyId = new UUID(in.readLong(), in.readLong());
+        return switch (type) {
+            case TICKET_SOLD, TICKET_CANCELLED -> {
+                UUID ticketId = new UUID(in.readLong(), in.readLong());
+                String rijksregisternummer = in.readUTF();
+                ClassType classType = CLASS_TYPES[in.readByte()];
+                LocalDateTime departureTime = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                String boardingStation = in.readUTF();
+                String alightingStation = in.readUTF();
+                yield type == BookingEventType.TICKET_SOLD
+                    ? new TicketSoldEvent(timestamp, journeyId, ticketId, rijksregisternummer, classType,
+                        departureTime, boardingStation, alightingStation)
+                    : new TicketCancelledEvent(timestamp, journeyId, ticketId, rijksregisternummer, classType,
+                        departureTime, boardingStation, alightingStation);
+            }
+            case TRAIN_ASSIGNED -> new TrainAssignedEvent(timestamp, journeyId, in.readUTF());
+            case PERSONNEL_ASSIGNED -> new PersonnelAssignedEvent(timestamp, journeyId, in.readUTF(), in.readUTF());
+        };
+    }
+}
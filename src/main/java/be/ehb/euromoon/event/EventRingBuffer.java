@@ -0,0 +1,77 @@
+package be.ehb.euromoon.event;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free queue of events with a single consumer.
+ *
+ * <p>Every slot carries a sequence number that tells whether it is free for
+ * the producer of a given position or filled for the consumer. A producer
+ * claims a position with one compare-and-set on the tail and publishes the
+ * event by advancing the slot's sequence; when the slot is still occupied
+ * the buffer is full and the offer fails immediately instead of waiting.
+ * The consumer reads filled slots without any atomic read-modify-write.
+ */
+class EventRingBuffer {
+    private final BookingEvent[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    EventRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.buffer = new BookingEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(BookingEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = event;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    int drainTo(List<BookingEvent> batch, int maxEvents) {
+        long position = head;
+        int count = 0;
+        while (count < maxEvents) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            batch.add(buffer[index]);
+            buffer[index] = null;
+            sequences.lazySet(index, position + buffer.length);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
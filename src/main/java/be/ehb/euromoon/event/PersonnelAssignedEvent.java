@@ -0,0 +1,35 @@
+package be.ehb.euromoon.event;
+
+import java.util.UUID;
+
+/**
+ * Event published when a personnel member has been assigned to a journey.
+ */
+public class PersonnelAssignedEvent extends BookingEvent {
+    private final String rijksregisternummer;
+    private final String role;
+
+    public PersonnelAssignedEvent(long timestamp, UUID journeyId, String rijksregisternummer, String role) {
+        super(timestamp, journeyId);
+        this.rijksregisternummer = rijksregisternummer;
+        this.role = role;
+    }
+
+    @Override
+    public BookingEventType getType() {
+        return BookingEventType.PERSONNEL_ASSIGNED;
+    }
+
+    public String getRijksregisternummer() {
+        return rijksregisternummer;
+    }
+
+    /**
+     * Returns the role of the personnel member, e.g. Conductor or Steward.
+     *
+     * @return the role name
+     */
+    public String getRole() {
+        return role;
+    }
+}
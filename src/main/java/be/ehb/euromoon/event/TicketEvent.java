@@ -0,0 +1,61 @@
+package be.ehb.euromoon.event;
+
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Base class of the events about a single ticket.
+ */
+public abstract class TicketEvent extends BookingEvent {
+    private final UUID ticketId;
+    private final String rijksregisternummer;
+    private final ClassType classType;
+    private final LocalDateTime departureTime;
+    private final String boardingStation;
+    private final String alightingStation;
+
+    protected TicketEvent(long timestamp, Ticket ticket) {
+        this(timestamp, ticket.getJourney().getId(), ticket.getId(), ticket.getPassenger().getRijksregisternummer(),
+            ticket.getClassType(), ticket.getJourney().getDepartureTime(), ticket.getBoardingStation(),
+            ticket.getAlightingStation());
+    }
+
+    protected TicketEvent(long timestamp, UUID journeyId, UUID ticketId, String rijksregisternummer,
+                          ClassType classType, LocalDateTime departureTime, String boardingStation,
+                          String alightingStation) {
+        super(timestamp, journeyId);
+        this.ticketId = ticketId;
+        this.rijksregisternummer = rijksregisternummer;
+        this.classType = classType;
+        this.departureTime = departureTime;
+        this.boardingStation = boardingStation;
+        this.alightingStation = alightingStation;
+    }
+
+    public UUID getTicketId() {
+        return ticketId;
+    }
+
+    public String getRijksregisternummer() {
+        return rijksregisternummer;
+    }
+
+    public ClassType getClassType() {
+        return classType;
+    }
+
+    public LocalDateTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public String getBoardingStation() {
+        return boardingStation;
+    }
+
+    public String getAlightingStation() {
+        return alightingStation;
+    }
+}
@@ -0,0 +1,29 @@
+package be.ehb.euromoon.event;
+
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Event published when a ticket has been sold.
+ */
+public class TicketSoldEvent extends TicketEvent {
+
+    public TicketSoldEvent(long timestamp, Ticket ticket) {
+        super(timestamp, ticket);
+    }
+
+    public TicketSoldEvent(long timestamp, UUID journeyId, UUID ticketId, String rijksregisternummer,
+                           ClassType classType, LocalDateTime departureTime, String boardingStation,
+                           String alightingStation) {
+        super(timestamp, journeyId, ticketId, rijksregisternummer, classType, departureTime, boardingStation,
+            alightingStation);
+    }
+
+    @Override
+    public BookingEventType getType() {
+        return BookingEventType.TICKET_SOLD;
+    }
+}
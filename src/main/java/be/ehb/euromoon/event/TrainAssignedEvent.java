@@ -0,0 +1,24 @@
+package be.ehb.euromoon.event;
+
+import java.util.UUID;
+
+/**
+ * Event published when a train has been assigned to a journey.
+ */
+public class TrainAssignedEvent extends BookingEvent {
+    private final String trainId;
+
+    public TrainAssignedEvent(long timestamp, UUID journeyId, String trainId) {
+        super(timestamp, journeyId);
+        this.trainId = trainId;
+    }
+
+    @Override
+    public BookingEventType getType() {
+        return BookingEventType.TRAIN_ASSIGNED;
+    }
+
+    public String getTrainId() {
+        return trainId;
+    }
+}
@@ -0,0 +1,168 @@
+package be.ehb.euromoon.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with logarithmic buckets.
+ *
+ * <p>Like an HDR histogram, every power of two is split into 16 linear
+ * sub-buckets, so recorded values keep a relative precision of about 6%
+ * over the full range of a long. Recording a value is a bucket index
+ * computation and a few atomic increments; it never allocates or locks.
+ *
+ * <p>The buckets are striped: each thread records into one of several
+ * independent arrays, chosen by its thread ID, which also hold the count,
+ * sum and maximum of that stripe. Threads on different cores therefore
+ * rarely write the same cache line. Reading a statistic merges all stripes.
+ *
+ * <p>Operations that were not timed, see {@link #recordUntimed()}, only
+ * count towards {@link #getCount()}; the mean, percentiles and maximum
+ * describe the timed ones.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    private static final int COUNT_SLOT = BUCKET_COUNT;
+    private static final int SUM_SLOT = BUCKET_COUNT + 1;
+    private static final int MAX_SLOT = BUCKET_COUNT + 2;
+    private static final int UNTIMED_SLOT = BUCKET_COUNT + 3;
+    private static final int STRIPE_LENGTH = BUCKET_COUNT + 4;
+    private static final int MAX_STRIPES = 16;
+    private static final int STRIPE_COUNT = stripeCount();
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPE_COUNT];
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new AtomicLongArray(STRIPE_LENGTH);
+        }
+    }
+
+    /**
+     * Records a measured duration.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        AtomicLongArray stripe = stripes[(int) Thread.currentThread().getId() & (STRIPE_COUNT - 1)];
+        stripe.incrementAndGet(bucketOf(nanos));
+        stripe.incrementAndGet(COUNT_SLOT);
+        stripe.addAndGet(SUM_SLOT, nanos);
+
+        long max = stripe.get(MAX_SLOT);
+        while (nanos > max && !stripe.compareAndSet(MAX_SLOT, max, nanos)) {
+            max = stripe.get(MAX_SLOT);
+        }
+    }
+
+    /**
+     * Counts an operation whose duration was not measured.
+     */
+    public void recordUntimed() {
+        stripes[(int) Thread.currentThread().getId() & (STRIPE_COUNT - 1)].incrementAndGet(UNTIMED_SLOT);
+    }
+
+    /**
+     * Returns the number of recorded operations, timed or not.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return sum(COUNT_SLOT) + sum(UNTIMED_SLOT);
+    }
+
+    /**
+     * Returns the mean of the timed values.
+     *
+     * @return the mean in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        long count = sum(COUNT_SLOT);
+        return count == 0 ? 0 : (double) sum(SUM_SLOT) / count;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            max = Math.max(max, stripe.get(MAX_SLOT));
+        }
+        return max;
+    }
+
+    /**
+     * Returns an upper bound for the given percentile of the recorded values.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the percentile in nanoseconds, 0 if nothing was recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long count = stripe.get(i);
+                snapshot[i] += count;
+                total += count;
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long max = getMaxNanos();
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    private long sum(int slot) {
+        long sum = 0;
+        for (AtomicLongArray stripe : stripes) {
+            sum += stripe.get(slot);
+        }
+        return sum;
+    }
+
+    private static int stripeCount() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int count = 1;
+        while (count < processors && count < MAX_STRIPES) {
+            count <<= 1;
+        }
+        return count;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKET_COUNT;
+        long base = (SUB_BUCKET_COUNT | subBucket) << (exponent - SUB_BUCKET_BITS);
+        return base + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,61 @@
+package be.ehb.euromoon.metrics;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically appends a snapshot of the service metrics to a file.
+ *
+ * <p>The reporter runs on a single daemon thread, so it never keeps the
+ * application alive and never runs on the thread of a service call.
+ */
+public class MetricsReporter implements AutoCloseable {
+    private final ServiceMetrics metrics;
+    private final String filename;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsReporter(ServiceMetrics metrics, String filename) {
+        this.metrics = metrics;
+        this.filename = filename;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts writing a snapshot at a fixed interval.
+     *
+     * @param interval the time between two snapshots
+     */
+    public void start(Duration interval) {
+        long millis = interval.toMillis();
+        scheduler.scheduleAtFixedRate(this::report, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Appends the current snapshot to the file.
+     */
+    public void report() {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename, true))) {
+            writer.print(metrics.snapshot());
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write metrics to " + filename + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a final snapshot and stops the reporter.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        report();
+    }
+}
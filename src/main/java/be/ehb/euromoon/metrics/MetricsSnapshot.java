@@ -0,0 +1,91 @@
+package be.ehb.euromoon.metrics;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Point-in-time view of the metrics of all service operations.
+ */
+public class MetricsSnapshot {
+    private final LocalDateTime takenAt;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    MetricsSnapshot(Map<Operation, LatencyHistogram> histograms) {
+        this.takenAt = LocalDateTime.now();
+        histograms.forEach((operation, histogram) -> stats.put(operation, new OperationStats(histogram)));
+    }
+
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+
+    public OperationStats get(Operation operation) {
+        return stats.get(operation);
+    }
+
+    public Map<Operation, OperationStats> getAll() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Metrics at ").append(takenAt).append(System.lineSeparator());
+        stats.forEach((operation, operationStats) -> builder
+            .append(String.format("  %-22s %s", operation, operationStats))
+            .append(System.lineSeparator()));
+        return builder.toString();
+    }
+
+    /**
+     * Count and latency percentiles of a single operation.
+     */
+    public static class OperationStats {
+        private final long count;
+        private final double meanNanos;
+        private final long p50Nanos;
+        private final long p99Nanos;
+        private final long p999Nanos;
+        private final long maxNanos;
+
+        OperationStats(LatencyHistogram histogram) {
+            this.count = histogram.getCount();
+            this.meanNanos = histogram.getMeanNanos();
+            this.p50Nanos = histogram.getPercentileNanos(50);
+            this.p99Nanos = histogram.getPercentileNanos(99);
+            this.p999Nanos = histogram.getPercentileNanos(99.9);
+            this.maxNanos = histogram.getMaxNanos();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanNanos() {
+            return meanNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getP999Nanos() {
+            return p999Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.0fns p50=%dns p99=%dns p99.9=%dns max=%dns",
+                count, meanNanos, p50Nanos, p99Nanos, p999Nanos, maxNanos);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package be.ehb.euromoon.metrics;
+
+/**
+ * The service operations that are measured by {@link ServiceMetrics}.
+ */
+public enum Operation {
+    /**
+     * A ticket was sold.
+     */
+    SELL_TICKET,
+
+    /**
+     * A ticket sale was rejected because the class was sold out.
+     */
+    OVERSELL_REJECTED,
+
+    /**
+     * A ticket was cancelled.
+     */
+    CANCEL_TICKET,
+
+    /**
+     * A seat was held for a passenger.
+     */
+    HOLD_SEAT,
+
+    /**
+     * A seat hold was confirmed and turned into a ticket.
+     */
+    CONFIRM_HOLD,
+
+    /**
+     * A seat hold lapsed without being confirmed.
+     */
+    EXPIRE_HOLD,
+
+    /**
+     * A passenger was registered.
+     */
+    REGISTER_PASSENGER,
+
+    /**
+     * A journey was created.
+     */
+    CREATE_JOURNEY,
+
+    /**
+     * A train was assigned to a journey.
+     */
+    ASSIGN_TRAIN,
+
+    /**
+     * A personnel member was assigned to a journey.
+     */
+    ASSIGN_PERSONNEL,
+
+    /**
+     * A train was created.
+     */
+    CREATE_TRAIN,
+
+    /**
+     * A full boarding list or boarding list delta was written.
+     */
+    GENERATE_BOARDING_LIST,
+
+    /**
+     * A timetable pattern was created.
+     */
+    CREATE_TIMETABLE,
+
+    /**
+     * The journeys of all timetable patterns were materialised for a window.
+     */
+    MATERIALISE_TIMETABLE,
+
+    /**
+     * The locomotive types were loaded from configuration.
+     */
+    LOAD_LOCOMOTIVE_TYPES,
+
+    /**
+     * The repositories were loaded from a snapshot file.
+     */
+    LOAD_SNAPSHOT,
+
+    /**
+     * The repositories were written to a snapshot file.
+     */
+    WRITE_SNAPSHOT
+}
@@ -0,0 +1,123 @@
+package be.ehb.euromoon.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counters and latency histograms for the service operations.
+ *
+ * <p>Services call {@link #start()} before an operation and
+ * {@link #record(Operation, long)} when it completes. Both calls are
+ * lock-free. A disabled instance, see {@link #disabled()}, skips the
+ * clock reads and recording entirely.
+ *
+ * <p>Reading the clock twice costs more than recording the value, so
+ * operations that run at high rates start with {@link #startSampled()}
+ * instead. It times a random one in every {@code timingInterval} calls;
+ * the others are only counted. The percentiles of those operations are
+ * therefore estimated from a sample, and a rare slow call may be missed
+ * by the maximum.
+ */
+public class ServiceMetrics {
+    public static final int DEFAULT_TIMING_INTERVAL = 8;
+
+    private static final ServiceMetrics DISABLED = new ServiceMetrics(false, 1);
+    private static final long UNTIMED = Long.MIN_VALUE;
+
+    private final boolean enabled;
+    private final int timingInterval;
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+
+    public ServiceMetrics() {
+        this(DEFAULT_TIMING_INTERVAL);
+    }
+
+    /**
+     * Creates metrics that time one in every {@code timingInterval} sampled operations.
+     *
+     * @param timingInterval the sampling interval, 1 to time every operation
+     */
+    public ServiceMetrics(int timingInterval) {
+        this(true, timingInterval);
+    }
+
+    private ServiceMetrics(boolean enabled, int timingInterval) {
+        if (timingInterval <= 0) {
+            throw new IllegalArgumentException("Timing interval must be greater than 0");
+        }
+        this.enabled = enabled;
+        this.timingInterval = timingInterval;
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Returns a shared instance that records nothing.
+     *
+     * @return the disabled metrics
+     */
+    public static ServiceMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Marks the start of an operation.
+     *
+     * @return the start timestamp to pass to {@link #record(Operation, long)}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Marks the start of an operation that is only timed for a sample of calls.
+     *
+     * @return the start timestamp to pass to {@link #record(Operation, long)}
+     */
+    public long startSampled() {
+        if (!enabled) {
+            return 0;
+        }
+        return timingInterval == 1 || ThreadLocalRandom.current().nextInt(timingInterval) == 0
+            ? System.nanoTime()
+            : UNTIMED;
+    }
+
+    /**
+     * Records the completion of an operation.
+     *
+     * @param operation the completed operation
+     * @param startNanos the timestamp returned by {@link #start()} or {@link #startSampled()}
+     */
+    public void record(Operation operation, long startNanos) {
+        if (enabled) {
+            LatencyHistogram histogram = histograms.get(operation);
+            if (startNanos == UNTIMED) {
+                histogram.recordUntimed();
+            } else {
+                histogram.record(System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    /**
+     * Returns the histogram of an operation.
+     *
+     * @param operation the operation
+     * @return the latency histogram
+     */
+    public LatencyHistogram getHistogram(Operation operation) {
+        return histograms.get(operation);
+    }
+
+    /**
+     * Takes a snapshot of the counters and latencies of all operations.
+     *
+     * @return the snapshot
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(histograms);
+    }
+}
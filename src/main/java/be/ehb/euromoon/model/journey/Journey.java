@@ -5,32 +5,42 @@ import be.ehb.euromoon.model.person.personnel.Personnel;
 import be.ehb.euromoon.model.person.personnel.Steward;
 import be.ehb.euromoon.model.ticket.ClassType;
 import be.ehb.euromoon.model.train.Train;
+import be.ehb.euromoon.util.IdGenerator;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
 /**
  * Represents a train journey in the Euromoon railway system.
  *
- * <p>A journey is a scheduled trip between two stations at a specific time.
- * It requires an assigned train and personnel (minimum 1 conductor and 3 stewards)
+ * <p>A journey is a scheduled trip between two stations at a specific time,
+ * possibly calling at intermediate stations along the way. The ordered
+ * stops divide the journey into segments, so tickets can be sold for
+ * part of the route. It requires an assigned train and personnel (minimum 1 conductor and 3 stewards)
  * to operate. The journey tracks its assigned personnel and provides capacity
  * information for ticket sales.
  */
 public class Journey {
     private UUID id;
-    private String departureStation;
-    private String arrivalStation;
+    private List<String> stops;
     private LocalDateTime departureTime;
     private Train train;
     private List<Personnel> assignedPersonnel;
 
     public Journey(String departureStation, String arrivalStation, LocalDateTime departureTime) {
-        this.id = UUID.randomUUID();
-        this.departureStation = departureStation;
-        this.arrivalStation = arrivalStation;
+        this(IdGenerator.timeOrdered().nextId(), departureStation, arrivalStation, departureTime);
+    }
+
+    public Journey(UUID id, String departureStation, String arrivalStation, LocalDateTime departureTime) {
+        this(id, List.of(departureStation, arrivalStation), departureTime);
+    }
+
+    public Journey(UUID id, List<String> stops, LocalDateTime departureTime) {
+        this.id = id;
+        this.stops = new ArrayList<>(stops);
         this.departureTime = departureTime;
         this.assignedPersonnel = new ArrayList<>();
     }
@@ -91,24 +101,47 @@ public class Journey {
         return train.getAvailableSeats(classType);
     }
 
+    /**
+     * Returns the position of a station in the list of stops.
+     *
+     * @param station the station name
+     * @return the index of the stop, or -1 if the journey does not call at the station
+     */
+    public int indexOfStop(String station) {
+        return stops.indexOf(station);
+    }
+
+    /**
+     * Returns the number of segments between consecutive stops.
+     *
+     * @return the number of segments
+     */
+    public int getSegmentCount() {
+        return stops.size() - 1;
+    }
+
     public UUID getId() {
         return id;
     }
 
+    public List<String> getStops() {
+        return Collections.unmodifiableList(stops);
+    }
+
     public String getDepartureStation() {
-        return departureStation;
+        return stops.get(0);
     }
 
     public void setDepartureStation(String departureStation) {
-        this.departureStation = departureStation;
+        stops.set(0, departureStation);
     }
 
     public String getArrivalStation() {
-        return arrivalStation;
+        return stops.get(stops.size() - 1);
     }
 
     public void setArrivalStation(String arrivalStation) {
-        this.arrivalStation = arrivalStation;
+        stops.set(stops.size() - 1, arrivalStation);
     }
 
     public LocalDateTime getDepartureTime() {
@@ -133,7 +166,7 @@ public class Journey {
 
     @Override
     public String toString() {
-        return departureStation + " -> " + arrivalStation +
+        return String.join(" -> ", stops) +
                " at " + departureTime +
                (train != null ? " (" + train.getTrainId() + ")" : " (no train assigned)");
     }
@@ -0,0 +1,164 @@
+package be.ehb.euromoon.model.journey;
+
+import be.ehb.euromoon.model.ticket.ClassType;
+
+/**
+ * Tracks seat occupancy per segment of a journey.
+ *
+ * <p>A journey with n stops has n - 1 segments. For every class type the
+ * inventory counts how many seats are taken on each segment, so a seat
+ * sold from A to B can be sold again from B to C. A ticket fits when every
+ * segment it covers still has a free seat. Seats are not numbered, so the
+ * busiest segment alone decides the availability of a trip.
+ *
+ * <p>Each class type may also have an overbooking allowance: the number of
+ * tickets that may be sold above the seat capacity because some passengers
+ * are expected not to show up. Capacity and allowance are checked together
+ * in the same locked operation that takes the seat.
+ *
+ * <p>All counters live in one flat array and every operation touches only
+ * the segments of the requested trip, so checks stay well below a
+ * microsecond even for long journeys.
+ */
+public class SeatInventory {
+    private static final int CLASS_COUNT = ClassType.values().length;
+
+    private final int segmentCount;
+    private final int[] capacity = new int[CLASS_COUNT];
+    private final int[] allowance = new int[CLASS_COUNT];
+    private final int[] occupied;
+
+    public SeatInventory(int segmentCount) {
+        this.segmentCount = segmentCount;
+        this.occupied = new int[CLASS_COUNT * segmentCount];
+    }
+
+    /**
+     * Sets the number of seats of a class type, e.g. after a train is assigned.
+     *
+     * @param classType the class type
+     * @param seats the number of seats
+     */
+    public synchronized void setCapacity(ClassType classType, int seats) {
+        capacity[classType.ordinal()] = seats;
+    }
+
+    /**
+     * Returns the number of seats of a class type.
+     *
+     * @param classType the class type
+     * @return the number of seats
+     */
+    public synchronized int getCapacity(ClassType classType) {
+        return capacity[classType.ordinal()];
+    }
+
+    /**
+     * Sets the number of tickets of a class type that may be sold above its seat capacity.
+     *
+     * @param classType the class type
+     * @param seats the overbooking allowance
+     */
+    public synchronized void setAllowance(ClassType classType, int seats) {
+        allowance[classType.ordinal()] = seats;
+    }
+
+    /**
+     * Returns the number of tickets of a class type that may be sold above its seat capacity.
+     *
+     * @param classType the class type
+     * @return the overbooking allowance
+     */
+    public synchronized int getAllowance(ClassType classType) {
+        return allowance[classType.ordinal()];
+    }
+
+    /**
+     * Takes a seat on every segment between two stops if all of them have a free seat.
+     *
+     * @param classType the class type of the seat
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     * @return true if the seat was taken, false if a segment is full
+     */
+    public synchronized boolean tryReserve(ClassType classType, int fromStop, int toStop) {
+        int limit = capacity[classType.ordinal()] + allowance[classType.ordinal()];
+        int base = classType.ordinal() * segmentCount;
+        for (int i = base + fromStop; i < base + toStop; i++) {
+            if (occupied[i] >= limit) {
+                return false;
+            }
+        }
+        for (int i = base + fromStop; i < base + toStop; i++) {
+            occupied[i]++;
+        }
+        return true;
+    }
+
+    /**
+     * Takes a seat on every segment between two stops, even if a segment is full.
+     *
+     * <p>This is used when rebuilding the inventory from tickets that were
+     * already sold, e.g. after a smaller train is assigned.
+     *
+     * @param classType the class type of the seat
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     */
+    public synchronized void occupy(ClassType classType, int fromStop, int toStop) {
+        int base = classType.ordinal() * segmentCount;
+        for (int i = base + fromStop; i < base + toStop; i++) {
+            occupied[i]++;
+        }
+    }
+
+    /**
+     * Frees a seat on every segment between two stops.
+     *
+     * @param classType the class type of the seat
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     */
+    public synchronized void release(ClassType classType, int fromStop, int toStop) {
+        int base = classType.ordinal() * segmentCount;
+        for (int i = base + fromStop; i < base + toStop; i++) {
+            if (occupied[i] > 0) {
+                occupied[i]--;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of seats that are free on every segment between two stops.
+     *
+     * <p>The overbooking allowance counts as free seats, so this is the
+     * number of tickets that can still be sold for the trip.
+     *
+     * @param classType the class type
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     * @return the number of available seats
+     */
+    public synchronized int getAvailableSeats(ClassType classType, int fromStop, int toStop) {
+        int base = classType.ordinal() * segmentCount;
+        int busiest = 0;
+        for (int i = base + fromStop; i < base + toStop; i++) {
+            busiest = Math.max(busiest, occupied[i]);
+        }
+        return Math.max(0, capacity[classType.ordinal()] + allowance[classType.ordinal()] - busiest);
+    }
+
+    /**
+     * Returns the number of seats that are free over the whole journey.
+     *
+     * @param classType the class type
+     * @return the number of available seats
+     */
+    public int getAvailableSeats(ClassType classType) {
+        return getAvailableSeats(classType, 0, segmentCount);
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+}
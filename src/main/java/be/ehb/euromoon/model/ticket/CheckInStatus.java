@@ -0,0 +1,21 @@
+package be.ehb.euromoon.model.ticket;
+
+/**
+ * Represents the outcome of scanning a passenger at the boarding gate.
+ */
+public enum CheckInStatus {
+    /**
+     * The passenger holds a ticket and is now marked as boarded.
+     */
+    BOARDED,
+
+    /**
+     * The passenger holds a ticket but was already marked as boarded.
+     */
+    ALREADY_BOARDED,
+
+    /**
+     * No ticket was found for this journey.
+     */
+    NO_TICKET
+}
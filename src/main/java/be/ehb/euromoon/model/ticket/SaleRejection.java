@@ -0,0 +1,61 @@
+package be.ehb.euromoon.model.ticket;
+
+/**
+ * Represents the reason a ticket could not be sold.
+ */
+public enum SaleRejection {
+    /**
+     * No passenger was given.
+     */
+    PASSENGER_MISSING("Passenger cannot be null"),
+
+    /**
+     * No journey was given.
+     */
+    JOURNEY_MISSING("Journey cannot be null"),
+
+    /**
+     * No class type was given.
+     */
+    CLASS_TYPE_MISSING("Class type cannot be null"),
+
+    /**
+     * The journey has no train assigned yet.
+     */
+    NO_TRAIN("Journey must have an assigned train before selling tickets"),
+
+    /**
+     * The journey has already departed.
+     */
+    DEPARTED("Journey has already departed"),
+
+    /**
+     * The passenger already holds a ticket for the journey.
+     */
+    ALREADY_BOOKED("Passenger already holds a ticket for this journey"),
+
+    /**
+     * The passenger already holds a seat for the journey that is not confirmed yet.
+     */
+    ALREADY_HELD("Passenger already holds a seat for this journey"),
+
+    /**
+     * The boarding and alighting stations are not stops of the journey in travel order.
+     */
+    INVALID_STOPS("Journey does not travel between the given stations"),
+
+    /**
+     * A segment of the trip has no available seats in the class type.
+     */
+    SOLD_OUT("No available seats in the requested class for this journey");
+
+    private final String message;
+
+    SaleRejection(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,70 @@
+package be.ehb.euromoon.model.ticket;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Represents a seat that is temporarily kept aside for a passenger.
+ *
+ * <p>A hold takes a seat on a journey like a ticket does, so the seat can
+ * no longer be sold to anyone else, but it lapses at its expiry time
+ * unless it is confirmed. Confirming a hold turns it into a ticket for the
+ * same passenger, journey, class type and stops.
+ */
+public class SeatHold {
+    private final UUID id;
+    private final Passenger passenger;
+    private final Journey journey;
+    private final ClassType classType;
+    private final int fromStop;
+    private final int toStop;
+    private final Instant expiresAt;
+
+    public SeatHold(UUID id, Passenger passenger, Journey journey, ClassType classType, int fromStop, int toStop,
+                    Instant expiresAt) {
+        this.id = id;
+        this.passenger = passenger;
+        this.journey = journey;
+        this.classType = classType;
+        this.fromStop = fromStop;
+        this.toStop = toStop;
+        this.expiresAt = expiresAt;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public Passenger getPassenger() {
+        return passenger;
+    }
+
+    public Journey getJourney() {
+        return journey;
+    }
+
+    public ClassType getClassType() {
+        return classType;
+    }
+
+    public int getFromStop() {
+        return fromStop;
+    }
+
+    public int getToStop() {
+        return toStop;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Hold " + id + " for " + passenger.getName() + " " + passenger.getLastname() + " on " + journey +
+               " (" + classType + " class, until " + expiresAt + ")";
+    }
+}
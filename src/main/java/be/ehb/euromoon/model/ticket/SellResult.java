@@ -0,0 +1,88 @@
+package be.ehb.euromoon.model.ticket;
+
+/**
+ * Represents the outcome of a ticket sale: the sold ticket, or the reason no ticket was sold.
+ *
+ * <p>Rejections are expected outcomes, such as a sold-out departure, and
+ * are returned instead of thrown. A rejection carries no details beyond
+ * its reason, so there is one shared result per reason and rejecting a
+ * sale allocates nothing.
+ */
+public final class SellResult {
+    private static final SellResult[] REJECTIONS = new SellResult[SaleRejection.values().length];
+
+    static {
+        for (SaleRejection rejection : SaleRejection.values()) {
+            REJECTIONS[rejection.ordinal()] = new SellResult(null, rejection);
+        }
+    }
+
+    private final Ticket ticket;
+    private final SaleRejection rejection;
+
+    private SellResult(Ticket ticket, SaleRejection rejection) {
+        this.ticket = ticket;
+        this.rejection = rejection;
+    }
+
+    /**
+     * Returns the result of a successful sale.
+     *
+     * @param ticket the sold ticket
+     * @return the result holding the ticket
+     */
+    public static SellResult sold(Ticket ticket) {
+        return new SellResult(ticket, null);
+    }
+
+    /**
+     * Returns the result of a sale that was rejected.
+     *
+     * @param rejection the reason the sale was rejected
+     * @return the shared result for the reason
+     */
+    public static SellResult rejected(SaleRejection rejection) {
+        return REJECTIONS[rejection.ordinal()];
+    }
+
+    public boolean isSold() {
+        return ticket != null;
+    }
+
+    public boolean isSoldOut() {
+        return rejection == SaleRejection.SOLD_OUT;
+    }
+
+    /**
+     * Returns whether the sale was rejected because of invalid input or a
+     * rule other than capacity, e.g. a missing train or a double booking.
+     *
+     * @return true if the sale was invalid
+     */
+    public boolean isInvalid() {
+        return rejection != null && rejection != SaleRejection.SOLD_OUT;
+    }
+
+    /**
+     * Returns the sold ticket.
+     *
+     * @return the ticket, or null if the sale was rejected
+     */
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    /**
+     * Returns the reason the sale was rejected.
+     *
+     * @return the reason, or null if the ticket was sold
+     */
+    public SaleRejection getRejection() {
+        return rejection;
+    }
+
+    @Override
+    public String toString() {
+        return isSold() ? "Sold " + ticket : "Rejected: " + rejection;
+    }
+}
@@ -2,6 +2,7 @@ package be.ehb.euromoon.model.ticket;
 
 import be.ehb.euromoon.model.journey.Journey;
 import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.util.IdGenerator;
 
 import java.util.UUID;
 
@@ -9,6 +10,8 @@ import java.util.UUID;
  * Represents a ticket purchased by a passenger for a journey.
  *
  * <p>A ticket links a passenger to a specific journey and class type.
+ * It covers the part of the journey between a boarding and an alighting
+ * stop, which by default are the first and last stop of the journey.
  * It serves as proof of purchase and reservation for a seat on the train.
  * Each ticket has a unique identifier for tracking and validation purposes.
  */
@@ -17,12 +20,51 @@ public class Ticket {
     private Passenger passenger;
     private Journey journey;
     private ClassType classType;
+    private int fromStop;
+    private int toStop;
 
     public Ticket(Passenger passenger, Journey journey, ClassType classType) {
-        this.id = UUID.randomUUID();
+        this(IdGenerator.timeOrdered().nextId(), passenger, journey, classType);
+    }
+
+    public Ticket(UUID id, Passenger passenger, Journey journey, ClassType classType) {
+        this(id, passenger, journey, classType, 0, journey.getSegmentCount());
+    }
+
+    public Ticket(UUID id, Passenger passenger, Journey journey, ClassType classType, int fromStop, int toStop) {
+        this.id = id;
         this.passenger = passenger;
         this.journey = journey;
         this.classType = classType;
+        this.fromStop = fromStop;
+        this.toStop = toStop;
+    }
+
+    /**
+     * Returns the station where the passenger boards.
+     *
+     * @return the boarding station
+     */
+    public String getBoardingStation() {
+        return journey.getStops().get(fromStop);
+    }
+
+    /**
+     * Returns the station where the passenger gets off.
+     *
+     * @return the alighting station
+     */
+    public String getAlightingStation() {
+        return journey.getStops().get(toStop);
+    }
+
+    /**
+     * Checks whether this ticket covers the whole journey.
+     *
+     * @return true if the ticket runs from the first to the last stop
+     */
+    public boolean isFullRoute() {
+        return fromStop == 0 && toStop == journey.getSegmentCount();
     }
 
     public UUID getId() {
@@ -53,10 +95,18 @@ public class Ticket {
         this.classType = classType;
     }
 
+    public int getFromStop() {
+        return fromStop;
+    }
+
+    public int getToStop() {
+        return toStop;
+    }
+
     @Override
     public String toString() {
         return "Ticket for " + passenger.getName() + " " + passenger.getLastname() +
-               " - " + journey.getDepartureStation() + " to " + journey.getArrivalStation() +
+               " - " + getBoardingStation() + " to " + getAlightingStation() +
                " (" + classType + " class)";
     }
 }
@@ -0,0 +1,158 @@
+package be.ehb.euromoon.model.timetable;
+
+import be.ehb.euromoon.util.TimeOrderedIdGenerator;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents a recurring departure in the Euromoon timetable.
+ *
+ * <p>A pattern describes a journey that departs at the same time on
+ * selected days of the week during a validity period, e.g. every weekday
+ * at 08:15 from January until December. Single dates can be excluded as
+ * exceptions, such as public holidays.
+ *
+ * <p>A pattern does not hold the journeys it describes. Each departure has
+ * a fixed journey ID derived from the pattern ID and the departure time,
+ * so the journey can be created on demand and found again later.
+ */
+public class TimetablePattern {
+    private final UUID id;
+    private final List<String> stops;
+    private final LocalTime departureTime;
+    private final int dayMask;
+    private final LocalDate validFrom;
+    private final LocalDate validUntil;
+    private final Set<LocalDate> exceptions = ConcurrentHashMap.newKeySet();
+
+    public TimetablePattern(UUID id, List<String> stops, LocalTime departureTime, Set<DayOfWeek> daysOfWeek,
+                            LocalDate validFrom, LocalDate validUntil) {
+        this.id = id;
+        this.stops = List.copyOf(stops);
+        this.departureTime = departureTime;
+        this.dayMask = toMask(daysOfWeek);
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * Checks if this pattern has a departure on a given date.
+     *
+     * @param date the date to check
+     * @return true if the date is within the validity period, on one of the
+     *         days of the week and not an exception, false otherwise
+     */
+    public boolean runsOn(LocalDate date) {
+        return (dayMask & (1 << date.getDayOfWeek().ordinal())) != 0
+            && !date.isBefore(validFrom)
+            && !date.isAfter(validUntil)
+            && (exceptions.isEmpty() || !exceptions.contains(date));
+    }
+
+    /**
+     * Returns the departure time of this pattern on a given date.
+     *
+     * @param date the date of the departure
+     * @return the date and time of the departure
+     */
+    public LocalDateTime getDepartureOn(LocalDate date) {
+        return date.atTime(departureTime);
+    }
+
+    /**
+     * Returns the ID of the journey departing on a given date.
+     *
+     * <p>The ID is the same every time it is requested for the same date.
+     *
+     * @param date the date of the departure
+     * @return the journey ID
+     */
+    public UUID getJourneyIdOn(LocalDate date) {
+        return TimeOrderedIdGenerator.derive(getDepartureOn(date).toInstant(ZoneOffset.UTC), id);
+    }
+
+    /**
+     * Returns the departure date of a journey created from this pattern.
+     *
+     * @param journeyId the journey ID to inspect
+     * @return the departure date, or empty if the ID does not belong to a departure of this pattern
+     */
+    public Optional<LocalDate> getDepartureDateOf(UUID journeyId) {
+        if (journeyId.getLeastSignificantBits() != id.getLeastSignificantBits()) {
+            return Optional.empty();
+        }
+        LocalDate date = LocalDateTime.ofInstant(TimeOrderedIdGenerator.timestampOf(journeyId), ZoneOffset.UTC)
+            .toLocalDate();
+        return runsOn(date) && getJourneyIdOn(date).equals(journeyId) ? Optional.of(date) : Optional.empty();
+    }
+
+    /**
+     * Excludes a date from this pattern.
+     *
+     * @param date the date on which the pattern does not run
+     */
+    public void addException(LocalDate date) {
+        if (date != null) {
+            exceptions.add(date);
+        }
+    }
+
+    /**
+     * Includes a previously excluded date in this pattern again.
+     *
+     * @param date the date to include again
+     */
+    public void removeException(LocalDate date) {
+        exceptions.remove(date);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public List<String> getStops() {
+        return stops;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public Set<DayOfWeek> getDaysOfWeek() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((dayMask & (1 << day.ordinal())) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public LocalDate getValidUntil() {
+        return validUntil;
+    }
+
+    public Set<LocalDate> getExceptions() {
+        return Collections.unmodifiableSet(exceptions);
+    }
+
+    private static int toMask(Set<DayOfWeek> daysOfWeek) {
+        int mask = 0;
+        for (DayOfWeek day : daysOfWeek) {
+            mask |= 1 << day.ordinal();
+        }
+        return mask;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" -> ", stops) + " at " + departureTime +
+            " on " + getDaysOfWeek() + " (" + validFrom + " to " + validUntil + ")";
+    }
+}
@@ -0,0 +1,112 @@
+package be.ehb.euromoon.model.train;
+
+import be.ehb.euromoon.exception.InvalidTrainException;
+import be.ehb.euromoon.model.ticket.ClassType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a reusable train composition in the Euromoon railway system.
+ *
+ * <p>A template combines a locomotive type with a wagon layout, e.g. a
+ * Class 373 with two first class and eight second class wagons. Any
+ * number of trains can be built from the same template. The wagon layout
+ * is validated against the locomotive type when it is defined, so building
+ * a train from a template cannot fail.
+ */
+public class CompositionTemplate {
+    private final String name;
+    private final LocomotiveType locomotiveType;
+    private final List<Wagon> wagons;
+
+    public CompositionTemplate(String name, LocomotiveType locomotiveType) {
+        this.name = name;
+        this.locomotiveType = locomotiveType;
+        this.wagons = new ArrayList<>();
+    }
+
+    /**
+     * Appends wagons of the same class type to the layout of this template.
+     *
+     * @param classType the class type of the wagons
+     * @param count the number of wagons to append
+     * @param seats the number of seats in each wagon
+     * @throws InvalidTrainException if the locomotive type cannot pull that many wagons
+     *         or does not support the class type
+     */
+    public void addWagons(ClassType classType, int count, int seats) throws InvalidTrainException {
+        if (!locomotiveType.supportsClass(classType)) {
+            throw new InvalidTrainException(
+                "Cannot add wagon: " + locomotiveType.getTypeName() +
+                " does not support " + classType + " class wagons"
+            );
+        }
+        if (wagons.size() + count > locomotiveType.getMaxWagons()) {
+            throw new InvalidTrainException(
+                "Cannot add wagon: " + locomotiveType.getTypeName() +
+                " supports maximum " + locomotiveType.getMaxWagons() + " wagons"
+            );
+        }
+        for (int i = 0; i < count; i++) {
+            wagons.add(new Wagon(wagons.size() + 1, classType, seats));
+        }
+    }
+
+    /**
+     * Appends wagons of the same class type with the standard seat layout of the locomotive type.
+     *
+     * @param classType the class type of the wagons
+     * @param count the number of wagons to append
+     * @throws InvalidTrainException if the locomotive type cannot pull that many wagons
+     *         or does not support the class type
+     */
+    public void addWagons(ClassType classType, int count) throws InvalidTrainException {
+        addWagons(classType, count, locomotiveType.getSeatsPerWagon(classType));
+    }
+
+    /**
+     * Builds a new train with this composition.
+     *
+     * @param trainId the unique identifier for the train
+     * @return the new train, with its own locomotive and wagons
+     */
+    public Train instantiate(String trainId) {
+        List<Wagon> trainWagons = new ArrayList<>(wagons.size());
+        for (Wagon wagon : wagons) {
+            trainWagons.add(new Wagon(wagon.getWagonNumber(), wagon.getClassType(), wagon.getSeats()));
+        }
+        return new Train(trainId, new Locomotive(locomotiveType), trainWagons);
+    }
+
+    /**
+     * Calculates the seats of a specific class type in this composition.
+     *
+     * @param classType the class type to check
+     * @return the number of seats for the specified class
+     */
+    public int getSeats(ClassType classType) {
+        return wagons.stream()
+            .filter(w -> w.getClassType() == classType)
+            .mapToInt(Wagon::getSeats)
+            .sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocomotiveType getLocomotiveType() {
+        return locomotiveType;
+    }
+
+    public List<Wagon> getWagons() {
+        return new ArrayList<>(wagons);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + locomotiveType.getTypeName() + ", " + wagons.size() + " wagons, " +
+               getSeats(ClassType.FIRST) + " first class and " + getSeats(ClassType.SECOND) + " second class seats)";
+    }
+}
@@ -0,0 +1,62 @@
+package be.ehb.euromoon.model.train;
+
+import be.ehb.euromoon.model.ticket.ClassType;
+
+import java.util.Set;
+
+/**
+ * Represents a locomotive type that is defined in configuration rather than in code.
+ *
+ * <p>All specifications are stored in final fields and plain arrays indexed
+ * by class type, so a configured type is immutable and answering any of
+ * its methods is a field or array read.
+ */
+public final class ConfiguredLocomotiveType implements LocomotiveType {
+    private final String typeName;
+    private final int maxWagons;
+    private final int capacity;
+    private final boolean[] supportedClasses;
+    private final int[] seatsPerWagon;
+
+    public ConfiguredLocomotiveType(String typeName, int maxWagons, int capacity, Set<ClassType> supportedClasses,
+                                    int[] seatsPerWagon) {
+        this.typeName = typeName;
+        this.maxWagons = maxWagons;
+        this.capacity = capacity;
+        this.supportedClasses = new boolean[ClassType.values().length];
+        for (ClassType classType : supportedClasses) {
+            this.supportedClasses[classType.ordinal()] = true;
+        }
+        this.seatsPerWagon = seatsPerWagon.clone();
+    }
+
+    @Override
+    public int getMaxWagons() {
+        return maxWagons;
+    }
+
+    @Override
+    public String getTypeName() {
+        return typeName;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean supportsClass(ClassType classType) {
+        return supportedClasses[classType.ordinal()];
+    }
+
+    @Override
+    public int getSeatsPerWagon(ClassType classType) {
+        return seatsPerWagon[classType.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return typeName + " (max " + maxWagons + " wagons)";
+    }
+}
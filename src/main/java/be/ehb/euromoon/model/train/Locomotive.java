@@ -6,12 +6,17 @@ package be.ehb.euromoon.model.train;
  * <p>A locomotive is the powered railway vehicle that pulls the wagons
  * of a train. It has a specific type that determines its capabilities,
  * including maximum wagon capacity and passenger capacity.
+ *
+ * <p>The specifications of the type are copied when the type is set, so
+ * capacity checks on a train read a field instead of calling into the type.
  */
 public class Locomotive {
     private LocomotiveType locomotiveType;
+    private int maxWagons;
+    private int capacity;
 
     public Locomotive(LocomotiveType locomotiveType) {
-        this.locomotiveType = locomotiveType;
+        setLocomotiveType(locomotiveType);
     }
 
     /**
@@ -20,7 +25,7 @@ public class Locomotive {
      * @return the maximum number of wagons
      */
     public int getMaxWagons() {
-        return locomotiveType.getMaxWagons();
+        return maxWagons;
     }
 
     /**
@@ -29,7 +34,7 @@ public class Locomotive {
      * @return the locomotive capacity
      */
     public int getCapacity() {
-        return locomotiveType.getCapacity();
+        return capacity;
     }
 
     public LocomotiveType getLocomotiveType() {
@@ -38,6 +43,8 @@ public class Locomotive {
 
     public void setLocomotiveType(LocomotiveType locomotiveType) {
         this.locomotiveType = locomotiveType;
+        this.maxWagons = locomotiveType.getMaxWagons();
+        this.capacity = locomotiveType.getCapacity();
     }
 
     @Override
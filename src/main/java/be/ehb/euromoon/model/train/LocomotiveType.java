@@ -1,5 +1,7 @@
 package be.ehb.euromoon.model.train;
 
+import be.ehb.euromoon.model.ticket.ClassType;
+
 /**
  * Interface representing a type of locomotive in the Euromoon railway system.
  *
@@ -30,4 +32,24 @@ public interface LocomotiveType {
      * @return the locomotive capacity
      */
     int getCapacity();
+
+    /**
+     * Checks if this locomotive type can pull wagons of a class type.
+     *
+     * @param classType the class type to check
+     * @return true if wagons of the class type are supported, false otherwise
+     */
+    default boolean supportsClass(ClassType classType) {
+        return true;
+    }
+
+    /**
+     * Returns the number of seats in a standard wagon of a class type for this locomotive type.
+     *
+     * @param classType the class type of the wagon
+     * @return the number of seats per wagon
+     */
+    default int getSeatsPerWagon(ClassType classType) {
+        return classType == ClassType.FIRST ? 50 : 70;
+    }
 }
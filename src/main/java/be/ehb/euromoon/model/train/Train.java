@@ -24,16 +24,30 @@ public class Train {
         this.wagons = new ArrayList<>();
     }
 
+    Train(String trainId, Locomotive locomotive, List<Wagon> wagons) {
+        this.trainId = trainId;
+        this.locomotive = locomotive;
+        this.wagons = wagons;
+    }
+
     /**
      * Adds a wagon to this train.
      *
      * <p>The wagon can only be added if the train has not reached its
-     * maximum wagon capacity as defined by the locomotive type.
+     * maximum wagon capacity as defined by the locomotive type, and the
+     * locomotive type supports the class type of the wagon.
      *
      * @param wagon the wagon to add
      * @throws InvalidTrainException if adding the wagon would exceed the maximum
+     *         or its class type is not supported
      */
     public void addWagon(Wagon wagon) throws InvalidTrainException {
+        if (!locomotive.getLocomotiveType().supportsClass(wagon.getClassType())) {
+            throw new InvalidTrainException(
+                "Cannot add wagon: " + locomotive.getLocomotiveType().getTypeName() +
+                " does not support " + wagon.getClassType() + " class wagons"
+            );
+        }
         if (wagons.size() >= locomotive.getMaxWagons()) {
             throw new InvalidTrainException(
                 "Cannot add wagon: " + locomotive.getLocomotiveType().getTypeName() +
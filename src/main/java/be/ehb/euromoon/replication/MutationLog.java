@@ -0,0 +1,104 @@
+package be.ehb.euromoon.replication;
+
+/**
+ * In-memory log of encoded mutations, numbered from 0.
+ *
+ * <p>Appends are serialised. Readers never lock: they read the records
+ * that were published when they looked at the log, and a record never
+ * changes once it is appended, so any number of senders can each follow
+ * the log at their own position.
+ *
+ * <p>Records that no reader needs any more can be dropped from the start of
+ * the log with {@link #truncate(int)}. The sequence numbers of the records
+ * that are kept do not change.
+ */
+class MutationLog {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile Records records = new Records(0, INITIAL_CAPACITY);
+
+    /**
+     * Appends a record.
+     *
+     * @param record the encoded mutation
+     * @return the sequence number of the record
+     */
+    synchronized int append(byte[] record) {
+        Records current = records;
+        int count = current.count;
+        if (count == current.entries.length) {
+            current = current.copy(0, Math.max(INITIAL_CAPACITY, count + (count >> 1)));
+            records = current;
+        }
+        current.entries[count] = record;
+        current.count = count + 1;
+        return current.firstSequence + count;
+    }
+
+    /**
+     * Drops the records before a sequence number.
+     *
+     * <p>Readers must not ask for a dropped record afterwards.
+     *
+     * @param sequence the sequence number of the first record to keep, at most {@link #size()}
+     */
+    synchronized void truncate(int sequence) {
+        Records current = records;
+        int dropped = sequence - current.firstSequence;
+        if (dropped > 0) {
+            int kept = current.count - dropped;
+            records = current.copy(dropped, Math.max(INITIAL_CAPACITY, kept + (kept >> 1)));
+        }
+    }
+
+    /**
+     * Returns the number of records ever appended, which is also the sequence number of the next record.
+     *
+     * @return the number of records
+     */
+    int size() {
+        Records current = records;
+        return current.firstSequence + current.count;
+    }
+
+    /**
+     * Returns the sequence number of the first record that has not been dropped.
+     *
+     * @return the first sequence number that can be read
+     */
+    int firstSequence() {
+        return records.firstSequence;
+    }
+
+    /**
+     * Returns a record.
+     *
+     * @param sequence the sequence number, from {@link #firstSequence()} and below {@link #size()}
+     * @return the encoded mutation
+     */
+    byte[] get(int sequence) {
+        Records current = records;
+        return current.entries[sequence - current.firstSequence];
+    }
+
+    /**
+     * The record array, the sequence number of its first entry and the number of records in use.
+     */
+    private static class Records {
+        private final int firstSequence;
+        private final byte[][] entries;
+        private volatile int count;
+
+        Records(int firstSequence, int capacity) {
+            this.firstSequence = firstSequence;
+            this.entries = new byte[capacity][];
+        }
+
+        Records copy(int dropped, int capacity) {
+            Records copy = new Records(firstSequence + dropped, capacity);
+            System.arraycopy(entries, dropped, copy.entries, 0, count - dropped);
+            copy.count = count - dropped;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package be.ehb.euromoon.replication;
+
+import be.ehb.euromoon.exception.InvalidTrainException;
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.model.train.Locomotive;
+import be.ehb.euromoon.model.train.LocomotiveType;
+import be.ehb.euromoon.model.train.Train;
+import be.ehb.euromoon.model.train.Wagon;
+import be.ehb.euromoon.repository.JourneyRepository;
+import be.ehb.euromoon.repository.TicketRepository;
+import be.ehb.euromoon.service.SeatAvailabilityCache;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Read-only copy of the bookings of a {@link ReplicationLeader}.
+ *
+ * <p>The follower connects to the leader, receives the mutation log in
+ * batches on a background thread and applies every mutation to its own
+ * repositories in log order. It answers availability and boarding list
+ * queries from those repositories, without any round trip to the leader.
+ * Answers lag behind the leader by the time a batch needs to arrive,
+ * which {@link #getAppliedSequence()} makes visible.
+ *
+ * <p>When the connection is lost, the follower keeps serving what it has
+ * and reconnects, asking the leader to continue after the last applied
+ * mutation. The applied sequence advances after every mutation, so a batch
+ * that is cut off halfway is continued, not applied twice. If the leader
+ * no longer has the mutations the follower missed, it sends a snapshot
+ * instead, which is applied to fresh repositories that replace the
+ * current ones once the whole snapshot has arrived.
+ */
+public class ReplicationFollower implements AutoCloseable {
+    public static final Duration DEFAULT_RECONNECT_DELAY = Duration.ofSeconds(1);
+
+    private static final ClassType[] CLASS_TYPES = ClassType.values();
+
+    private final InetSocketAddress leaderAddress;
+    private final Function<String, Optional<LocomotiveType>> locomotiveTypes;
+    private final long reconnectDelayMillis;
+    private final Thread receiver;
+    private volatile ReplicaState state = new ReplicaState();
+    private volatile long appliedSequence;
+    private volatile Socket socket;
+    private volatile boolean connected;
+    private volatile boolean closed;
+
+    public ReplicationFollower(String host, int port, Function<String, Optional<LocomotiveType>> locomotiveTypes) {
+        this(host, port, locomotiveTypes, DEFAULT_RECONNECT_DELAY);
+    }
+
+    /**
+     * Creates a follower and starts following the leader.
+     *
+     * @param host the host of the leader
+     * @param port the replication port of the leader
+     * @param locomotiveTypes looks up the locomotive types of replicated trains by name
+     * @param reconnectDelay how long to wait before reconnecting after the connection is lost
+     */
+    public ReplicationFollower(String host, int port, Function<String, Optional<LocomotiveType>> locomotiveTypes,
+                               Duration reconnectDelay) {
+        this.leaderAddress = new InetSocketAddress(host, port);
+        this.locomotiveTypes = locomotiveTypes;
+        this.reconnectDelayMillis = reconnectDelay.toMillis();
+        this.receiver = new Thread(this::receive, "replication-follower");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    /**
+     * Returns the seats of a class type that are free over the whole journey.
+     *
+     * @param journeyId the journey ID
+     * @param classType the class type
+     * @return the number of available seats, 0 if the journey is not known yet
+     */
+    public int getAvailableSeats(UUID journeyId, ClassType classType) {
+        ReplicaState current = state;
+        return current.journeyRepository.findById(journeyId)
+            .map(journey -> current.seatAvailabilityCache.getAvailableSeats(journey, classType))
+            .orElse(0);
+    }
+
+    /**
+     * Returns the tickets for a journey, sorted by passenger name.
+     *
+     * @param journeyId the journey ID
+     * @return the tickets for the journey
+     */
+    public List<Ticket> getBoardingList(UUID journeyId) {
+        List<Ticket> tickets = state.ticketRepository.findByJourney(journeyId);
+        tickets.sort(Comparator.comparing((Ticket ticket) -> ticket.getPassenger().getLastname())
+            .thenComparing(ticket -> ticket.getPassenger().getName()));
+        return tickets;
+    }
+
+    /**
+     * Returns the replicated journeys.
+     *
+     * @return the journeys, ordered by ID
+     */
+    public List<Journey> getJourneys() {
+        return state.journeyRepository.findAll();
+    }
+
+    /**
+     * Returns the number of replicated tickets.
+     *
+     * @return the number of tickets
+     */
+    public int getTicketCount() {
+        return state.ticketRepository.count();
+    }
+
+    /**
+     * Returns the number of mutations applied so far.
+     *
+     * <p>The follower reflects the leader up to the moment the leader's
+     * sequence had this value.
+     *
+     * @return the sequence number of the next mutation to apply
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Disconnects from the leader and stops following it.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                System.err.println("Warning: Could not close replication connection: " + e.getMessage());
+            }
+        }
+        receiver.interrupt();
+        try {
+            receiver.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void receive() {
+        while (!closed) {
+            try (Socket current = new Socket()) {
+                socket = current;
+                current.connect(leaderAddress);
+                current.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(current.getOutputStream());
+                out.writeLong(appliedSequence);
+                out.flush();
+                connected = true;
+                DataInputStream in = new DataInputStream(new BufferedInputStream(current.getInputStream(), 1 << 16));
+                while (!closed) {
+                    int count = in.readInt();
+                    long firstSequence = in.readLong();
+                    if (firstSequence == ReplicationProtocol.SNAPSHOT_SEQUENCE) {
+                        applySnapshot(in, count);
+                        continue;
+                    }
+                    if (firstSequence != appliedSequence) {
+                        throw new IOException("Expected mutation " + appliedSequence + " but received " +
+                            firstSequence);
+                    }
+                    ReplicaState replica = state;
+                    for (int i = 0; i < count; i++) {
+                        apply(replica, readRecord(in));
+                        appliedSequence = firstSequence + i + 1;
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Warning: Lost connection to replication leader " + leaderAddress + ": " +
+                        e.getMessage());
+                }
+            } finally {
+                connected = false;
+            }
+            if (!closed) {
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies a snapshot to fresh repositories and replaces the current ones with them.
+     */
+    private void applySnapshot(DataInputStream in, int count) throws IOException {
+        if (count == 0) {
+            throw new IOException("Empty snapshot");
+        }
+        DataInput header = readRecord(in);
+        if (header.readByte() != ReplicationProtocol.SNAPSHOT) {
+            throw new IOException("Snapshot does not start with its sequence number");
+        }
+        long sequence = header.readLong();
+        ReplicaState snapshot = new ReplicaState();
+        for (int i = 1; i < count; i++) {
+            apply(snapshot, readRecord(in));
+        }
+        state = snapshot;
+        appliedSequence = sequence;
+    }
+
+    private void apply(ReplicaState state, DataInput record) throws IOException {
+        byte type = record.readByte();
+        switch (type) {
+            case ReplicationProtocol.JOURNEY -> applyJourney(state, record);
+            case ReplicationProtocol.TICKET_SOLD -> applyTicketSold(state, record);
+            case ReplicationProtocol.TICKET_CANCELLED -> applyTicketCancelled(state, record);
+            default -> throw new IOException("Unknown mutation type " + type);
+        }
+    }
+
+    private void applyJourney(ReplicaState state, DataInput record) throws IOException {
+        UUID id = readUuid(record);
+        List<String> stops = new ArrayList<>();
+        int stopCount = record.readInt();
+        for (int i = 0; i < stopCount; i++) {
+            stops.add(record.readUTF());
+        }
+        LocalDateTime departureTime = LocalDateTime.ofEpochSecond(record.readLong(), record.readInt(), ZoneOffset.UTC);
+        String trainId = record.readUTF();
+        String typeName = record.readUTF();
+        LocomotiveType type = locomotiveTypes.apply(typeName)
+            .orElseThrow(() -> new IOException("Unknown locomotive type " + typeName));
+        Train train = new Train(trainId, new Locomotive(type));
+        int wagonCount = record.readInt();
+        try {
+            for (int i = 0; i < wagonCount; i++) {
+                train.addWagon(new Wagon(record.readInt(), CLASS_TYPES[record.readByte()], record.readInt()));
+            }
+        } catch (InvalidTrainException e) {
+            throw new IOException("Invalid train " + trainId + ": " + e.getMessage(), e);
+        }
+
+        Journey journey = state.journeyRepository.saveIfAbsent(new Journey(id, stops, departureTime));
+        journey.assignTrain(train);
+        state.seatAvailabilityCache.refresh(journey);
+    }
+
+    private void applyTicketSold(ReplicaState state, DataInput record) throws IOException {
+        UUID id = readUuid(record);
+        UUID journeyId = readUuid(record);
+        if (state.ticketRepository.findById(id).isPresent()) {
+            return;
+        }
+        Journey journey = state.journeyRepository.findById(journeyId)
+            .orElseThrow(() -> new IOException("Ticket " + id + " refers to unknown journey " + journeyId));
+        ClassType classType = CLASS_TYPES[record.readByte()];
+        int fromStop = record.readShort();
+        int toStop = record.readShort();
+        String rijksregisternummer = record.readUTF();
+        String name = record.readUTF();
+        String lastname = record.readUTF();
+        long birthDay = record.readLong();
+        Passenger passenger = state.passengers.computeIfAbsent(rijksregisternummer, number -> new Passenger(name, lastname,
+            number, birthDay == ReplicationProtocol.NO_DATE ? null : LocalDate.ofEpochDay(birthDay)));
+
+        state.seatAvailabilityCache.occupy(journey, classType, fromStop, toStop);
+        state.ticketRepository.save(new Ticket(id, passenger, journey, classType, fromStop, toStop));
+    }
+
+    private void applyTicketCancelled(ReplicaState state, DataInput record) throws IOException {
+        state.ticketRepository.delete(readUuid(record)).ifPresent(ticket -> state.seatAvailabilityCache.release(
+            ticket.getJourney(), ticket.getClassType(), ticket.getFromStop(), ticket.getToStop()));
+    }
+
+    private static DataInput readRecord(DataInputStream in) throws IOException {
+        byte[] record = new byte[in.readInt()];
+        in.readFully(record);
+        return new DataInputStream(new ByteArrayInputStream(record));
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    /**
+     * The repositories the replicated mutations are applied to.
+     *
+     * <p>Only changed by the receiver thread; a snapshot is applied to a new
+     * instance that replaces the current one as a whole.
+     */
+    private static class ReplicaState {
+        private final JourneyRepository journeyRepository = new JourneyRepository();
+        private final TicketRepository ticketRepository = new TicketRepository();
+        private final SeatAvailabilityCache seatAvailabilityCache = new SeatAvailabilityCache(ticketRepository);
+        private final Map<String, Passenger> passengers = new HashMap<>();
+    }
+}
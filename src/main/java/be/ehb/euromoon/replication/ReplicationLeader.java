@@ -0,0 +1,411 @@
+package be.ehb.euromoon.replication;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.model.train.Train;
+import be.ehb.euromoon.model.train.Wagon;
+import be.ehb.euromoon.service.JourneyListener;
+import be.ehb.euromoon.service.TicketListener;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ships the bookings of this instance to follower instances over TCP.
+ *
+ * <p>The leader listens to the ticket and journey services and appends
+ * every sale, cancellation and train assignment to an in-memory mutation
+ * log. A journey is shipped with its stops and train composition when
+ * its train is assigned or, at the latest, right before its first ticket,
+ * so a follower can always resolve the journey of a ticket.
+ *
+ * <p>Each connected follower is served by its own sender thread, which
+ * sends every mutation from the position the follower asked for, in
+ * batches of all mutations appended since the previous batch. Appending
+ * to the log is all that a sale waits for; a slow or disconnected
+ * follower never holds up a sale.
+ *
+ * <p>Next to the log, the leader keeps the latest journey mutation of every
+ * journey and the sale mutation of every ticket that is not cancelled.
+ * Mutations that every connected follower has received are dropped from
+ * the log once there are enough of them, so the log does not grow with
+ * every sale ever made. A follower that connects late, or reconnects after
+ * the mutations it missed were dropped, first receives a snapshot of the
+ * kept journeys and tickets and continues from there.
+ */
+public class ReplicationLeader implements TicketListener, JourneyListener, AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private static final int SPINS_BEFORE_PARK = 1000;
+    private static final long PARK_NANOS = 100_000;
+    private static final int MIN_TRUNCATION = 1 << 16;
+
+    private final ServerSocket serverSocket;
+    private final int batchSize;
+    private final MutationLog log = new MutationLog();
+    private final Map<UUID, byte[]> journeyRecords = new LinkedHashMap<>();
+    private final Map<UUID, byte[]> ticketRecords = new LinkedHashMap<>();
+    private final List<Socket> followers = new CopyOnWriteArrayList<>();
+    private final List<FollowerPosition> positions = new CopyOnWriteArrayList<>();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    public ReplicationLeader(int port) throws IOException {
+        this(port, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Opens the replication port and starts accepting followers.
+     *
+     * @param port the TCP port to listen on, or 0 for any free port
+     * @param batchSize the maximum number of mutations sent to a follower at once
+     * @throws IOException if the port cannot be opened
+     */
+    public ReplicationLeader(int port, int batchSize) throws IOException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.serverSocket = new ServerSocket(port);
+        this.batchSize = batchSize;
+        this.acceptor = new Thread(this::accept, "replication-leader");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /**
+     * Ships a journey with its current train, e.g. to replicate journeys that existed before the leader started.
+     *
+     * <p>Journeys without a train are skipped; they are shipped once a train is assigned.
+     *
+     * @param journey the journey to ship
+     */
+    public void publishJourney(Journey journey) {
+        if (journey.getTrain() == null) {
+            return;
+        }
+        byte[] record = encodeJourney(journey);
+        synchronized (log) {
+            journeyRecords.put(journey.getId(), record);
+            append(record);
+        }
+    }
+
+    @Override
+    public void trainAssigned(Journey journey, Train train) {
+        publishJourney(journey);
+    }
+
+    @Override
+    public void personnelAssigned(Journey journey, Personnel personnel) {
+        // Followers only answer availability and boarding list queries, which do not depend on personnel.
+    }
+
+    @Override
+    public void ticketSold(Ticket ticket) {
+        byte[] record = encodeTicketSold(ticket);
+        Journey journey = ticket.getJourney();
+        synchronized (log) {
+            if (!journeyRecords.containsKey(journey.getId())) {
+                byte[] journeyRecord = encodeJourney(journey);
+                journeyRecords.put(journey.getId(), journeyRecord);
+                append(journeyRecord);
+            }
+            ticketRecords.put(ticket.getId(), record);
+            append(record);
+        }
+    }
+
+    @Override
+    public void ticketCancelled(Ticket ticket) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(17);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(ReplicationProtocol.TICKET_CANCELLED);
+            writeUuid(out, ticket.getId());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (log) {
+            ticketRecords.remove(ticket.getId());
+            append(bytes.toByteArray());
+        }
+    }
+
+    /**
+     * Returns the port the leader listens on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the number of mutations appended to the log.
+     *
+     * <p>A follower whose applied sequence equals this number is up to date.
+     *
+     * @return the sequence number of the next mutation
+     */
+    public int getSequence() {
+        return log.size();
+    }
+
+    /**
+     * Returns the sequence number of the oldest mutation still in the log.
+     *
+     * <p>A follower asking for an older mutation is sent a snapshot first.
+     *
+     * @return the first sequence number that can be sent
+     */
+    public int getFirstSequence() {
+        return log.firstSequence();
+    }
+
+    /**
+     * Returns the number of followers that are connected.
+     *
+     * @return the number of connected followers
+     */
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    /**
+     * Stops accepting followers and disconnects the connected ones.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not close replication port: " + e.getMessage());
+        }
+        for (Socket follower : followers) {
+            closeQuietly(follower);
+        }
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept() {
+        int followerNumber = 0;
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                followers.add(socket);
+                Thread sender = new Thread(() -> send(socket), "replication-sender-" + followerNumber);
+                followerNumber++;
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Warning: Could not accept replication follower: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void send(Socket socket) {
+        FollowerPosition follower = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            long requested = in.readLong();
+            List<byte[]> snapshot = null;
+            synchronized (log) {
+                if (requested < 0 || requested > log.size()) {
+                    throw new IOException("Follower asked for unknown sequence " + requested);
+                }
+                if (requested < log.firstSequence()) {
+                    snapshot = snapshot();
+                    follower = new FollowerPosition(log.size());
+                } else {
+                    follower = new FollowerPosition((int) requested);
+                }
+                positions.add(follower);
+            }
+            if (snapshot != null) {
+                writeBatch(out, ReplicationProtocol.SNAPSHOT_SEQUENCE, snapshot);
+            }
+
+            int position = follower.position;
+            int idleSpins = 0;
+            while (!closed) {
+                int count = Math.min(log.size() - position, batchSize);
+                if (count > 0) {
+                    out.writeInt(count);
+                    out.writeLong(position);
+                    for (int i = 0; i < count; i++) {
+                        byte[] record = log.get(position + i);
+                        out.writeInt(record.length);
+                        out.write(record);
+                    }
+                    out.flush();
+                    position += count;
+                    follower.position = position;
+                    idleSpins = 0;
+                } else if (idleSpins < SPINS_BEFORE_PARK) {
+                    idleSpins++;
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        } catch (SocketException | EOFException e) {
+            if (!closed) {
+                System.err.println("Warning: Replication follower disconnected: " + socket.getRemoteSocketAddress());
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Replication to " + socket.getRemoteSocketAddress() + " failed: " +
+                e.getMessage());
+        } finally {
+            if (follower != null) {
+                positions.remove(follower);
+            }
+            followers.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Appends a mutation and drops the mutations every connected follower has received.
+     *
+     * <p>Dropping copies the rest of the log, so it waits until at least as
+     * many mutations can be dropped as are kept. The caller holds the lock
+     * of the log.
+     */
+    private void append(byte[] record) {
+        log.append(record);
+        int size = log.size();
+        int slowest = size;
+        for (FollowerPosition follower : positions) {
+            slowest = Math.min(slowest, follower.position);
+        }
+        int droppable = slowest - log.firstSequence();
+        if (droppable >= MIN_TRUNCATION && droppable >= size - slowest) {
+            log.truncate(slowest);
+        }
+    }
+
+    /**
+     * Encodes the kept journeys and tickets, as of the current end of the log. The caller holds the lock of the log.
+     */
+    private List<byte[]> snapshot() {
+        List<byte[]> records = new ArrayList<>(1 + journeyRecords.size() + ticketRecords.size());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(9);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(ReplicationProtocol.SNAPSHOT);
+            out.writeLong(log.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        records.add(bytes.toByteArray());
+        records.addAll(journeyRecords.values());
+        records.addAll(ticketRecords.values());
+        return records;
+    }
+
+    private static void writeBatch(DataOutputStream out, long firstSequence, List<byte[]> records)
+            throws IOException {
+        out.writeInt(records.size());
+        out.writeLong(firstSequence);
+        for (byte[] record : records) {
+            out.writeInt(record.length);
+            out.write(record);
+        }
+        out.flush();
+    }
+
+    private static byte[] encodeJourney(Journey journey) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(ReplicationProtocol.JOURNEY);
+            writeUuid(out, journey.getId());
+            List<String> stops = journey.getStops();
+            out.writeInt(stops.size());
+            for (String stop : stops) {
+                out.writeUTF(stop);
+            }
+            out.writeLong(journey.getDepartureTime().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(journey.getDepartureTime().getNano());
+            Train train = journey.getTrain();
+            out.writeUTF(train.getTrainId());
+            out.writeUTF(train.getLocomotive().getLocomotiveType().getTypeName());
+            List<Wagon> wagons = train.getWagons();
+            out.writeInt(wagons.size());
+            for (Wagon wagon : wagons) {
+                out.writeInt(wagon.getWagonNumber());
+                out.writeByte(wagon.getClassType().ordinal());
+                out.writeInt(wagon.getSeats());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeTicketSold(Ticket ticket) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(ReplicationProtocol.TICKET_SOLD);
+            writeUuid(out, ticket.getId());
+            writeUuid(out, ticket.getJourney().getId());
+            out.writeByte(ticket.getClassType().ordinal());
+            out.writeShort(ticket.getFromStop());
+            out.writeShort(ticket.getToStop());
+            Passenger passenger = ticket.getPassenger();
+            out.writeUTF(passenger.getRijksregisternummer());
+            out.writeUTF(passenger.getName());
+            out.writeUTF(passenger.getLastname());
+            out.writeLong(passenger.getGeboortedatum() == null ? ReplicationProtocol.NO_DATE
+                : passenger.getGeboortedatum().toEpochDay());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            System.err.println("Warning: Could not close replication connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The sequence number of the next mutation to send to a connected follower.
+     */
+    private static class FollowerPosition {
+        private volatile int position;
+
+        FollowerPosition(int position) {
+            this.position = position;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package be.ehb.euromoon.replication;
+
+/**
+ * Constants of the replication protocol shared by leader and followers.
+ *
+ * <p>A follower opens the connection and sends the sequence number of the
+ * first mutation it has not applied yet, as a long. The leader then sends
+ * batches, each made of the number of mutations as an int, the sequence
+ * number of the first mutation as a long, and every mutation as an int
+ * length followed by the encoded mutation. An encoded mutation starts
+ * with its type byte.
+ *
+ * <p>If the leader no longer has the mutation the follower asked for, it
+ * first sends a snapshot batch, whose sequence number is
+ * {@link #SNAPSHOT_SEQUENCE}. Its first mutation is a {@link #SNAPSHOT}
+ * holding the sequence number the snapshot is taken at, followed by a
+ * journey mutation for every journey and a ticket sold mutation for every
+ * ticket that is not cancelled. The follower replaces its copy with the
+ * snapshot and continues from that sequence number.
+ */
+class ReplicationProtocol {
+    static final byte JOURNEY = 1;
+    static final byte TICKET_SOLD = 2;
+    static final byte TICKET_CANCELLED = 3;
+    static final byte SNAPSHOT = 4;
+    static final long SNAPSHOT_SEQUENCE = -1;
+    static final long NO_DATE = Long.MIN_VALUE;
+}
@@ -0,0 +1,77 @@
+package be.ehb.euromoon.report;
+
+import be.ehb.euromoon.event.BookingEvent;
+import be.ehb.euromoon.event.BookingEventConsumer;
+import be.ehb.euromoon.event.BookingEventType;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read model with the number of tickets sold and cancelled per hour.
+ *
+ * <p>Hours are kept in a sorted map, so the sales of one hour are a single
+ * lookup and the sales of a period of k hours are read in O(log n + k).
+ */
+public class HourlySalesReadModel implements BookingEventConsumer {
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final int SOLD = 0;
+    private static final int CANCELLED = 1;
+
+    private final NavigableMap<Long, AtomicLongArray> salesByHour = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void accept(List<BookingEvent> events) {
+        for (BookingEvent event : events) {
+            int counter = event.getType() == BookingEventType.TICKET_SOLD ? SOLD
+                : event.getType() == BookingEventType.TICKET_CANCELLED ? CANCELLED : -1;
+            if (counter >= 0) {
+                long hour = event.getTimestamp() - Math.floorMod(event.getTimestamp(), HOUR_MILLIS);
+                salesByHour.computeIfAbsent(hour, h -> new AtomicLongArray(2)).incrementAndGet(counter);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tickets sold during an hour.
+     *
+     * @param time any moment within the hour
+     * @return the number of tickets sold
+     */
+    public long getSold(Instant time) {
+        AtomicLongArray sales = salesByHour.get(time.truncatedTo(ChronoUnit.HOURS).toEpochMilli());
+        return sales == null ? 0 : sales.get(SOLD);
+    }
+
+    /**
+     * Returns the number of tickets cancelled during an hour.
+     *
+     * @param time any moment within the hour
+     * @return the number of tickets cancelled
+     */
+    public long getCancelled(Instant time) {
+        AtomicLongArray sales = salesByHour.get(time.truncatedTo(ChronoUnit.HOURS).toEpochMilli());
+        return sales == null ? 0 : sales.get(CANCELLED);
+    }
+
+    /**
+     * Returns the number of tickets sold per hour in a period.
+     *
+     * <p>Hours without sales are left out.
+     *
+     * @param from the start of the period, inclusive
+     * @param until the end of the period, exclusive
+     * @return the tickets sold, keyed by the start of each hour
+     */
+    public SortedMap<Instant, Long> getSoldPerHour(Instant from, Instant until) {
+        SortedMap<Instant, Long> sold = new TreeMap<>();
+        long start = from.truncatedTo(ChronoUnit.HOURS).toEpochMilli();
+        for (Map.Entry<Long, AtomicLongArray> entry : salesByHour.subMap(start, until.toEpochMilli()).entrySet()) {
+            sold.put(Instant.ofEpochMilli(entry.getKey()), entry.getValue().get(SOLD));
+        }
+        return sold;
+    }
+}
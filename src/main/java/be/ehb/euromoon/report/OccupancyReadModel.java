@@ -0,0 +1,118 @@
+package be.ehb.euromoon.report;
+
+import be.ehb.euromoon.event.BookingEvent;
+import be.ehb.euromoon.event.BookingEventConsumer;
+import be.ehb.euromoon.event.BookingEventType;
+import be.ehb.euromoon.event.TicketEvent;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read model with the number of tickets held per journey and per departure day, by class type.
+ *
+ * <p>The counters are updated from ticket events, so reading them never
+ * touches the ticket repository. Both queries are a hash lookup.
+ *
+ * <p>The model remembers which tickets it counted, so an event for a ticket
+ * that is already counted, or a cancellation of a ticket that is not, is
+ * ignored. It can therefore be rebuilt from the tickets in the repository
+ * at any time, while events that were published before are still queued.
+ */
+public class OccupancyReadModel implements BookingEventConsumer {
+    private static final int CLASS_COUNT = ClassType.values().length;
+
+    private final Map<UUID, AtomicLongArray> ticketsByJourney = new ConcurrentHashMap<>();
+    private final Map<LocalDate, AtomicLongArray> ticketsByDay = new ConcurrentHashMap<>();
+    private final Set<UUID> countedTickets = ConcurrentHashMap.newKeySet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void accept(List<BookingEvent> events) {
+        lock.readLock().lock();
+        try {
+            for (BookingEvent event : events) {
+                if (event.getType() == BookingEventType.TICKET_SOLD) {
+                    TicketEvent sold = (TicketEvent) event;
+                    if (countedTickets.add(sold.getTicketId())) {
+                        count(sold.getJourneyId(), sold.getDepartureTime().toLocalDate(), sold.getClassType(), 1);
+                    }
+                } else if (event.getType() == BookingEventType.TICKET_CANCELLED) {
+                    TicketEvent cancelled = (TicketEvent) event;
+                    if (countedTickets.remove(cancelled.getTicketId())) {
+                        count(cancelled.getJourneyId(), cancelled.getDepartureTime().toLocalDate(),
+                            cancelled.getClassType(), -1);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the counters with those of the given tickets.
+     *
+     * <p>Used to seed the model after a restart and to repair it after
+     * events were dropped. Events are not applied while the tickets are
+     * being counted, and queries may see partial counts until it returns.
+     *
+     * @param tickets all tickets currently held
+     */
+    public void rebuild(Iterable<Ticket> tickets) {
+        lock.writeLock().lock();
+        try {
+            ticketsByJourney.clear();
+            ticketsByDay.clear();
+            countedTickets.clear();
+            for (Ticket ticket : tickets) {
+                if (countedTickets.add(ticket.getId())) {
+                    count(ticket.getJourney().getId(), ticket.getJourney().getDepartureTime().toLocalDate(),
+                        ticket.getClassType(), 1);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of tickets held for a journey.
+     *
+     * @param journeyId the journey ID
+     * @param classType the class type
+     * @return the number of tickets sold and not cancelled
+     */
+    public long getTickets(UUID journeyId, ClassType classType) {
+        AtomicLongArray tickets = ticketsByJourney.get(journeyId);
+        return tickets == null ? 0 : tickets.get(classType.ordinal());
+    }
+
+    /**
+     * Returns the number of tickets held for all journeys departing on a day.
+     *
+     * @param day the departure day
+     * @param classType the class type
+     * @return the number of tickets sold and not cancelled
+     */
+    public long getTicketsOnDay(LocalDate day, ClassType classType) {
+        AtomicLongArray tickets = ticketsByDay.get(day);
+        return tickets == null ? 0 : tickets.get(classType.ordinal());
+    }
+
+    private void count(UUID journeyId, LocalDate day, ClassType classType, int delta) {
+        int classIndex = classType.ordinal();
+        ticketsByJourney.computeIfAbsent(journeyId, id -> new AtomicLongArray(CLASS_COUNT))
+            .addAndGet(classIndex, delta);
+        ticketsByDay.computeIfAbsent(day, d -> new AtomicLongArray(CLASS_COUNT)).addAndGet(classIndex, delta);
+    }
+}
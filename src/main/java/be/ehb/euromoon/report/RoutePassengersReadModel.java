@@ -0,0 +1,110 @@
+package be.ehb.euromoon.report;
+
+import be.ehb.euromoon.event.BookingEvent;
+import be.ehb.euromoon.event.BookingEventConsumer;
+import be.ehb.euromoon.event.BookingEventType;
+import be.ehb.euromoon.event.TicketEvent;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read model with the number of passengers per route, from boarding to alighting station.
+ *
+ * <p>Looking up one route is a hash lookup. The busiest routes are found
+ * with one pass over the routes that keeps only the k largest.
+ *
+ * <p>Like {@link OccupancyReadModel}, the model remembers which tickets it
+ * counted, so it can be rebuilt from the ticket repository while earlier
+ * events are still queued.
+ */
+public class RoutePassengersReadModel implements BookingEventConsumer {
+    private final Map<String, LongAdder> passengersByRoute = new ConcurrentHashMap<>();
+    private final Set<UUID> countedTickets = ConcurrentHashMap.newKeySet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void accept(List<BookingEvent> events) {
+        lock.readLock().lock();
+        try {
+            for (BookingEvent event : events) {
+                if (event.getType() == BookingEventType.TICKET_SOLD) {
+                    TicketEvent sold = (TicketEvent) event;
+                    if (countedTickets.add(sold.getTicketId())) {
+                        passengersOf(sold.getBoardingStation(), sold.getAlightingStation()).increment();
+                    }
+                } else if (event.getType() == BookingEventType.TICKET_CANCELLED) {
+                    TicketEvent cancelled = (TicketEvent) event;
+                    if (countedTickets.remove(cancelled.getTicketId())) {
+                        passengersOf(cancelled.getBoardingStation(), cancelled.getAlightingStation()).decrement();
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the passenger counts with those of the given tickets.
+     *
+     * @param tickets all tickets currently held
+     */
+    public void rebuild(Iterable<Ticket> tickets) {
+        lock.writeLock().lock();
+        try {
+            passengersByRoute.clear();
+            countedTickets.clear();
+            for (Ticket ticket : tickets) {
+                if (countedTickets.add(ticket.getId())) {
+                    passengersOf(ticket.getBoardingStation(), ticket.getAlightingStation()).increment();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of passengers holding a ticket between two stations.
+     *
+     * @param boardingStation the boarding station
+     * @param alightingStation the alighting station
+     * @return the number of passengers
+     */
+    public long getPassengers(String boardingStation, String alightingStation) {
+        LongAdder passengers = passengersByRoute.get(routeOf(boardingStation, alightingStation));
+        return passengers == null ? 0 : passengers.sum();
+    }
+
+    /**
+     * Returns the routes with the most passengers.
+     *
+     * @param limit the maximum number of routes to return
+     * @return the routes and their number of passengers, busiest first
+     */
+    public List<Map.Entry<String, Long>> getBusiestRoutes(int limit) {
+        PriorityQueue<Map.Entry<String, Long>> busiest = new PriorityQueue<>(Map.Entry.comparingByValue());
+        for (Map.Entry<String, LongAdder> entry : passengersByRoute.entrySet()) {
+            busiest.add(Map.entry(entry.getKey(), entry.getValue().sum()));
+            if (busiest.size() > limit) {
+                busiest.poll();
+            }
+        }
+        List<Map.Entry<String, Long>> routes = new ArrayList<>(busiest);
+        routes.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return routes;
+    }
+
+    private LongAdder passengersOf(String boardingStation, String alightingStation) {
+        return passengersByRoute.computeIfAbsent(routeOf(boardingStation, alightingStation), route -> new LongAdder());
+    }
+
+    private static String routeOf(String boardingStation, String alightingStation) {
+        return boardingStation + " -> " + alightingStation;
+    }
+}
@@ -2,16 +2,28 @@ package be.ehb.euromoon.repository;
 
 import be.ehb.euromoon.model.journey.Journey;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing journeys in memory.
  *
  * <p>This repository stores journeys using their UUID as a unique identifier.
  * It provides methods for saving, finding, and managing journey records.
+ *
+ * <p>Journeys are also indexed by departure time, so the journeys that
+ * still have to depart can be listed in departure order without sorting
+ * the whole repository.
  */
 public class JourneyRepository {
-    private final Map<UUID, Journey> journeys = new HashMap<>();
+    private static final UUID FIRST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    private final NavigableMap<UUID, Journey> journeys = new ConcurrentSkipListMap<>();
+    private final NavigableMap<DepartureKey, Journey> journeysByDeparture = new ConcurrentSkipListMap<>();
+    private final Map<UUID, DepartureKey> departureKeys = new ConcurrentHashMap<>();
 
     /**
      * Saves a journey to the repository.
@@ -21,7 +33,23 @@ public class JourneyRepository {
     public void save(Journey journey) {
         if (journey != null && journey.getId() != null) {
             journeys.put(journey.getId(), journey);
+            indexDeparture(journey);
+        }
+    }
+
+    /**
+     * Saves a journey unless a journey with the same ID is already stored.
+     *
+     * @param journey the journey to save
+     * @return the journey that is stored under the ID after the call
+     */
+    public Journey saveIfAbsent(Journey journey) {
+        Journey existing = journeys.putIfAbsent(journey.getId(), journey);
+        if (existing != null) {
+            return existing;
         }
+        indexDeparture(journey);
+        return journey;
     }
 
     /**
@@ -34,6 +62,45 @@ public class JourneyRepository {
         return Optional.ofNullable(journeys.get(id));
     }
 
+    /**
+     * Returns a page of journeys, ordered by ID.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of journeys on the page
+     * @return the page of journeys
+     */
+    public Page<Journey> findPage(String cursor, int size) {
+        return Page.of(journeys, cursor == null ? null : UUID.fromString(cursor), size, UUID::toString);
+    }
+
+    /**
+     * Returns a page of the journeys departing at or after a moment, ordered by departure time.
+     *
+     * @param from the earliest departure time to include
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of journeys on the page
+     * @return the page of journeys
+     */
+    public Page<Journey> findDepartingPage(LocalDateTime from, String cursor, int size) {
+        DepartureKey first = new DepartureKey(from, FIRST_ID);
+        DepartureKey after = cursor == null ? null : DepartureKey.parse(cursor);
+        if (after != null && after.compareTo(first) < 0) {
+            after = null;
+        }
+        return Page.of(journeysByDeparture.tailMap(first, true), after, size, DepartureKey::toString);
+    }
+
+    /**
+     * Returns a stream over all journeys without copying them.
+     *
+     * <p>The stream reflects the repository as it is while being consumed.
+     *
+     * @return a stream of all journeys
+     */
+    public Stream<Journey> stream() {
+        return journeys.values().stream();
+    }
+
     /**
      * Returns all journeys in the repository.
      *
@@ -52,4 +119,63 @@ public class JourneyRepository {
     public boolean exists(UUID id) {
         return journeys.containsKey(id);
     }
+
+    private void indexDeparture(Journey journey) {
+        if (journey.getDepartureTime() == null) {
+            return;
+        }
+        DepartureKey key = new DepartureKey(journey.getDepartureTime(), journey.getId());
+        DepartureKey previous = departureKeys.put(journey.getId(), key);
+        if (previous != null && !previous.equals(key)) {
+            journeysByDeparture.remove(previous);
+        }
+        journeysByDeparture.put(key, journey);
+    }
+
+    /**
+     * Sort key of a journey by departure time, with the journey ID to tell apart journeys departing together.
+     */
+    private static class DepartureKey implements Comparable<DepartureKey> {
+        private final LocalDateTime departureTime;
+        private final UUID journeyId;
+
+        DepartureKey(LocalDateTime departureTime, UUID journeyId) {
+            this.departureTime = departureTime;
+            this.journeyId = journeyId;
+        }
+
+        static DepartureKey parse(String cursor) {
+            int separator = cursor.indexOf(' ');
+            return new DepartureKey(LocalDateTime.parse(cursor.substring(0, separator)),
+                UUID.fromString(cursor.substring(separator + 1)));
+        }
+
+        @Override
+        public int compareTo(DepartureKey other) {
+            int byTime = departureTime.compareTo(other.departureTime);
+            return byTime != 0 ? byTime : journeyId.compareTo(other.journeyId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DepartureKey)) {
+                return false;
+            }
+            DepartureKey other = (DepartureKey) o;
+            return departureTime.equals(other.departureTime) && journeyId.equals(other.journeyId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(departureTime, journeyId);
+        }
+
+        @Override
+        public String toString() {
+            return departureTime + " " + journeyId;
+        }
+    }
 }
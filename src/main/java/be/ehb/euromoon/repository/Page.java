@@ -0,0 +1,72 @@
+package be.ehb.euromoon.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.function.Function;
+
+/**
+ * A page of results from a repository, together with the cursor to fetch the next page.
+ *
+ * <p>Cursors are opaque strings. Passing the cursor of a page to the same
+ * repository method returns the items that follow it, even if items were
+ * added or removed in the meantime.
+ *
+ * @param <T> the type of the items on the page
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Reads a page from a sorted map, starting after the given key.
+     *
+     * @param map the sorted map to read from
+     * @param after the key to start after, or null to start at the beginning
+     * @param size the maximum number of items on the page
+     * @param cursorOf converts a key to its cursor
+     * @param <K> the key type
+     * @param <T> the item type
+     * @return the page
+     */
+    static <K, T> Page<T> of(NavigableMap<K, T> map, K after, int size, Function<K, String> cursorOf) {
+        NavigableMap<K, T> remaining = after == null ? map : map.tailMap(after, false);
+        Iterator<Map.Entry<K, T>> iterator = remaining.entrySet().iterator();
+
+        List<T> items = new ArrayList<>(Math.max(0, size));
+        K lastKey = null;
+        while (items.size() < size && iterator.hasNext()) {
+            Map.Entry<K, T> entry = iterator.next();
+            items.add(entry.getValue());
+            lastKey = entry.getKey();
+        }
+
+        String nextCursor = iterator.hasNext() && lastKey != null ? cursorOf.apply(lastKey) : null;
+        return new Page<>(items, nextCursor);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Checks whether there are more items after this page.
+     *
+     * @return true if a next page exists, false otherwise
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,354 @@
+package be.ehb.euromoon.repository;
+
+import be.ehb.euromoon.model.person.Passenger;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Search index over the first and last names of passengers.
+ *
+ * <p>Every name is split into tokens that are normalised to lower case
+ * without accents, so "Élodie" is found by "elodie". The tokens are stored
+ * in a trie whose nodes keep the passengers whose token ends there. A query
+ * first collects passengers with a token equal to or starting with the
+ * query, then, if fewer than the requested number were found, passengers
+ * with a token starting with a string at edit distance 1 from the query.
+ *
+ * <p>A query only walks the trie along the query and the subtrees below
+ * the matching nodes until enough results are found. Every node counts the
+ * passenger tokens in its subtree, so a query with several words walks the
+ * subtree of its most selective word and filters by the others, instead of
+ * walking every passenger whose name starts with the first word.
+ *
+ * <p>Searches share a read lock and may run concurrently; adding and
+ * removing passengers takes the write lock.
+ */
+class PassengerNameIndex {
+    private static final int SELECTIVITY_FACTOR = 8;
+
+    private final Node root = new Node();
+    private final Map<String, String[]> indexedTokens = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a passenger to the index, replacing any earlier entry with the same rijksregisternummer.
+     *
+     * @param passenger the passenger to index
+     */
+    void add(Passenger passenger) {
+        String[] tokens = tokenize(passenger.getName() + " " + passenger.getLastname());
+        lock.writeLock().lock();
+        try {
+            removeIndexed(passenger.getRijksregisternummer());
+            for (String token : tokens) {
+                root.descend(token, true).addPassenger(passenger);
+                adjustCounts(token, 1);
+            }
+            indexedTokens.put(passenger.getRijksregisternummer(), tokens);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the passenger with the given rijksregisternummer from the index.
+     *
+     * @param rijksregisternummer the rijksregisternummer of the passenger to remove
+     */
+    void remove(String rijksregisternummer) {
+        lock.writeLock().lock();
+        try {
+            removeIndexed(rijksregisternummer);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches passengers by name.
+     *
+     * <p>The first word of the query is matched against the index by prefix
+     * and, if needed, with one typo. Any further words must each be a prefix
+     * of one of the passenger's name tokens.
+     *
+     * @param query the search text
+     * @param limit the maximum number of results
+     * @return the matching passengers, best matches first
+     */
+    List<Passenger> search(String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            String first = terms[0];
+            String[] rest = Arrays.copyOfRange(terms, 1, terms.length);
+            Node mostSelective = null;
+            for (String term : rest) {
+                Node node = root.descend(term, false);
+                if (node == null || node.count == 0) {
+                    return List.of();
+                }
+                if (mostSelective == null || node.count < mostSelective.count) {
+                    mostSelective = node;
+                }
+            }
+
+            Set<Passenger> results = new LinkedHashSet<>();
+            Node exact = root.descend(first, false);
+            if (exact != null) {
+                collect(Set.of(exact), rest, mostSelective, results, limit);
+            }
+
+            if (results.size() < limit) {
+                Set<Node> fuzzyMatches = new LinkedHashSet<>();
+                collectFuzzy(root, first, 0, true, fuzzyMatches);
+                collect(fuzzyMatches, rest, mostSelective, results, limit);
+            }
+
+            return new ArrayList<>(results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalises a text to lower case without accents and splits it into tokens.
+     *
+     * @param text the text to tokenize
+     * @return the tokens, possibly empty
+     */
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String decomposed = Normalizer.isNormalized(text, Normalizer.Form.NFD)
+            ? text
+            : Normalizer.normalize(text, Normalizer.Form.NFD);
+
+        List<String> tokens = new ArrayList<>(2);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!isMark(c) && token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK
+            || type == Character.COMBINING_SPACING_MARK
+            || type == Character.ENCLOSING_MARK;
+    }
+
+    private void removeIndexed(String rijksregisternummer) {
+        String[] tokens = indexedTokens.remove(rijksregisternummer);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Node node = root.descend(token, false);
+            if (node != null && node.removePassenger(rijksregisternummer)) {
+                adjustCounts(token, -1);
+            }
+        }
+    }
+
+    private void adjustCounts(String token, int delta) {
+        Node node = root;
+        node.count += delta;
+        for (int i = 0; i < token.length(); i++) {
+            node = node.child(token.charAt(i));
+            node.count += delta;
+        }
+    }
+
+    /**
+     * Collects passengers with a token below one of the first-word nodes that match all other words.
+     *
+     * <p>The candidates are taken from the subtrees of the first-word nodes,
+     * unless the subtree of the most selective other word is much smaller.
+     * Walking a subtree stops as soon as enough results are found, so a
+     * larger subtree is only worth avoiding if few of its passengers match.
+     */
+    private void collect(Set<Node> firstMatches, String[] rest, Node mostSelective, Set<Passenger> results, int limit) {
+        int firstCount = 0;
+        for (Node node : firstMatches) {
+            firstCount += node.count;
+        }
+        if (mostSelective == null || firstCount <= (long) mostSelective.count * SELECTIVITY_FACTOR) {
+            for (Node node : firstMatches) {
+                walk(node, passenger -> matchesAll(passenger, rest), results, limit);
+            }
+        } else {
+            walk(mostSelective, passenger -> matchesAll(passenger, rest) && hasTokenBelow(passenger, firstMatches),
+                results, limit);
+        }
+    }
+
+    private void walk(Node start, Predicate<Passenger> filter, Set<Passenger> results, int limit) {
+        Deque<Node> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty() && results.size() < limit) {
+            Node node = queue.poll();
+            for (Passenger passenger : node.passengers != null ? node.passengers : List.<Passenger>of()) {
+                if (results.size() >= limit) {
+                    return;
+                }
+                if (filter.test(passenger)) {
+                    results.add(passenger);
+                }
+            }
+            for (int i = 0; i < node.size; i++) {
+                queue.add(node.children[i]);
+            }
+        }
+    }
+
+    private boolean hasTokenBelow(Passenger passenger, Set<Node> nodes) {
+        if (nodes.contains(root)) {
+            return true;
+        }
+        for (String token : indexedTokens.get(passenger.getRijksregisternummer())) {
+            Node node = root;
+            for (int i = 0; i < token.length() && node != null; i++) {
+                node = node.child(token.charAt(i));
+                if (nodes.contains(node)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesAll(Passenger passenger, String[] terms) {
+        if (terms.length == 0) {
+            return true;
+        }
+        String[] tokens = indexedTokens.get(passenger.getRijksregisternummer());
+        for (String term : terms) {
+            boolean found = false;
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the nodes whose path is at edit distance 1 from the query,
+     * allowing a substitution, insertion, deletion or transposition.
+     */
+    private void collectFuzzy(Node node, String query, int position, boolean editAvailable, Set<Node> matches) {
+        if (position == query.length()) {
+            matches.add(node);
+            return;
+        }
+
+        char c = query.charAt(position);
+        Node next = node.child(c);
+        if (next != null) {
+            collectFuzzy(next, query, position + 1, editAvailable, matches);
+        }
+        if (!editAvailable) {
+            return;
+        }
+
+        collectFuzzy(node, query, position + 1, false, matches);
+        for (int i = 0; i < node.size; i++) {
+            Node child = node.children[i];
+            if (node.keys[i] != c) {
+                collectFuzzy(child, query, position + 1, false, matches);
+            }
+            collectFuzzy(child, query, position, false, matches);
+        }
+        if (position + 1 < query.length() && query.charAt(position + 1) != c) {
+            Node swapped = node.child(query.charAt(position + 1));
+            if (swapped != null && (swapped = swapped.child(c)) != null) {
+                collectFuzzy(swapped, query, position + 2, false, matches);
+            }
+        }
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int size;
+        private int count;
+        private List<Passenger> passengers;
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, 0, size, c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node descend(String token, boolean create) {
+            Node node = this;
+            for (int i = 0; i < token.length() && node != null; i++) {
+                Node next = node.child(token.charAt(i));
+                if (next == null && create) {
+                    next = node.addChild(token.charAt(i));
+                }
+                node = next;
+            }
+            return node;
+        }
+
+        void addPassenger(Passenger passenger) {
+            if (passengers == null) {
+                passengers = new ArrayList<>(1);
+            }
+            passengers.add(passenger);
+        }
+
+        boolean removePassenger(String rijksregisternummer) {
+            if (passengers == null) {
+                return false;
+            }
+            for (Iterator<Passenger> it = passengers.iterator(); it.hasNext(); ) {
+                if (it.next().getRijksregisternummer().equals(rijksregisternummer)) {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Node addChild(char c) {
+            int index = -(Arrays.binarySearch(keys, 0, size, c) + 1);
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            Node child = new Node();
+            keys[index] = c;
+            children[index] = child;
+            size++;
+            return child;
+        }
+    }
+}
@@ -3,16 +3,21 @@ package be.ehb.euromoon.repository;
 import be.ehb.euromoon.model.person.Passenger;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing passengers in memory.
  *
  * <p>This repository stores passengers using their rijksregisternummer as
  * a unique identifier. It provides methods for saving, finding, and
- * checking existence of passengers.
+ * checking existence of passengers. Passengers are also indexed by name
+ * so they can be searched by (part of) their first or last name.
  */
 public class PassengerRepository {
-    private final Map<String, Passenger> passengers = new HashMap<>();
+    private final NavigableMap<String, Passenger> passengers = new ConcurrentSkipListMap<>();
+    private final PassengerNameIndex nameIndex = new PassengerNameIndex();
 
     /**
      * Saves a passenger to the repository.
@@ -22,6 +27,7 @@ public class PassengerRepository {
     public void save(Passenger passenger) {
         if (passenger != null && passenger.getRijksregisternummer() != null) {
             passengers.put(passenger.getRijksregisternummer(), passenger);
+            nameIndex.add(passenger);
         }
     }
 
@@ -35,6 +41,42 @@ public class PassengerRepository {
         return Optional.ofNullable(passengers.get(rijksregisternummer));
     }
 
+    /**
+     * Searches passengers by name.
+     *
+     * <p>Matching ignores case and accents, accepts name prefixes and
+     * tolerates a single typo in the first word of the query.
+     *
+     * @param query the (partial) first and/or last name to search for
+     * @param limit the maximum number of results
+     * @return the matching passengers, best matches first
+     */
+    public List<Passenger> searchByName(String query, int limit) {
+        return nameIndex.search(query, limit);
+    }
+
+    /**
+     * Returns a page of passengers, ordered by rijksregisternummer.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of passengers on the page
+     * @return the page of passengers
+     */
+    public Page<Passenger> findPage(String cursor, int size) {
+        return Page.of(passengers, cursor, size, Function.identity());
+    }
+
+    /**
+     * Returns a stream over all passengers without copying them.
+     *
+     * <p>The stream reflects the repository as it is while being consumed.
+     *
+     * @return a stream of all passengers
+     */
+    public Stream<Passenger> stream() {
+        return passengers.values().stream();
+    }
+
     /**
      * Returns all passengers in the repository.
      *
@@ -3,6 +3,9 @@ package be.ehb.euromoon.repository;
 import be.ehb.euromoon.model.person.personnel.Personnel;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing personnel in memory.
@@ -12,7 +15,7 @@ import java.util.*;
  * managing personnel records.
  */
 public class PersonnelRepository {
-    private final Map<String, Personnel> personnel = new HashMap<>();
+    private final NavigableMap<String, Personnel> personnel = new ConcurrentSkipListMap<>();
 
     /**
      * Saves a personnel member to the repository.
@@ -35,6 +38,28 @@ public class PersonnelRepository {
         return Optional.ofNullable(personnel.get(rijksregisternummer));
     }
 
+    /**
+     * Returns a page of personnel, ordered by rijksregisternummer.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of personnel on the page
+     * @return the page of personnel
+     */
+    public Page<Personnel> findPage(String cursor, int size) {
+        return Page.of(personnel, cursor, size, Function.identity());
+    }
+
+    /**
+     * Returns a stream over all personnel without copying them.
+     *
+     * <p>The stream reflects the repository as it is while being consumed.
+     *
+     * @return a stream of all personnel
+     */
+    public Stream<Personnel> stream() {
+        return personnel.values().stream();
+    }
+
     /**
      * Returns all personnel in the repository.
      *
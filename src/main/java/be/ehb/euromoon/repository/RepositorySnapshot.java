@@ -0,0 +1,442 @@
+package be.ehb.euromoon.repository;
+
+import be.ehb.euromoon.exception.InvalidTrainException;
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.person.personnel.BaggagePersonnel;
+import be.ehb.euromoon.model.person.personnel.Conductor;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.person.personnel.Steward;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.model.timetable.TimetablePattern;
+import be.ehb.euromoon.model.train.Locomotive;
+import be.ehb.euromoon.model.train.LocomotiveType;
+import be.ehb.euromoon.model.train.Train;
+import be.ehb.euromoon.model.train.Wagon;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * The contents of all repositories, written to and loaded from a binary snapshot file.
+ *
+ * <p>The file holds fixed-width records. Every string is stored once in a
+ * string table at the end of the file and referred to by its index, or by
+ * -1 if it is null, and records refer to passengers, personnel, trains and
+ * journeys by their position in the file. Loading maps the file into
+ * memory and reads the records field by field, without parsing text or
+ * looking up references by key. The indexes of the repositories are filled
+ * while the records are saved into them.
+ *
+ * <p>Writing fails if a record refers to a train, passenger, journey or
+ * member of personnel that is not in its repository, rather than leaving
+ * the reference out.
+ *
+ * <p>Locomotive types are stored by name and resolved when the snapshot is
+ * loaded, so a snapshot stays valid when the configuration of a type
+ * changes.
+ */
+public class RepositorySnapshot {
+    private static final int MAGIC = 0x454D534E;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int NO_REFERENCE = -1;
+    private static final ClassType[] CLASS_TYPES = ClassType.values();
+
+    private static final byte CONDUCTOR = 0;
+    private static final byte STEWARD = 1;
+    private static final byte BAGGAGE_PERSONNEL = 2;
+
+    private final PassengerRepository passengerRepository;
+    private final PersonnelRepository personnelRepository;
+    private final TrainRepository trainRepository;
+    private final JourneyRepository journeyRepository;
+    private final TicketRepository ticketRepository;
+    private final TimetableRepository timetableRepository;
+
+    public RepositorySnapshot() {
+        this(new PassengerRepository(), new PersonnelRepository(), new TrainRepository(), new JourneyRepository(),
+            new TicketRepository(), new TimetableRepository());
+    }
+
+    public RepositorySnapshot(PassengerRepository passengerRepository, PersonnelRepository personnelRepository,
+                              TrainRepository trainRepository, JourneyRepository journeyRepository,
+                              TicketRepository ticketRepository, TimetableRepository timetableRepository) {
+        this.passengerRepository = passengerRepository;
+        this.personnelRepository = personnelRepository;
+        this.trainRepository = trainRepository;
+        this.journeyRepository = journeyRepository;
+        this.ticketRepository = ticketRepository;
+        this.timetableRepository = timetableRepository;
+    }
+
+    /**
+     * Writes the contents of the repositories to a file.
+     *
+     * <p>The snapshot is first written to a temporary file next to the
+     * target, which then replaces the target, so an interrupted write never
+     * leaves a partial snapshot behind.
+     *
+     * @param path the file to write
+     * @throws IOException if writing the file fails
+     */
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(0);
+
+            List<Passenger> passengers = passengerRepository.findAll();
+            Map<String, Integer> passengerIndexes = new HashMap<>();
+            out.writeInt(passengers.size());
+            for (Passenger passenger : passengers) {
+                passengerIndexes.put(passenger.getRijksregisternummer(), passengerIndexes.size());
+                writePerson(out, strings, passenger.getName(), passenger.getLastname(),
+                    passenger.getRijksregisternummer(), passenger.getGeboortedatum());
+            }
+
+            List<Personnel> personnel = personnelRepository.findAll();
+            Map<String, Integer> personnelIndexes = new HashMap<>();
+            out.writeInt(personnel.size());
+            for (Personnel person : personnel) {
+                personnelIndexes.put(person.getRijksregisternummer(), personnelIndexes.size());
+                out.writeByte(kindOf(person));
+                writePerson(out, strings, person.getName(), person.getLastname(),
+                    person.getRijksregisternummer(), person.getGeboortedatum());
+                List<String> certifications = person.getCertifications();
+                out.writeInt(certifications.size());
+                for (String certification : certifications) {
+                    out.writeInt(indexOf(strings, certification));
+                }
+            }
+
+            List<Train> trains = trainRepository.findAll();
+            Map<String, Integer> trainIndexes = new HashMap<>();
+            out.writeInt(trains.size());
+            for (Train train : trains) {
+                trainIndexes.put(train.getTrainId(), trainIndexes.size());
+                out.writeInt(indexOf(strings, train.getTrainId()));
+                out.writeInt(indexOf(strings, train.getLocomotive().getLocomotiveType().getTypeName()));
+                List<Wagon> wagons = train.getWagons();
+                out.writeInt(wagons.size());
+                for (Wagon wagon : wagons) {
+                    out.writeInt(wagon.getWagonNumber());
+                    out.writeByte(wagon.getClassType().ordinal());
+                    out.writeInt(wagon.getSeats());
+                }
+            }
+
+            List<Journey> journeys = journeyRepository.findAll();
+            Map<UUID, Integer> journeyIndexes = new HashMap<>();
+            out.writeInt(journeys.size());
+            for (Journey journey : journeys) {
+                journeyIndexes.put(journey.getId(), journeyIndexes.size());
+                writeUuid(out, journey.getId());
+                writeStrings(out, strings, journey.getStops());
+                out.writeLong(journey.getDepartureTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(journey.getDepartureTime().getNano());
+                out.writeInt(journey.getTrain() == null ? NO_REFERENCE
+                    : referenceTo(trainIndexes, journey.getTrain().getTrainId(), "train"));
+                List<Personnel> assigned = journey.getAssignedPersonnel();
+                out.writeInt(assigned.size());
+                for (Personnel person : assigned) {
+                    out.writeInt(referenceTo(personnelIndexes, person.getRijksregisternummer(), "personnel"));
+                }
+            }
+
+            List<TimetablePattern> patterns = timetableRepository.findAll();
+            out.writeInt(patterns.size());
+            for (TimetablePattern pattern : patterns) {
+                writeUuid(out, pattern.getId());
+                writeStrings(out, strings, pattern.getStops());
+                out.writeLong(pattern.getDepartureTime().toNanoOfDay());
+                int dayMask = 0;
+                for (DayOfWeek day : pattern.getDaysOfWeek()) {
+                    dayMask |= 1 << day.ordinal();
+                }
+                out.writeByte(dayMask);
+                writeDate(out, pattern.getValidFrom());
+                writeDate(out, pattern.getValidUntil());
+                out.writeInt(pattern.getExceptions().size());
+                for (LocalDate exception : pattern.getExceptions()) {
+                    writeDate(out, exception);
+                }
+            }
+
+            List<Ticket> tickets = ticketRepository.findAll();
+            out.writeInt(tickets.size());
+            for (Ticket ticket : tickets) {
+                writeUuid(out, ticket.getId());
+                out.writeInt(referenceTo(passengerIndexes, ticket.getPassenger().getRijksregisternummer(), "passenger"));
+                out.writeInt(referenceTo(journeyIndexes, ticket.getJourney().getId(), "journey"));
+                out.writeByte(ticket.getClassType().ordinal());
+                out.writeShort(ticket.getFromStop());
+                out.writeShort(ticket.getToStop());
+            }
+
+            out.flush();
+            long stringTableOffset = channel.position();
+            out.writeInt(strings.size());
+            for (String string : strings.keySet()) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.flush();
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, stringTableOffset), 8);
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot file into new repositories.
+     *
+     * @param path the file to load
+     * @param locomotiveTypes resolves the locomotive type names stored in the snapshot
+     * @return the snapshot with the loaded repositories
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static RepositorySnapshot load(Path path, Function<String, Optional<LocomotiveType>> locomotiveTypes)
+            throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.limit() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            String[] strings = readStringTable(buffer, Math.toIntExact(buffer.getLong()));
+            buffer.position(HEADER_SIZE);
+
+            RepositorySnapshot snapshot = new RepositorySnapshot();
+
+            Passenger[] passengers = new Passenger[buffer.getInt()];
+            for (int i = 0; i < passengers.length; i++) {
+                passengers[i] = new Passenger(readString(buffer, strings), readString(buffer, strings),
+                    readString(buffer, strings), readDate(buffer));
+                snapshot.passengerRepository.save(passengers[i]);
+            }
+
+            Personnel[] personnel = new Personnel[buffer.getInt()];
+            for (int i = 0; i < personnel.length; i++) {
+                byte kind = buffer.get();
+                String name = readString(buffer, strings);
+                String lastname = readString(buffer, strings);
+                String rijksregisternummer = readString(buffer, strings);
+                LocalDate geboortedatum = readDate(buffer);
+                personnel[i] = switch (kind) {
+                    case CONDUCTOR -> new Conductor(name, lastname, rijksregisternummer, geboortedatum);
+                    case STEWARD -> new Steward(name, lastname, rijksregisternummer, geboortedatum);
+                    case BAGGAGE_PERSONNEL -> new BaggagePersonnel(name, lastname, rijksregisternummer, geboortedatum);
+                    default -> throw new IOException("Unknown personnel kind " + kind + " in snapshot: " + path);
+                };
+                int certificationCount = buffer.getInt();
+                for (int c = 0; c < certificationCount; c++) {
+                    personnel[i].addCertification(readString(buffer, strings));
+                }
+                snapshot.personnelRepository.save(personnel[i]);
+            }
+
+            Train[] trains = new Train[buffer.getInt()];
+            for (int i = 0; i < trains.length; i++) {
+                String trainId = readString(buffer, strings);
+                String typeName = readString(buffer, strings);
+                LocomotiveType type = locomotiveTypes.apply(typeName)
+                    .orElseThrow(() -> new IOException("Unknown locomotive type in snapshot: " + typeName));
+                trains[i] = new Train(trainId, new Locomotive(type));
+                int wagonCount = buffer.getInt();
+                for (int w = 0; w < wagonCount; w++) {
+                    trains[i].addWagon(new Wagon(buffer.getInt(), CLASS_TYPES[buffer.get()], buffer.getInt()));
+                }
+                snapshot.trainRepository.save(trains[i]);
+            }
+
+            Journey[] journeys = new Journey[buffer.getInt()];
+            for (int i = 0; i < journeys.length; i++) {
+                UUID id = readUuid(buffer);
+                List<String> stops = readStrings(buffer, strings);
+                LocalDateTime departureTime = LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(),
+                    ZoneOffset.UTC);
+                journeys[i] = new Journey(id, stops, departureTime);
+                int train = buffer.getInt();
+                if (train != NO_REFERENCE) {
+                    journeys[i].assignTrain(trains[train]);
+                }
+                int personnelCount = buffer.getInt();
+                for (int p = 0; p < personnelCount; p++) {
+                    journeys[i].assignPersonnel(personnel[buffer.getInt()]);
+                }
+                snapshot.journeyRepository.save(journeys[i]);
+            }
+
+            int patternCount = buffer.getInt();
+            for (int i = 0; i < patternCount; i++) {
+                UUID id = readUuid(buffer);
+                List<String> stops = readStrings(buffer, strings);
+                LocalTime departureTime = LocalTime.ofNanoOfDay(buffer.getLong());
+                int dayMask = buffer.get();
+                Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    if ((dayMask & (1 << day.ordinal())) != 0) {
+                        days.add(day);
+                    }
+                }
+                TimetablePattern pattern = new TimetablePattern(id, stops, departureTime, days,
+                    readDate(buffer), readDate(buffer));
+                int exceptionCount = buffer.getInt();
+                for (int e = 0; e < exceptionCount; e++) {
+                    pattern.addException(readDate(buffer));
+                }
+                snapshot.timetableRepository.save(pattern);
+            }
+
+            int ticketCount = buffer.getInt();
+            for (int i = 0; i < ticketCount; i++) {
+                UUID id = readUuid(buffer);
+                Passenger passenger = passengers[buffer.getInt()];
+                Journey journey = journeys[buffer.getInt()];
+                ClassType classType = CLASS_TYPES[buffer.get()];
+                snapshot.ticketRepository.save(new Ticket(id, passenger, journey, classType,
+                    buffer.getShort(), buffer.getShort()));
+            }
+            return snapshot;
+        } catch (InvalidTrainException e) {
+            throw new IOException("Invalid train in snapshot " + path + ": " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt snapshot file: " + path, e);
+        }
+    }
+
+    public PassengerRepository getPassengerRepository() {
+        return passengerRepository;
+    }
+
+    public PersonnelRepository getPersonnelRepository() {
+        return personnelRepository;
+    }
+
+    public TrainRepository getTrainRepository() {
+        return trainRepository;
+    }
+
+    public JourneyRepository getJourneyRepository() {
+        return journeyRepository;
+    }
+
+    public TicketRepository getTicketRepository() {
+        return ticketRepository;
+    }
+
+    public TimetableRepository getTimetableRepository() {
+        return timetableRepository;
+    }
+
+    private static String[] readStringTable(ByteBuffer buffer, int offset) {
+        ByteBuffer table = buffer.duplicate().position(offset);
+        String[] strings = new String[table.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[table.getInt()];
+            table.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    private static byte kindOf(Personnel person) throws IOException {
+        if (person instanceof Conductor) {
+            return CONDUCTOR;
+        } else if (person instanceof Steward) {
+            return STEWARD;
+        } else if (person instanceof BaggagePersonnel) {
+            return BAGGAGE_PERSONNEL;
+        }
+        throw new IOException("Cannot write personnel of type " + person.getClass().getSimpleName());
+    }
+
+    private static void writePerson(DataOutputStream out, Map<String, Integer> strings, String name,
+                                    String lastname, String rijksregisternummer, LocalDate geboortedatum)
+            throws IOException {
+        out.writeInt(indexOf(strings, name));
+        out.writeInt(indexOf(strings, lastname));
+        out.writeInt(indexOf(strings, rijksregisternummer));
+        writeDate(out, geboortedatum);
+    }
+
+    private static void writeStrings(DataOutputStream out, Map<String, Integer> strings, List<String> values)
+            throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeInt(indexOf(strings, value));
+        }
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer, String[] strings) {
+        String[] values = new String[buffer.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(buffer, strings);
+        }
+        return Arrays.asList(values);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer buffer) {
+        long epochDay = buffer.getLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static int indexOf(Map<String, Integer> strings, String string) {
+        return string == null ? NO_REFERENCE : strings.computeIfAbsent(string, s -> strings.size());
+    }
+
+    private static String readString(ByteBuffer buffer, String[] strings) {
+        int index = buffer.getInt();
+        return index == NO_REFERENCE ? null : strings[index];
+    }
+
+    private static <K> int referenceTo(Map<K, Integer> indexes, K key, String kind) throws IOException {
+        Integer index = indexes.get(key);
+        if (index == null) {
+            throw new IOException("Snapshot refers to unknown " + kind + ": " + key);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,216 @@
+package be.ehb.euromoon.repository;
+
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Columnar copy of the tickets of each journey, used to scan tickets by journey and class type.
+ *
+ * <p>Every journey has its own columns: the ordinal of the class type of
+ * each ticket and the ticket itself, each in its own array. Finding the
+ * tickets of a journey only reads the rows of that journey, and the number
+ * of tickets per class type is kept as a counter, so counting them is a
+ * single read.
+ *
+ * <p>Removed tickets leave a row whose class ordinal is marked as removed.
+ * When more than half of the rows of a journey are removed, the rows still
+ * in use are copied into new arrays. A journey whose tickets are all
+ * removed is dropped from the index, so journeys that are long gone do
+ * not keep an entry.
+ *
+ * <p>Writes to one journey are serialised; writes to different journeys
+ * run in parallel. Scans never lock: they read the
+ * columns that were published when the scan started, and see every ticket
+ * saved before that moment.
+ */
+class TicketColumnIndex {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int CLASS_COUNT = ClassType.values().length;
+    private static final byte REMOVED = -1;
+
+    private final Map<UUID, JourneyColumns> columnsByJourney = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Appends a ticket, removing an earlier row of a ticket with the same ID on the same journey.
+     *
+     * @param ticket the ticket to append
+     */
+    void add(Ticket ticket) {
+        columnsByJourney.compute(ticket.getJourney().getId(), (id, columns) -> {
+            JourneyColumns journeyColumns = columns != null ? columns : new JourneyColumns();
+            if (journeyColumns.add(ticket)) {
+                count.incrementAndGet();
+            }
+            return journeyColumns;
+        });
+    }
+
+    /**
+     * Marks the row of a ticket as removed.
+     *
+     * @param ticket the ticket to remove, with the journey it was saved for
+     */
+    void remove(Ticket ticket) {
+        columnsByJourney.computeIfPresent(ticket.getJourney().getId(), (id, columns) -> {
+            if (columns.remove(ticket.getId())) {
+                count.decrementAndGet();
+            }
+            return columns.isEmpty() ? null : columns;
+        });
+    }
+
+    /**
+     * Returns the number of tickets in the index.
+     *
+     * @return the number of rows that are not removed
+     */
+    int count() {
+        return count.get();
+    }
+
+    /**
+     * Finds the tickets for a journey.
+     *
+     * @param journeyId the journey ID
+     * @return the tickets for the journey, in the order they were saved
+     */
+    List<Ticket> findByJourney(UUID journeyId) {
+        JourneyColumns journeyColumns = columnsByJourney.get(journeyId);
+        if (journeyColumns == null) {
+            return new ArrayList<>();
+        }
+        Columns current = journeyColumns.columns;
+        int size = current.size;
+        byte[] classColumn = current.classOrdinals;
+        List<Ticket> found = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            if (classColumn[row] != REMOVED) {
+                Ticket ticket = current.tickets[row];
+                if (ticket != null) {
+                    found.add(ticket);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Counts the tickets for a journey and class type.
+     *
+     * @param journeyId the journey ID
+     * @param classType the class type
+     * @return the number of tickets
+     */
+    long countByJourneyAndClass(UUID journeyId, ClassType classType) {
+        JourneyColumns journeyColumns = columnsByJourney.get(journeyId);
+        return journeyColumns == null ? 0 : journeyColumns.classCounts.get(classType.ordinal());
+    }
+
+    /**
+     * The rows of one journey.
+     *
+     * <p>Only changed while the index holds the map entry of the journey,
+     * so changes are serialised without a lock of its own.
+     */
+    private static class JourneyColumns {
+        private final Map<UUID, Integer> rowsByTicket = new HashMap<>();
+        private final AtomicIntegerArray classCounts = new AtomicIntegerArray(CLASS_COUNT);
+        private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+        private int removedRows;
+
+        /**
+         * Appends a ticket, removing an earlier row with the same ticket ID.
+         *
+         * @return true if the ticket was not in the journey yet
+         */
+        boolean add(Ticket ticket) {
+            Columns current = columns;
+            int row = current.size;
+            if (row == current.tickets.length) {
+                current = current.copy(row + (row >> 1));
+                columns = current;
+            }
+            current.classOrdinals[row] = (byte) ticket.getClassType().ordinal();
+            current.tickets[row] = ticket;
+            current.size = row + 1;
+            classCounts.incrementAndGet(ticket.getClassType().ordinal());
+            Integer previousRow = rowsByTicket.put(ticket.getId(), row);
+            if (previousRow != null) {
+                removeRow(previousRow);
+                return false;
+            }
+            return true;
+        }
+
+        boolean remove(UUID ticketId) {
+            Integer row = rowsByTicket.remove(ticketId);
+            if (row == null) {
+                return false;
+            }
+            removeRow(row);
+            return true;
+        }
+
+        boolean isEmpty() {
+            return rowsByTicket.isEmpty();
+        }
+
+        private void removeRow(int row) {
+            Columns current = columns;
+            classCounts.decrementAndGet(current.classOrdinals[row]);
+            current.classOrdinals[row] = REMOVED;
+            current.tickets[row] = null;
+            if (++removedRows > current.size / 2) {
+                compact();
+            }
+        }
+
+        private void compact() {
+            Columns current = columns;
+            Columns compacted = new Columns(Math.max(INITIAL_CAPACITY, current.size - removedRows));
+            int size = 0;
+            for (int row = 0; row < current.size; row++) {
+                if (current.classOrdinals[row] != REMOVED) {
+                    compacted.classOrdinals[size] = current.classOrdinals[row];
+                    compacted.tickets[size] = current.tickets[row];
+                    rowsByTicket.put(current.tickets[row].getId(), size);
+                    size++;
+                }
+            }
+            compacted.size = size;
+            removedRows = 0;
+            columns = compacted;
+        }
+    }
+
+    /**
+     * The column arrays of one journey and the number of rows in use.
+     *
+     * <p>Rows below the size are never changed, except for being marked as
+     * removed, so a scan can read them while new rows are appended.
+     */
+    private static class Columns {
+        private final byte[] classOrdinals;
+        private final Ticket[] tickets;
+        private volatile int size;
+
+        Columns(int capacity) {
+            classOrdinals = new byte[capacity];
+            tickets = new Ticket[capacity];
+        }
+
+        Columns copy(int capacity) {
+            Columns copy = new Columns(capacity);
+            System.arraycopy(classOrdinals, 0, copy.classOrdinals, 0, size);
+            System.arraycopy(tickets, 0, copy.tickets, 0, size);
+            copy.size = size;
+            return copy;
+        }
+    }
+}
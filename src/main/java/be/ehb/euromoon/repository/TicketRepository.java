@@ -2,9 +2,15 @@ package be.ehb.euromoon.repository;
 
 import be.ehb.euromoon.model.ticket.Ticket;
 import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.util.TimeOrderedIdGenerator;
 
+import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing tickets in memory.
@@ -12,9 +18,22 @@ import java.util.stream.Collectors;
  * <p>This repository stores tickets using their UUID as a unique identifier.
  * It provides methods for saving, finding, and managing ticket records,
  * including journey-specific and class-specific queries.
+ *
+ * <p>Tickets are kept sorted by ID. Since ticket IDs are time-ordered,
+ * tickets issued within a time range can be found without a full scan.
+ * Tickets are also indexed by passenger, so the tickets of one passenger
+ * can be found without looking at the tickets of anyone else. Scans by
+ * journey and class type run over a columnar copy of the tickets, see
+ * {@link TicketColumnIndex}.
+ *
+ * <p>Every save and removal increments a modification count, so callers
+ * that keep a copy of the tickets can tell whether it is still current.
  */
 public class TicketRepository {
-    private final Map<UUID, Ticket> tickets = new HashMap<>();
+    private final NavigableMap<UUID, Ticket> tickets = new ConcurrentSkipListMap<>();
+    private final Map<String, List<Ticket>> ticketsByPassenger = new ConcurrentHashMap<>();
+    private final TicketColumnIndex columnIndex = new TicketColumnIndex();
+    private final AtomicLong modificationCount = new AtomicLong();
 
     /**
      * Saves a ticket to the repository.
@@ -23,7 +42,18 @@ public class TicketRepository {
      */
     public void save(Ticket ticket) {
         if (ticket != null && ticket.getId() != null) {
-            tickets.put(ticket.getId(), ticket);
+            Ticket previous = tickets.put(ticket.getId(), ticket);
+            if (previous != null) {
+                removeFromPassengerIndex(previous);
+            }
+            ticketsByPassenger
+                .computeIfAbsent(ticket.getPassenger().getRijksregisternummer(), rrn -> new CopyOnWriteArrayList<>())
+                .add(ticket);
+            columnIndex.add(ticket);
+            if (previous != null && !previous.getJourney().getId().equals(ticket.getJourney().getId())) {
+                columnIndex.remove(previous);
+            }
+            modificationCount.incrementAndGet();
         }
     }
 
@@ -37,6 +67,44 @@ public class TicketRepository {
         return Optional.ofNullable(tickets.get(id));
     }
 
+    /**
+     * Removes a ticket from the repository.
+     *
+     * @param id the ID of the ticket to remove
+     * @return an Optional containing the removed ticket, empty if it did not exist
+     */
+    public Optional<Ticket> delete(UUID id) {
+        Ticket removed = tickets.remove(id);
+        if (removed != null) {
+            removeFromPassengerIndex(removed);
+            columnIndex.remove(removed);
+            modificationCount.incrementAndGet();
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    /**
+     * Returns a page of tickets, ordered by ID.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of tickets on the page
+     * @return the page of tickets
+     */
+    public Page<Ticket> findPage(String cursor, int size) {
+        return Page.of(tickets, cursor == null ? null : UUID.fromString(cursor), size, UUID::toString);
+    }
+
+    /**
+     * Returns a stream over all tickets without copying them.
+     *
+     * <p>The stream reflects the repository as it is while being consumed.
+     *
+     * @return a stream of all tickets
+     */
+    public Stream<Ticket> stream() {
+        return tickets.values().stream();
+    }
+
     /**
      * Returns all tickets in the repository.
      *
@@ -46,16 +114,83 @@ public class TicketRepository {
         return new ArrayList<>(tickets.values());
     }
 
+    /**
+     * Returns the number of tickets in the repository.
+     *
+     * @return the number of tickets
+     */
+    public int count() {
+        return columnIndex.count();
+    }
+
+    /**
+     * Returns the number of times a ticket was saved or removed.
+     *
+     * <p>The count is incremented after the change is visible, so a copy
+     * taken after reading the count includes every change it covers.
+     *
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        return modificationCount.get();
+    }
+
+    /**
+     * Finds all tickets issued within a time range.
+     *
+     * <p>This relies on tickets having time-ordered IDs, as produced by
+     * {@link TimeOrderedIdGenerator}.
+     *
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @return the tickets issued in the range, oldest first
+     */
+    public List<Ticket> findIssuedBetween(Instant from, Instant to) {
+        return new ArrayList<>(tickets.subMap(
+            TimeOrderedIdGenerator.lowerBound(from), true,
+            TimeOrderedIdGenerator.lowerBound(to), false
+        ).values());
+    }
+
+    /**
+     * Finds all tickets held by a passenger.
+     *
+     * @param rijksregisternummer the passenger's rijksregisternummer
+     * @return the passenger's tickets, in the order they were saved
+     */
+    public List<Ticket> findByPassenger(String rijksregisternummer) {
+        List<Ticket> passengerTickets = ticketsByPassenger.get(rijksregisternummer);
+        return passengerTickets == null ? List.of() : new ArrayList<>(passengerTickets);
+    }
+
+    /**
+     * Checks if a passenger holds a ticket for a specific journey.
+     *
+     * @param rijksregisternummer the passenger's rijksregisternummer
+     * @param journeyId the journey ID
+     * @return true if such a ticket exists, false otherwise
+     */
+    public boolean existsByPassengerAndJourney(String rijksregisternummer, UUID journeyId) {
+        List<Ticket> passengerTickets = ticketsByPassenger.get(rijksregisternummer);
+        if (passengerTickets == null) {
+            return false;
+        }
+        for (Ticket ticket : passengerTickets) {
+            if (ticket.getJourney().getId().equals(journeyId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Finds all tickets for a specific journey.
      *
      * @param journeyId the journey ID to search for
-     * @return a list of tickets for the specified journey
+     * @return a list of tickets for the specified journey, in the order they were saved
      */
     public List<Ticket> findByJourney(UUID journeyId) {
-        return tickets.values().stream()
-            .filter(t -> t.getJourney().getId().equals(journeyId))
-            .collect(Collectors.toList());
+        return columnIndex.findByJourney(journeyId);
     }
 
     /**
@@ -66,9 +201,13 @@ public class TicketRepository {
      * @return the number of tickets sold
      */
     public long countByJourneyAndClass(UUID journeyId, ClassType classType) {
-        return tickets.values().stream()
-            .filter(t -> t.getJourney().getId().equals(journeyId))
-            .filter(t -> t.getClassType() == classType)
-            .count();
+        return columnIndex.countByJourneyAndClass(journeyId, classType);
+    }
+
+    private void removeFromPassengerIndex(Ticket ticket) {
+        List<Ticket> passengerTickets = ticketsByPassenger.get(ticket.getPassenger().getRijksregisternummer());
+        if (passengerTickets != null) {
+            passengerTickets.remove(ticket);
+        }
     }
 }
@@ -0,0 +1,83 @@
+package be.ehb.euromoon.repository;
+
+import be.ehb.euromoon.model.timetable.TimetablePattern;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Repository for managing timetable patterns in memory.
+ *
+ * <p>This repository stores patterns using their UUID as a unique identifier.
+ * Patterns are also indexed by the part of their ID that the journeys they
+ * create share, so the pattern of a journey can be found from its ID alone.
+ */
+public class TimetableRepository {
+    private final NavigableMap<UUID, TimetablePattern> patterns = new ConcurrentSkipListMap<>();
+    private final Map<Long, TimetablePattern> patternsByJourneyIdBits = new ConcurrentHashMap<>();
+
+    /**
+     * Saves a timetable pattern to the repository.
+     *
+     * @param pattern the pattern to save
+     */
+    public void save(TimetablePattern pattern) {
+        if (pattern != null && pattern.getId() != null) {
+            patterns.put(pattern.getId(), pattern);
+            patternsByJourneyIdBits.put(pattern.getId().getLeastSignificantBits(), pattern);
+        }
+    }
+
+    /**
+     * Finds a timetable pattern by its ID.
+     *
+     * @param id the pattern ID to search for
+     * @return an Optional containing the pattern if found, empty otherwise
+     */
+    public Optional<TimetablePattern> findById(UUID id) {
+        return Optional.ofNullable(patterns.get(id));
+    }
+
+    /**
+     * Finds the timetable pattern a journey was created from.
+     *
+     * @param journeyId the journey ID to search for
+     * @return an Optional containing the pattern if found, empty otherwise
+     */
+    public Optional<TimetablePattern> findByJourneyId(UUID journeyId) {
+        return Optional.ofNullable(patternsByJourneyIdBits.get(journeyId.getLeastSignificantBits()));
+    }
+
+    /**
+     * Returns a page of timetable patterns, ordered by ID.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of patterns on the page
+     * @return the page of patterns
+     */
+    public Page<TimetablePattern> findPage(String cursor, int size) {
+        return Page.of(patterns, cursor == null ? null : UUID.fromString(cursor), size, UUID::toString);
+    }
+
+    /**
+     * Returns a stream over all timetable patterns without copying them.
+     *
+     * <p>The stream reflects the repository as it is while being consumed.
+     *
+     * @return a stream of all patterns
+     */
+    public Stream<TimetablePattern> stream() {
+        return patterns.values().stream();
+    }
+
+    /**
+     * Returns all timetable patterns in the repository.
+     *
+     * @return a list of all patterns
+     */
+    public List<TimetablePattern> findAll() {
+        return new ArrayList<>(patterns.values());
+    }
+}
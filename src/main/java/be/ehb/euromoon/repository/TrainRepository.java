@@ -3,6 +3,9 @@ package be.ehb.euromoon.repository;
 import be.ehb.euromoon.model.train.Train;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing trains in memory.
@@ -11,7 +14,7 @@ import java.util.*;
  * It provides methods for saving, finding, and managing train records.
  */
 public class TrainRepository {
-    private final Map<String, Train> trains = new HashMap<>();
+    private final NavigableMap<String, Train> trains = new ConcurrentSkipListMap<>();
 
     /**
      * Saves a train to the repository.
@@ -34,6 +37,28 @@ public class TrainRepository {
         return Optional.ofNullable(trains.get(trainId));
     }
 
+    /**
+     * Returns a page of trains, ordered by train ID.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of trains on the page
+     * @return the page of trains
+     */
+    public Page<Train> findPage(String cursor, int size) {
+        return Page.of(trains, cursor, size, Function.identity());
+    }
+
+    /**
+     * Returns a stream over all trains without copying them.
+     *
+     * <p>The stream reflects the repository as it is while being consumed.
+     *
+     * @return a stream of all trains
+     */
+    public Stream<Train> stream() {
+        return trains.values().stream();
+    }
+
     /**
      * Returns all trains in the repository.
      *
@@ -0,0 +1,302 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.exception.OversellException;
+import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.model.train.Train;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous front for the ticket, journey and passenger services.
+ *
+ * <p>Every method hands the call to an executor and returns at once with
+ * a future. A call that fails with a ValidationException or
+ * OversellException completes its future exceptionally with that
+ * exception, so a front end can keep many requests in flight from a few
+ * threads and handle the outcomes as they arrive.
+ *
+ * <p>{@link #sellTickets(List)} pipelines many sales: it splits them into
+ * batches that each run as a single executor task, so the cost of handing
+ * work to another thread is paid once per batch instead of once per sale.
+ * Sales in one batch are carried out in order.
+ */
+public class AsyncBookingService implements AutoCloseable {
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final TicketService ticketService;
+    private final JourneyService journeyService;
+    private final PassengerService passengerService;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int batchSize;
+
+    /**
+     * Creates the service with its own pool of one thread per available processor.
+     *
+     * <p>The pool is shut down when the service is closed.
+     *
+     * @param ticketService the ticket service to call
+     * @param journeyService the journey service to call
+     * @param passengerService the passenger service to call
+     */
+    public AsyncBookingService(TicketService ticketService, JourneyService journeyService,
+                               PassengerService passengerService) {
+        this(ticketService, journeyService, passengerService, newPool(Runtime.getRuntime().availableProcessors()),
+            DEFAULT_BATCH_SIZE, true);
+    }
+
+    /**
+     * Creates the service on an executor owned by the caller.
+     *
+     * @param ticketService the ticket service to call
+     * @param journeyService the journey service to call
+     * @param passengerService the passenger service to call
+     * @param executor the executor that runs the calls, not shut down by {@link #close()}
+     * @param batchSize the number of pipelined sales carried out by one executor task
+     */
+    public AsyncBookingService(TicketService ticketService, JourneyService journeyService,
+                               PassengerService passengerService, Executor executor, int batchSize) {
+        this(ticketService, journeyService, passengerService, executor, batchSize, false);
+    }
+
+    private AsyncBookingService(TicketService ticketService, JourneyService journeyService,
+                                PassengerService passengerService, Executor executor, int batchSize,
+                                boolean ownsExecutor) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.ticketService = ticketService;
+        this.journeyService = journeyService;
+        this.passengerService = passengerService;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sells a ticket for the whole journey.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @return the future ticket
+     * @see TicketService#sellTicket(Passenger, Journey, ClassType)
+     */
+    public CompletableFuture<Ticket> sellTicket(Passenger passenger, Journey journey, ClassType classType) {
+        return submit(() -> ticketService.sellTicket(passenger, journey, classType));
+    }
+
+    /**
+     * Sells a ticket between two stops.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @param boardingStation the station where the passenger boards
+     * @param alightingStation the station where the passenger gets off
+     * @return the future ticket
+     * @see TicketService#sellTicket(Passenger, Journey, ClassType, String, String)
+     */
+    public CompletableFuture<Ticket> sellTicket(Passenger passenger, Journey journey, ClassType classType,
+                                                String boardingStation, String alightingStation) {
+        return submit(() -> ticketService.sellTicket(passenger, journey, classType, boardingStation,
+            alightingStation));
+    }
+
+    /**
+     * Submits many sales at once.
+     *
+     * @param requests the sales to carry out
+     * @return one future ticket per request, in the order of the requests
+     */
+    public List<CompletableFuture<Ticket>> sellTickets(List<SaleRequest> requests) {
+        List<CompletableFuture<Ticket>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        for (int from = 0; from < requests.size(); from += batchSize) {
+            int batchStart = from;
+            int batchEnd = Math.min(from + batchSize, requests.size());
+            execute(() -> {
+                for (int i = batchStart; i < batchEnd; i++) {
+                    SaleRequest request = requests.get(i);
+                    complete(results.get(i), () -> sell(request));
+                }
+            }, results.subList(batchStart, batchEnd));
+        }
+        return results;
+    }
+
+    /**
+     * Cancels a ticket.
+     *
+     * @param ticketId the ID of the ticket to cancel
+     * @return the future cancelled ticket
+     * @see TicketService#cancelTicket(UUID)
+     */
+    public CompletableFuture<Ticket> cancelTicket(UUID ticketId) {
+        return submit(() -> ticketService.cancelTicket(ticketId));
+    }
+
+    /**
+     * Returns the seats of a class type that are free over the whole journey.
+     *
+     * @param journey the journey
+     * @param classType the class type
+     * @return the future number of available seats
+     */
+    public CompletableFuture<Long> getAvailableSeats(Journey journey, ClassType classType) {
+        return submit(() -> ticketService.getAvailableSeats(journey, classType));
+    }
+
+    /**
+     * Returns all tickets for a journey.
+     *
+     * @param journey the journey
+     * @return the future tickets for the journey
+     */
+    public CompletableFuture<List<Ticket>> getTicketsByJourney(Journey journey) {
+        return submit(() -> ticketService.getTicketsByJourney(journey));
+    }
+
+    /**
+     * Creates a journey through the given stops.
+     *
+     * @param stops the stations in travel order
+     * @param departureTime the scheduled departure time
+     * @return the future journey
+     * @see JourneyService#createJourney(List, LocalDateTime)
+     */
+    public CompletableFuture<Journey> createJourney(List<String> stops, LocalDateTime departureTime) {
+        return submit(() -> journeyService.createJourney(stops, departureTime));
+    }
+
+    /**
+     * Assigns a train to a journey.
+     *
+     * @param journeyId the journey ID
+     * @param train the train to assign
+     * @return a future that completes when the train is assigned
+     * @see JourneyService#assignTrainToJourney(UUID, Train)
+     */
+    public CompletableFuture<Void> assignTrainToJourney(UUID journeyId, Train train) {
+        return submit(() -> {
+            journeyService.assignTrainToJourney(journeyId, train);
+            return null;
+        });
+    }
+
+    /**
+     * Finds a journey by its ID.
+     *
+     * @param journeyId the journey ID
+     * @return the future journey
+     * @see JourneyService#findById(UUID)
+     */
+    public CompletableFuture<Journey> findJourney(UUID journeyId) {
+        return submit(() -> journeyService.findById(journeyId));
+    }
+
+    /**
+     * Registers a new passenger.
+     *
+     * @param name the passenger's first name
+     * @param lastname the passenger's last name
+     * @param rijksregisternummer the passenger's national registry number
+     * @param geboortedatum the passenger's birth date
+     * @return the future passenger
+     * @see PassengerService#registerPassenger(String, String, String, LocalDate)
+     */
+    public CompletableFuture<Passenger> registerPassenger(String name, String lastname, String rijksregisternummer,
+                                                          LocalDate geboortedatum) {
+        return submit(() -> passengerService.registerPassenger(name, lastname, rijksregisternummer, geboortedatum));
+    }
+
+    /**
+     * Finds a passenger by rijksregisternummer.
+     *
+     * @param rijksregisternummer the rijksregisternummer to search for
+     * @return the future passenger
+     * @see PassengerService#findByRijksregisternummer(String)
+     */
+    public CompletableFuture<Passenger> findPassenger(String rijksregisternummer) {
+        return submit(() -> passengerService.findByRijksregisternummer(rijksregisternummer));
+    }
+
+    /**
+     * Shuts down the executor if the service created it, after the submitted calls have completed.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor == null) {
+            return;
+        }
+        ownedExecutor.shutdown();
+        try {
+            if (!ownedExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Warning: Booking calls still running after shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Ticket sell(SaleRequest request) throws ValidationException, OversellException {
+        if (request.getBoardingStation() == null && request.getAlightingStation() == null) {
+            return ticketService.sellTicket(request.getPassenger(), request.getJourney(), request.getClassType());
+        }
+        return ticketService.sellTicket(request.getPassenger(), request.getJourney(), request.getClassType(),
+            request.getBoardingStation(), request.getAlightingStation());
+    }
+
+    private <T> CompletableFuture<T> submit(ServiceCall<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(() -> complete(result, call), List.of(result));
+        return result;
+    }
+
+    private void execute(Runnable task, List<? extends CompletableFuture<?>> results) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            for (CompletableFuture<?> result : results) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, ServiceCall<T> call) {
+        try {
+            result.complete(call.call());
+        } catch (ValidationException | OversellException | RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private static ExecutorService newPool(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "async-booking-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A call to one of the services.
+     */
+    @FunctionalInterface
+    private interface ServiceCall<T> {
+        T call() throws ValidationException, OversellException;
+    }
+}
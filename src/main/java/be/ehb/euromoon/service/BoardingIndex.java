@@ -0,0 +1,136 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.ticket.CheckInStatus;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory index of the tickets of one departing journey.
+ *
+ * <p>Tickets can be looked up by the passenger's rijksregisternummer and by
+ * ticket ID. Lookups never lock and the boarded flag of a ticket is set with
+ * a single compare-and-set, so many gates can scan the same journey in
+ * parallel.
+ *
+ * <p>The index is registered before it is filled with the tickets already
+ * sold, so sales and cancellations made meanwhile are not lost. A ticket is
+ * indexed at most once, and a ticket cancelled during the fill is not added
+ * back from the older list.
+ */
+class BoardingIndex {
+    private final Map<String, Entry> byRijksregisternummer = new ConcurrentHashMap<>();
+    private final Map<UUID, Entry> byTicketId = new ConcurrentHashMap<>();
+    private final LongAdder boardedCount = new LongAdder();
+    private final Set<UUID> cancelledWhileFilling = ConcurrentHashMap.newKeySet();
+    private volatile boolean filling = true;
+
+    void add(Ticket ticket) {
+        Entry entry = new Entry(ticket);
+        if (byTicketId.putIfAbsent(ticket.getId(), entry) == null) {
+            byRijksregisternummer.putIfAbsent(ticket.getPassenger().getRijksregisternummer(), entry);
+        }
+    }
+
+    void fill(Iterable<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            if (!cancelledWhileFilling.contains(ticket.getId())) {
+                add(ticket);
+                if (cancelledWhileFilling.contains(ticket.getId())) {
+                    remove(ticket);
+                }
+            }
+        }
+        filling = false;
+        cancelledWhileFilling.clear();
+    }
+
+    void remove(Ticket ticket) {
+        if (filling) {
+            cancelledWhileFilling.add(ticket.getId());
+        }
+        Entry entry = byTicketId.remove(ticket.getId());
+        if (entry != null) {
+            byRijksregisternummer.remove(ticket.getPassenger().getRijksregisternummer(), entry);
+            if (entry.boarded == 1) {
+                boardedCount.decrement();
+            }
+        }
+    }
+
+    CheckInStatus checkInByRijksregisternummer(String rijksregisternummer) {
+        return checkIn(byRijksregisternummer.get(rijksregisternummer));
+    }
+
+    CheckInStatus checkInByTicketId(UUID ticketId) {
+        return checkIn(byTicketId.get(ticketId));
+    }
+
+    Optional<Ticket> findByRijksregisternummer(String rijksregisternummer) {
+        Entry entry = byRijksregisternummer.get(rijksregisternummer);
+        return entry == null ? Optional.empty() : Optional.of(entry.ticket);
+    }
+
+    boolean isBoarded(String rijksregisternummer) {
+        Entry entry = byRijksregisternummer.get(rijksregisternummer);
+        return entry != null && entry.boarded == 1;
+    }
+
+    int getTicketCount() {
+        return byTicketId.size();
+    }
+
+    long getBoardedCount() {
+        return boardedCount.sum();
+    }
+
+    int getTicketCount(ClassType classType) {
+        int count = 0;
+        for (Entry entry : byTicketId.values()) {
+            if (entry.ticket.getClassType() == classType) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int getBoardedCount(ClassType classType) {
+        int count = 0;
+        for (Entry entry : byTicketId.values()) {
+            if (entry.boarded == 1 && entry.ticket.getClassType() == classType) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private CheckInStatus checkIn(Entry entry) {
+        if (entry == null) {
+            return CheckInStatus.NO_TICKET;
+        }
+        if (!Entry.BOARDED.compareAndSet(entry, 0, 1)) {
+            return CheckInStatus.ALREADY_BOARDED;
+        }
+        boardedCount.increment();
+        return CheckInStatus.BOARDED;
+    }
+
+    private static class Entry {
+        private static final AtomicIntegerFieldUpdater<Entry> BOARDED =
+            AtomicIntegerFieldUpdater.newUpdater(Entry.class, "boarded");
+
+        private final Ticket ticket;
+        private volatile int boarded;
+
+        Entry(Ticket ticket) {
+            this.ticket = ticket;
+        }
+    }
+}
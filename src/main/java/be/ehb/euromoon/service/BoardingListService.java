@@ -1,35 +1,82 @@
 package be.ehb.euromoon.service;
 
+import be.ehb.euromoon.metrics.Operation;
+import be.ehb.euromoon.metrics.ServiceMetrics;
 import be.ehb.euromoon.model.journey.Journey;
 import be.ehb.euromoon.model.person.Passenger;
-import be.ehb.euromoon.model.person.personnel.Personnel;
-import be.ehb.euromoon.model.ticket.ClassType;
 import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.service.export.BoardingListEncoder;
+import be.ehb.euromoon.service.export.BoardingListFormat;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for generating boarding lists for journeys.
  *
- * <p>This service creates text files containing passenger and personnel
+ * <p>This service creates files containing passenger and personnel
  * information for specific journeys. The files are named according to
- * the format: Station1_Station2_DateTime.txt
+ * the format: Station1_Station2_DateTime.ext, where the extension depends
+ * on the chosen {@link BoardingListFormat}.
+ *
+ * <p>Once a full boarding list has been generated, the service keeps track
+ * of tickets sold and cancelled for that journey. Near departure,
+ * {@link #generateBoardingListDelta(Journey)} appends only those changes
+ * to a delta file next to the full list, so the cost of regenerating
+ * is proportional to the number of changes. The tracked changes of a
+ * journey are discarded when it departs.
  */
 public class BoardingListService {
+    private static final DateTimeFormatter CHANGE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
     private final TicketService ticketService;
+    private final ServiceMetrics metrics;
+    private final Map<UUID, PendingChanges> pendingChanges = new ConcurrentHashMap<>();
 
     public BoardingListService(TicketService ticketService) {
+        this(ticketService, ServiceMetrics.disabled());
+    }
+
+    public BoardingListService(TicketService ticketService, ServiceMetrics metrics) {
         this.ticketService = ticketService;
+        this.metrics = metrics;
+        ticketService.addTicketListener(new TicketListener() {
+            @Override
+            public void ticketSold(Ticket ticket) {
+                recordChange(ticket, true);
+            }
+
+            @Override
+            public void ticketCancelled(Ticket ticket) {
+                recordChange(ticket, false);
+            }
+
+            @Override
+            public void journeyDeparted(Journey journey) {
+                pendingChanges.remove(journey.getId());
+            }
+        });
     }
 
     /**
-     * Generates a boarding list file for a journey.
+     * Generates a text boarding list file for a journey.
      *
      * <p>The file contains:
      * - Journey information (stations, departure time)
@@ -41,84 +88,209 @@ public class BoardingListService {
      * @throws IOException if file creation fails
      */
     public String generateBoardingList(Journey journey) throws IOException {
+        return generateBoardingList(journey, BoardingListFormat.TEXT);
+    }
+
+    /**
+     * Generates a boarding list file for a journey in the given format.
+     *
+     * @param journey the journey to generate the boarding list for
+     * @param format the format to write the boarding list in
+     * @return the filename of the generated file
+     * @throws IOException if file creation fails
+     */
+    public String generateBoardingList(Journey journey, BoardingListFormat format) throws IOException {
+        return generateBoardingList(journey, format.getEncoder());
+    }
+
+    /**
+     * Generates a boarding list file for a journey using a custom encoder.
+     *
+     * @param journey the journey to generate the boarding list for
+     * @param encoder the encoder that writes the file contents
+     * @return the filename of the generated file
+     * @throws IOException if file creation fails
+     */
+    public String generateBoardingList(Journey journey, BoardingListEncoder encoder) throws IOException {
+        long start = metrics.start();
         String filename = formatFilename(
             journey.getDepartureStation(),
             journey.getArrivalStation(),
-            journey.getDepartureTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm"))
+            journey.getDepartureTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm")),
+            encoder.getFileExtension()
         );
 
+        String deltaFilename = formatDeltaFilename(filename);
+        PendingChanges changes = new PendingChanges(deltaFilename);
+        pendingChanges.put(journey.getId(), changes);
+        Files.deleteIfExists(Path.of(deltaFilename));
+
         List<Ticket> tickets = ticketService.getTicketsByJourney(journey);
+        changes.listed(tickets);
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writeHeader(writer, journey);
-            writePassengers(writer, tickets);
-            writePersonnel(writer, journey);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filename))) {
+            encoder.encode(journey, tickets, out);
         }
 
+        metrics.record(Operation.GENERATE_BOARDING_LIST, start);
         return filename;
     }
 
-    private void writeHeader(PrintWriter writer, Journey journey) {
-        writer.println("EUROMOON BOARDING LIST");
-        writer.println("Journey: " + journey.getDepartureStation() + " -> " + journey.getArrivalStation());
-        writer.println("Departure: " + journey.getDepartureTime());
-        writer.println("Train: " + (journey.getTrain() != null ? journey.getTrain().getTrainId() : "Not assigned"));
-        writer.println("=".repeat(70));
-        writer.println();
-    }
+    /**
+     * Appends the tickets sold and cancelled since the last generation to the delta file of a journey.
+     *
+     * <p>The delta file is named after the last full boarding list, with
+     * ".delta.txt" instead of its extension, and is removed whenever the
+     * full list is rebuilt. If no full boarding list has been generated yet
+     * for the journey, a full text boarding list is generated instead.
+     *
+     * <p>A change that is already reflected in the written lists, such as a
+     * sale made just before the full list was taken, is skipped. If writing
+     * fails, the changes are kept for the next delta.
+     *
+     * @param journey the journey to write the changes for
+     * @return the filename of the written delta file, or of the full list if none existed
+     * @throws IOException if writing the file fails
+     */
+    public String generateBoardingListDelta(Journey journey) throws IOException {
+        long start = metrics.start();
+        PendingChanges changes = pendingChanges.get(journey.getId());
+        if (changes == null) {
+            return generateBoardingList(journey);
+        }
 
-    private void writePassengers(PrintWriter writer, List<Ticket> tickets) {
-        Map<ClassType, List<Ticket>> byClass = tickets.stream()
-            .collect(Collectors.groupingBy(Ticket::getClassType));
-
-        for (ClassType classType : ClassType.values()) {
-            List<Ticket> classTickets = byClass.get(classType);
-            writer.println(classType + " CLASS:");
-
-            if (classTickets == null || classTickets.isEmpty()) {
-                writer.println("  No passengers");
-            } else {
-                for (int i = 0; i < classTickets.size(); i++) {
-                    Ticket ticket = classTickets.get(i);
-                    Passenger passenger = ticket.getPassenger();
-                    writer.printf("  %d. %s %s (RRN: %s, DOB: %s)%n",
-                        i + 1,
-                        passenger.getName(),
-                        passenger.getLastname(),
-                        passenger.getRijksregisternummer(),
-                        passenger.getGeboortedatum()
-                    );
-                }
+        synchronized (changes.writeLock) {
+            List<TicketChange> drained = changes.drain();
+            if (drained.isEmpty()) {
+                return changes.deltaFilename;
             }
-            writer.println();
+
+            try {
+                writeChanges(changes.deltaFilename, drained);
+            } catch (IOException e) {
+                changes.restore(drained);
+                throw e;
+            }
+            changes.written(drained);
         }
+
+        metrics.record(Operation.GENERATE_BOARDING_LIST, start);
+        return changes.deltaFilename;
     }
 
-    private void writePersonnel(PrintWriter writer, Journey journey) {
-        writer.println("ASSIGNED PERSONNEL:");
-        List<Personnel> personnel = journey.getAssignedPersonnel();
-
-        if (personnel.isEmpty()) {
-            writer.println("  No personnel assigned");
-        } else {
-            for (Personnel person : personnel) {
-                writer.printf("  %s: %s %s (RRN: %s)%n",
-                    person.getClass().getSimpleName(),
-                    person.getName(),
-                    person.getLastname(),
-                    person.getRijksregisternummer()
+    private void writeChanges(String deltaFilename, List<TicketChange> drained) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(deltaFilename, true)))) {
+            writer.println("CHANGES AT " + LocalDateTime.now().format(CHANGE_TIME_FORMAT));
+            for (TicketChange change : drained) {
+                Ticket ticket = change.ticket;
+                Passenger passenger = ticket.getPassenger();
+                writer.printf("  %s %s: %s %s (RRN: %s, DOB: %s) %s -> %s%n",
+                    change.added ? "+" : "-",
+                    ticket.getClassType(),
+                    passenger.getName(),
+                    passenger.getLastname(),
+                    passenger.getRijksregisternummer(),
+                    passenger.getGeboortedatum(),
+                    ticket.getBoardingStation(),
+                    ticket.getAlightingStation()
                 );
             }
+            writer.println();
+            if (writer.checkError()) {
+                throw new IOException("Failed to write " + deltaFilename);
+            }
+        }
+    }
+
+    private void recordChange(Ticket ticket, boolean added) {
+        PendingChanges changes = pendingChanges.get(ticket.getJourney().getId());
+        if (changes != null) {
+            changes.record(ticket, added);
         }
-        writer.println();
-        writer.println("=".repeat(70));
-        writer.println("Total passengers: " + personnel.size());
     }
 
-    private String formatFilename(String from, String to, String dateTime) {
+    private String formatDeltaFilename(String filename) {
+        return filename.substring(0, filename.lastIndexOf('.')) + ".delta.txt";
+    }
+
+    private String formatFilename(String from, String to, String dateTime, String extension) {
         String fromClean = from.replaceAll("\\s+", "_");
         String toClean = to.replaceAll("\\s+", "_");
         String dateClean = dateTime.replaceAll("[:\\s]", "");
-        return fromClean + "_" + toClean + "_" + dateClean + ".txt";
+        return fromClean + "_" + toClean + "_" + dateClean + "." + extension;
+    }
+
+    /**
+     * Changes to the tickets of one journey since its boarding list was last written.
+     *
+     * <p>A ticket that is sold and cancelled again before the next delta
+     * cancels out and is not written at all. The IDs of the tickets in the
+     * written lists are kept, so a change that is already on them is not
+     * written again.
+     */
+    private static class PendingChanges {
+        private final String deltaFilename;
+        private final Object writeLock = new Object();
+        private final Map<UUID, TicketChange> changes = new LinkedHashMap<>();
+        private final Set<UUID> listedTickets = new HashSet<>();
+
+        PendingChanges(String deltaFilename) {
+            this.deltaFilename = deltaFilename;
+        }
+
+        synchronized void listed(List<Ticket> tickets) {
+            for (Ticket ticket : tickets) {
+                listedTickets.add(ticket.getId());
+            }
+        }
+
+        synchronized void record(Ticket ticket, boolean added) {
+            TicketChange previous = changes.remove(ticket.getId());
+            if (previous == null || previous.added == added) {
+                changes.put(ticket.getId(), new TicketChange(ticket, added));
+            }
+        }
+
+        synchronized List<TicketChange> drain() {
+            List<TicketChange> drained = new ArrayList<>(changes.size());
+            for (TicketChange change : changes.values()) {
+                if (change.added != listedTickets.contains(change.ticket.getId())) {
+                    drained.add(change);
+                }
+            }
+            changes.clear();
+            return drained;
+        }
+
+        synchronized void restore(List<TicketChange> drained) {
+            Map<UUID, TicketChange> newer = new LinkedHashMap<>(changes);
+            changes.clear();
+            for (TicketChange change : drained) {
+                changes.put(change.ticket.getId(), change);
+            }
+            for (TicketChange change : newer.values()) {
+                record(change.ticket, change.added);
+            }
+        }
+
+        synchronized void written(List<TicketChange> drained) {
+            for (TicketChange change : drained) {
+                if (change.added) {
+                    listedTickets.add(change.ticket.getId());
+                } else {
+                    listedTickets.remove(change.ticket.getId());
+                }
+            }
+        }
+    }
+
+    private static class TicketChange {
+        private final Ticket ticket;
+        private final boolean added;
+
+        TicketChange(Ticket ticket, boolean added) {
+            this.ticket = ticket;
+            this.added = added;
+        }
     }
 }
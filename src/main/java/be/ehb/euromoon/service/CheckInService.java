@@ -0,0 +1,169 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.ticket.CheckInStatus;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for checking in passengers at the boarding gate.
+ *
+ * <p>When boarding opens for a journey, an in-memory index of its tickets is
+ * built so that every scan is a hash lookup instead of a search through the
+ * boarding list. Tickets sold or cancelled while boarding is open are added
+ * to or removed from the index. Any number of gates may scan the same
+ * journey concurrently.
+ */
+public class CheckInService {
+    private final TicketService ticketService;
+    private final Map<UUID, BoardingIndex> openBoardings = new ConcurrentHashMap<>();
+
+    public CheckInService(TicketService ticketService) {
+        this.ticketService = ticketService;
+        ticketService.addTicketListener(new TicketListener() {
+            @Override
+            public void ticketSold(Ticket ticket) {
+                BoardingIndex index = openBoardings.get(ticket.getJourney().getId());
+                if (index != null) {
+                    index.add(ticket);
+                }
+            }
+
+            @Override
+            public void ticketCancelled(Ticket ticket) {
+                BoardingIndex index = openBoardings.get(ticket.getJourney().getId());
+                if (index != null) {
+                    index.remove(ticket);
+                }
+            }
+        });
+    }
+
+    /**
+     * Opens boarding for a journey by indexing all of its tickets.
+     *
+     * <p>Opening boarding for a journey that is already open has no effect.
+     *
+     * @param journey the departing journey
+     * @throws ValidationException if the journey is null
+     */
+    public void openBoarding(Journey journey) throws ValidationException {
+        if (journey == null) {
+            throw new ValidationException("Journey cannot be null");
+        }
+        BoardingIndex index = new BoardingIndex();
+        if (openBoardings.putIfAbsent(journey.getId(), index) == null) {
+            index.fill(ticketService.getTicketsByJourney(journey));
+        }
+    }
+
+    /**
+     * Closes boarding for a journey and discards its index.
+     *
+     * <p>Passengers with a ticket who did not board are recorded as no-shows,
+     * which feeds the overbooking allowance of later journeys on the route.
+     * The booking state kept for the journey is then released.
+     *
+     * @param journey the departed journey
+     */
+    public void closeBoarding(Journey journey) {
+        if (journey == null) {
+            return;
+        }
+        BoardingIndex index = openBoardings.remove(journey.getId());
+        if (index != null) {
+            for (ClassType classType : ClassType.values()) {
+                int booked = index.getTicketCount(classType);
+                ticketService.recordNoShows(journey, classType, booked, booked - index.getBoardedCount(classType));
+            }
+        }
+        ticketService.journeyDeparted(journey);
+    }
+
+    /**
+     * Checks in a passenger by rijksregisternummer.
+     *
+     * @param journey the journey being boarded
+     * @param rijksregisternummer the scanned rijksregisternummer
+     * @return the outcome of the scan
+     * @throws ValidationException if boarding is not open for the journey
+     */
+    public CheckInStatus checkIn(Journey journey, String rijksregisternummer) throws ValidationException {
+        return indexOf(journey).checkInByRijksregisternummer(rijksregisternummer);
+    }
+
+    /**
+     * Checks in a passenger by ticket ID.
+     *
+     * @param journey the journey being boarded
+     * @param ticketId the scanned ticket ID
+     * @return the outcome of the scan
+     * @throws ValidationException if boarding is not open for the journey
+     */
+    public CheckInStatus checkIn(Journey journey, UUID ticketId) throws ValidationException {
+        return indexOf(journey).checkInByTicketId(ticketId);
+    }
+
+    /**
+     * Finds the ticket a passenger holds for a journey.
+     *
+     * @param journey the journey being boarded
+     * @param rijksregisternummer the passenger's rijksregisternummer
+     * @return an Optional containing the ticket if found, empty otherwise
+     * @throws ValidationException if boarding is not open for the journey
+     */
+    public Optional<Ticket> findTicket(Journey journey, String rijksregisternummer) throws ValidationException {
+        return indexOf(journey).findByRijksregisternummer(rijksregisternummer);
+    }
+
+    /**
+     * Checks whether a passenger has boarded a journey.
+     *
+     * @param journey the journey being boarded
+     * @param rijksregisternummer the passenger's rijksregisternummer
+     * @return true if the passenger has boarded, false otherwise
+     * @throws ValidationException if boarding is not open for the journey
+     */
+    public boolean isBoarded(Journey journey, String rijksregisternummer) throws ValidationException {
+        return indexOf(journey).isBoarded(rijksregisternummer);
+    }
+
+    /**
+     * Returns the number of passengers that have boarded a journey.
+     *
+     * @param journey the journey being boarded
+     * @return the number of boarded passengers
+     * @throws ValidationException if boarding is not open for the journey
+     */
+    public long getBoardedCount(Journey journey) throws ValidationException {
+        return indexOf(journey).getBoardedCount();
+    }
+
+    /**
+     * Returns the number of tickets held for a journey.
+     *
+     * @param journey the journey being boarded
+     * @return the number of tickets
+     * @throws ValidationException if boarding is not open for the journey
+     */
+    public int getTicketCount(Journey journey) throws ValidationException {
+        return indexOf(journey).getTicketCount();
+    }
+
+    private BoardingIndex indexOf(Journey journey) throws ValidationException {
+        if (journey == null) {
+            throw new ValidationException("Journey cannot be null");
+        }
+        BoardingIndex index = openBoardings.get(journey.getId());
+        if (index == null) {
+            throw new ValidationException("Boarding is not open for journey: " + journey);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,382 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.train.Train;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Registry of the fleet that tracks when each train is in use.
+ *
+ * <p>Every train assigned to a journey is booked from the departure time
+ * until the journey duration has passed. The bookings of a train are kept
+ * sorted by start time, so checking whether a train is free at a given
+ * time is a single lookup of the booking that starts last before the
+ * requested period ends.
+ *
+ * <p>Trains are also indexed by their number of seats. Picking a train for
+ * a journey takes the smallest free train that is large enough, so the
+ * fleet is used with as few empty seats as possible and large trains stay
+ * available for busy journeys.
+ *
+ * <p>To find that train without checking every busy one, trains are
+ * numbered in order of their seats and every booking is indexed by start
+ * time in slots of a quarter of the journey duration. Each slot holds a
+ * bit set of the trains with a booking starting in it. Since all bookings
+ * last one journey duration, the trains in use during a journey are those
+ * with a booking starting less than one duration before it and before it
+ * ends: the bit sets of the slots fully inside that range are merged, and
+ * only the bookings in the two slots at its edges are looked up by time.
+ * The smallest free train is then the first clear bit from the smallest
+ * train that is large enough. A query costs a few bit set merges over the
+ * fleet plus the bookings in two slots, instead of a lookup per busy train.
+ *
+ * <p>Checking a train and counting the fleet only take a read lock; other
+ * operations take the write lock.
+ */
+public class FleetRegistry {
+    public static final Duration DEFAULT_JOURNEY_DURATION = Duration.ofHours(4);
+
+    private static final ClassType[] CLASS_TYPES = ClassType.values();
+    private static final int SLOTS_PER_JOURNEY = 4;
+
+    private final Duration journeyDuration;
+    private final long slotSeconds;
+    private final Map<String, TrainSchedule> schedules = new HashMap<>();
+    private final NavigableMap<Integer, Map<String, TrainSchedule>> schedulesBySeats = new TreeMap<>();
+    private final Map<UUID, Booking> bookingsByJourney = new HashMap<>();
+    private final NavigableMap<LocalDateTime, List<TrainSchedule>> bookingsByStart = new TreeMap<>();
+    private final Map<Long, BitSet> trainsBySlot = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private TrainSchedule[] trainsBySeats;
+    private int[] seatsByPosition;
+
+    public FleetRegistry() {
+        this(DEFAULT_JOURNEY_DURATION);
+    }
+
+    public FleetRegistry(Duration journeyDuration) {
+        this.journeyDuration = journeyDuration;
+        this.slotSeconds = Math.max(1, journeyDuration.getSeconds() / SLOTS_PER_JOURNEY);
+    }
+
+    /**
+     * Adds a train to the fleet, or updates its number of seats if it is already registered.
+     *
+     * @param train the train to register
+     */
+    public void register(Train train) {
+        lock.writeLock().lock();
+        try {
+            scheduleOf(train);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Books a train for a journey if the train is free for the whole journey.
+     *
+     * <p>A previous booking for the same journey is replaced, so a journey
+     * never holds more than one train.
+     *
+     * @param train the train to book
+     * @param journey the journey to book the train for
+     * @return true if the train was booked, false if it is in use at that time
+     */
+    public boolean reserve(Train train, Journey journey) {
+        lock.writeLock().lock();
+        try {
+            TrainSchedule schedule = scheduleOf(train);
+            Booking previous = unbook(journey);
+            if (!schedule.isFree(journey.getDepartureTime(), endOf(journey))) {
+                rebook(journey, previous);
+                return false;
+            }
+            book(journey, schedule);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Books the smallest free train with at least the required number of seats for a journey.
+     *
+     * <p>A previous booking for the same journey is replaced if a train is found.
+     *
+     * @param journey the journey to book a train for
+     * @param requiredSeats the minimum number of seats over all class types
+     * @return an Optional containing the booked train, empty if no suitable train is free
+     */
+    public Optional<Train> reserveAvailableTrain(Journey journey, int requiredSeats) {
+        lock.writeLock().lock();
+        try {
+            Booking previous = unbook(journey);
+            TrainSchedule schedule = findFreeTrain(journey.getDepartureTime(), endOf(journey), requiredSeats);
+            if (schedule == null) {
+                rebook(journey, previous);
+                return Optional.empty();
+            }
+            book(journey, schedule);
+            return Optional.of(schedule.train);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Releases the train booked for a journey.
+     *
+     * @param journey the journey whose train is no longer needed
+     */
+    public void release(Journey journey) {
+        lock.writeLock().lock();
+        try {
+            unbook(journey);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if a train is free during a period.
+     *
+     * @param train the train to check
+     * @param from the start of the period
+     * @param until the end of the period
+     * @return true if the train has no booking overlapping the period, false otherwise
+     */
+    public boolean isAvailable(Train train, LocalDateTime from, LocalDateTime until) {
+        lock.readLock().lock();
+        try {
+            TrainSchedule schedule = schedules.get(train.getTrainId());
+            return schedule == null || schedule.isFree(from, until);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of trains in the fleet.
+     *
+     * @return the number of registered trains
+     */
+    public int getTrainCount() {
+        lock.readLock().lock();
+        try {
+            return schedules.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Duration getJourneyDuration() {
+        return journeyDuration;
+    }
+
+    private LocalDateTime endOf(Journey journey) {
+        return journey.getDepartureTime().plus(journeyDuration);
+    }
+
+    /**
+     * Returns the train with the fewest seats, at least the required number, that has no booking overlapping a period.
+     */
+    private TrainSchedule findFreeTrain(LocalDateTime start, LocalDateTime end, int requiredSeats) {
+        if (trainsBySeats == null) {
+            indexTrains();
+        }
+        int first = firstPositionWithSeats(requiredSeats);
+        if (first == trainsBySeats.length) {
+            return null;
+        }
+
+        // A booking overlaps [start, end) if it starts after start - duration and before end.
+        LocalDateTime after = start.minus(journeyDuration);
+        long firstSlot = slotOf(after);
+        long lastSlot = slotOf(end);
+        BitSet busy = new BitSet(trainsBySeats.length);
+        for (long slot = firstSlot + 1; slot < lastSlot; slot++) {
+            BitSet trains = trainsBySlot.get(slot);
+            if (trains != null) {
+                busy.or(trains);
+            }
+        }
+        markBusy(busy, after, false, min(startOfSlot(firstSlot + 1), end));
+        if (lastSlot > firstSlot) {
+            markBusy(busy, startOfSlot(lastSlot), true, end);
+        }
+
+        int position = busy.nextClearBit(first);
+        return position < trainsBySeats.length ? trainsBySeats[position] : null;
+    }
+
+    private int firstPositionWithSeats(int requiredSeats) {
+        int low = 0;
+        int high = seatsByPosition.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (seatsByPosition[middle] < requiredSeats) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void markBusy(BitSet busy, LocalDateTime from, boolean fromInclusive, LocalDateTime before) {
+        if (!from.isBefore(before)) {
+            return;
+        }
+        for (List<TrainSchedule> trains : bookingsByStart.subMap(from, fromInclusive, before, false).values()) {
+            for (TrainSchedule schedule : trains) {
+                busy.set(schedule.position);
+            }
+        }
+    }
+
+    /**
+     * Numbers the trains in order of their seats and rebuilds the slot index for those numbers.
+     */
+    private void indexTrains() {
+        trainsBySeats = new TrainSchedule[schedules.size()];
+        seatsByPosition = new int[schedules.size()];
+        int position = 0;
+        for (Map<String, TrainSchedule> trains : schedulesBySeats.values()) {
+            for (TrainSchedule schedule : trains.values()) {
+                schedule.position = position;
+                trainsBySeats[position] = schedule;
+                seatsByPosition[position] = schedule.seats;
+                position++;
+            }
+        }
+        trainsBySlot.clear();
+        for (Map.Entry<LocalDateTime, List<TrainSchedule>> entry : bookingsByStart.entrySet()) {
+            for (TrainSchedule schedule : entry.getValue()) {
+                trainsBySlot.computeIfAbsent(slotOf(entry.getKey()), slot -> new BitSet()).set(schedule.position);
+            }
+        }
+    }
+
+    private void book(Journey journey, TrainSchedule schedule) {
+        addBooking(schedule, journey.getDepartureTime());
+        bookingsByJourney.put(journey.getId(), new Booking(schedule, journey.getDepartureTime()));
+    }
+
+    private Booking unbook(Journey journey) {
+        Booking booking = bookingsByJourney.remove(journey.getId());
+        if (booking != null) {
+            removeBooking(booking.schedule, booking.start);
+        }
+        return booking;
+    }
+
+    private void rebook(Journey journey, Booking booking) {
+        if (booking != null) {
+            addBooking(booking.schedule, booking.start);
+            bookingsByJourney.put(journey.getId(), booking);
+        }
+    }
+
+    private void addBooking(TrainSchedule schedule, LocalDateTime start) {
+        schedule.book(start, start.plus(journeyDuration));
+        bookingsByStart.computeIfAbsent(start, time -> new ArrayList<>(1)).add(schedule);
+        if (trainsBySeats != null) {
+            trainsBySlot.computeIfAbsent(slotOf(start), slot -> new BitSet()).set(schedule.position);
+        }
+    }
+
+    private void removeBooking(TrainSchedule schedule, LocalDateTime start) {
+        schedule.release(start);
+        List<TrainSchedule> trains = bookingsByStart.get(start);
+        if (trains != null && trains.remove(schedule) && trains.isEmpty()) {
+            bookingsByStart.remove(start);
+        }
+        if (trainsBySeats != null) {
+            BitSet slotTrains = trainsBySlot.get(slotOf(start));
+            if (slotTrains != null) {
+                slotTrains.clear(schedule.position);
+                if (slotTrains.isEmpty()) {
+                    trainsBySlot.remove(slotOf(start));
+                }
+            }
+        }
+    }
+
+    private long slotOf(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), slotSeconds);
+    }
+
+    private LocalDateTime startOfSlot(long slot) {
+        return LocalDateTime.ofEpochSecond(slot * slotSeconds, 0, ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private TrainSchedule scheduleOf(Train train) {
+        TrainSchedule schedule = schedules.computeIfAbsent(train.getTrainId(), id -> new TrainSchedule(train));
+        int seats = 0;
+        for (ClassType classType : CLASS_TYPES) {
+            seats += train.getAvailableSeats(classType);
+        }
+        if (seats != schedule.seats) {
+            Map<String, TrainSchedule> sameSeats = schedulesBySeats.get(schedule.seats);
+            if (sameSeats != null && sameSeats.remove(train.getTrainId()) != null && sameSeats.isEmpty()) {
+                schedulesBySeats.remove(schedule.seats);
+            }
+            schedule.seats = seats;
+            schedulesBySeats.computeIfAbsent(seats, s -> new LinkedHashMap<>()).put(train.getTrainId(), schedule);
+            trainsBySeats = null;
+        }
+        return schedule;
+    }
+
+    /**
+     * The bookings of one train, keyed by start time.
+     */
+    private static class TrainSchedule {
+        private final Train train;
+        private final NavigableMap<LocalDateTime, LocalDateTime> bookings = new TreeMap<>();
+        private int seats = -1;
+        private int position;
+
+        TrainSchedule(Train train) {
+            this.train = train;
+        }
+
+        boolean isFree(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> last = bookings.lowerEntry(end);
+            return last == null || !last.getValue().isAfter(start);
+        }
+
+        void book(LocalDateTime start, LocalDateTime end) {
+            bookings.put(start, end);
+        }
+
+        void release(LocalDateTime start) {
+            bookings.remove(start);
+        }
+    }
+
+    /**
+     * The train and start time booked for one journey.
+     */
+    private static class Booking {
+        private final TrainSchedule schedule;
+        private final LocalDateTime start;
+
+        Booking(TrainSchedule schedule, LocalDateTime start) {
+            this.schedule = schedule;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package be.ehb.euromoon.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded cache that remembers the outcome of a request by its idempotency key for a limited time.
+ *
+ * <p>All entries live equally long, so the order in which they were added
+ * is also the order in which they expire. Entries are kept in a queue in
+ * that order next to the map, and every insert removes entries from the
+ * head of the queue while they have expired or while the cache holds more
+ * entries than its maximum size. Lookups are a single map lookup and never
+ * wait for other threads.
+ *
+ * @param <V> the type of the cached outcomes
+ */
+public class IdempotencyCache<V> {
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofHours(1);
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private final long timeToLiveNanos;
+    private final int maxSize;
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry<V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public IdempotencyCache() {
+        this(DEFAULT_TIME_TO_LIVE, DEFAULT_MAX_SIZE);
+    }
+
+    public IdempotencyCache(Duration timeToLive, int maxSize) {
+        if (timeToLive.isNegative() || timeToLive.isZero() || maxSize <= 0) {
+            throw new IllegalArgumentException("Time to live and maximum size must be greater than 0");
+        }
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Stores an outcome for a key unless an outcome that has not expired is already stored.
+     *
+     * @param key the idempotency key
+     * @param value the outcome to store
+     * @return the outcome stored earlier, or null if the given outcome was stored
+     */
+    public V putIfAbsent(String key, V value) {
+        long now = System.nanoTime();
+        Entry<V> entry = new Entry<>(key, value, now + timeToLiveNanos);
+        Entry<V> existing;
+        while ((existing = entries.putIfAbsent(key, entry)) != null) {
+            if (!existing.isExpired(now)) {
+                return existing.value;
+            }
+            if (entries.replace(key, existing, entry)) {
+                insertionOrder.add(entry);
+                evict(now);
+                return null;
+            }
+        }
+        size.incrementAndGet();
+        insertionOrder.add(entry);
+        evict(now);
+        return null;
+    }
+
+    /**
+     * Returns the outcome stored for a key.
+     *
+     * @param key the idempotency key
+     * @return the stored outcome, or null if there is none or it has expired
+     */
+    public V get(String key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null || entry.isExpired(System.nanoTime()) ? null : entry.value;
+    }
+
+    /**
+     * Returns the number of stored outcomes, including expired ones that were not removed yet.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return size.get();
+    }
+
+    private void evict(long now) {
+        Entry<V> oldest;
+        while ((oldest = insertionOrder.peek()) != null && (oldest.isExpired(now) || size.get() > maxSize)) {
+            if (insertionOrder.remove(oldest) && entries.remove(oldest.key, oldest)) {
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * A stored outcome and the time it expires.
+     */
+    private static class Entry<V> {
+        private final String key;
+        private final V value;
+        private final long expiresAt;
+
+        Entry(String key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
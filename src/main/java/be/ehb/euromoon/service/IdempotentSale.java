@@ -0,0 +1,29 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A sale made with an idempotency key: the sale that was asked for and its outcome.
+ *
+ * <p>The request is kept next to the outcome, so a retry with the same key
+ * can be checked against it before the outcome is returned, whether the
+ * sale succeeded, failed or is still running.
+ */
+public class IdempotentSale {
+    private final SaleRequest request;
+    private final CompletableFuture<Ticket> outcome = new CompletableFuture<>();
+
+    IdempotentSale(SaleRequest request) {
+        this.request = request;
+    }
+
+    public SaleRequest getRequest() {
+        return request;
+    }
+
+    public CompletableFuture<Ticket> getOutcome() {
+        return outcome;
+    }
+}
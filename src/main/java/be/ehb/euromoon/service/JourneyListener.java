@@ -0,0 +1,30 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.train.Train;
+
+/**
+ * Listener that is notified by {@link JourneyService} when the resources of a journey change.
+ *
+ * <p>Listeners are called synchronously on the thread that changed the
+ * journey, so implementations should return quickly.
+ */
+public interface JourneyListener {
+
+    /**
+     * Called after a train has been assigned to a journey.
+     *
+     * @param journey the journey
+     * @param train the assigned train
+     */
+    void trainAssigned(Journey journey, Train train);
+
+    /**
+     * Called after a personnel member has been assigned to a journey.
+     *
+     * @param journey the journey
+     * @param personnel the assigned personnel member
+     */
+    void personnelAssigned(Journey journey, Personnel personnel);
+}
@@ -2,14 +2,21 @@ package be.ehb.euromoon.service;
 
 import be.ehb.euromoon.exception.InvalidPersonnelException;
 import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.metrics.Operation;
+import be.ehb.euromoon.metrics.ServiceMetrics;
 import be.ehb.euromoon.model.journey.Journey;
 import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.ticket.Ticket;
 import be.ehb.euromoon.model.train.Train;
 import be.ehb.euromoon.repository.JourneyRepository;
+import be.ehb.euromoon.repository.Page;
+import be.ehb.euromoon.util.IdGenerator;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Service for managing journey operations.
@@ -18,11 +25,35 @@ import java.util.UUID;
  * and validation of journey requirements. It ensures that journeys have the
  * necessary resources and personnel before they can operate.
  */
-public class JourneyService {
+public class JourneyService implements TrainListener, TicketListener {
     private final JourneyRepository journeyRepository;
+    private final SeatAvailabilityCache seatAvailabilityCache;
+    private final IdGenerator idGenerator;
+    private final ServiceMetrics metrics;
+    private final FleetRegistry fleetRegistry;
+    private final List<JourneyListener> listeners = new CopyOnWriteArrayList<>();
 
-    public JourneyService(JourneyRepository journeyRepository) {
+    public JourneyService(JourneyRepository journeyRepository, SeatAvailabilityCache seatAvailabilityCache) {
+        this(journeyRepository, seatAvailabilityCache, IdGenerator.timeOrdered());
+    }
+
+    public JourneyService(JourneyRepository journeyRepository, SeatAvailabilityCache seatAvailabilityCache,
+                          IdGenerator idGenerator) {
+        this(journeyRepository, seatAvailabilityCache, idGenerator, ServiceMetrics.disabled());
+    }
+
+    public JourneyService(JourneyRepository journeyRepository, SeatAvailabilityCache seatAvailabilityCache,
+                          IdGenerator idGenerator, ServiceMetrics metrics) {
+        this(journeyRepository, seatAvailabilityCache, idGenerator, metrics, new FleetRegistry());
+    }
+
+    public JourneyService(JourneyRepository journeyRepository, SeatAvailabilityCache seatAvailabilityCache,
+                          IdGenerator idGenerator, ServiceMetrics metrics, FleetRegistry fleetRegistry) {
         this.journeyRepository = journeyRepository;
+        this.seatAvailabilityCache = seatAvailabilityCache;
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
+        this.fleetRegistry = fleetRegistry;
     }
 
     /**
@@ -42,6 +73,33 @@ public class JourneyService {
         if (arrivalStation == null || arrivalStation.trim().isEmpty()) {
             throw new ValidationException("Arrival station cannot be empty");
         }
+        return createJourney(List.of(departureStation, arrivalStation), departureTime);
+    }
+
+    /**
+     * Creates a new journey calling at the given stops, in travel order.
+     *
+     * <p>The first stop is the departure station and the last stop the
+     * arrival station. Tickets can be sold between any two stops.
+     *
+     * @param stops the station names of all stops, at least two and all distinct
+     * @param departureTime the scheduled departure time from the first stop
+     * @return the created journey
+     * @throws ValidationException if validation fails
+     */
+    public Journey createJourney(List<String> stops, LocalDateTime departureTime) throws ValidationException {
+        long start = metrics.start();
+        if (stops == null || stops.size() < 2) {
+            throw new ValidationException("A journey needs at least a departure and an arrival station");
+        }
+        for (String stop : stops) {
+            if (stop == null || stop.trim().isEmpty()) {
+                throw new ValidationException("Station names cannot be empty");
+            }
+        }
+        if (new HashSet<>(stops).size() != stops.size()) {
+            throw new ValidationException("A journey cannot call at the same station twice");
+        }
         if (departureTime == null) {
             throw new ValidationException("Departure time cannot be null");
         }
@@ -49,20 +107,25 @@ public class JourneyService {
             throw new ValidationException("Departure time cannot be in the past");
         }
 
-        Journey journey = new Journey(departureStation, arrivalStation, departureTime);
+        Journey journey = new Journey(idGenerator.nextId(), stops, departureTime);
         journeyRepository.save(journey);
 
+        metrics.record(Operation.CREATE_JOURNEY, start);
         return journey;
     }
 
     /**
      * Assigns a train to a journey.
      *
+     * <p>The train is booked in the fleet registry for the duration of the
+     * journey, replacing the booking of a previously assigned train.
+     *
      * @param journeyId the journey ID
      * @param train the train to assign
-     * @throws ValidationException if journey not found or train is null
+     * @throws ValidationException if journey not found, train is null or the train is in use at that time
      */
     public void assignTrainToJourney(UUID journeyId, Train train) throws ValidationException {
+        long start = metrics.start();
         if (train == null) {
             throw new ValidationException("Train cannot be null");
         }
@@ -70,8 +133,43 @@ public class JourneyService {
         Journey journey = journeyRepository.findById(journeyId)
             .orElseThrow(() -> new ValidationException("Journey not found: " + journeyId));
 
+        if (!fleetRegistry.reserve(train, journey)) {
+            throw new ValidationException("Train " + train.getTrainId() + " is already in use at " +
+                journey.getDepartureTime());
+        }
+        journey.assignTrain(train);
+        journeyRepository.save(journey);
+        seatAvailabilityCache.refresh(journey);
+        for (JourneyListener listener : listeners) {
+            listener.trainAssigned(journey, train);
+        }
+        metrics.record(Operation.ASSIGN_TRAIN, start);
+    }
+
+    /**
+     * Assigns the smallest train that is free for the whole journey and has enough seats.
+     *
+     * @param journeyId the journey ID
+     * @param requiredSeats the minimum number of seats over all class types
+     * @return the assigned train
+     * @throws ValidationException if journey not found or no suitable train is free
+     */
+    public Train assignAvailableTrain(UUID journeyId, int requiredSeats) throws ValidationException {
+        long start = metrics.start();
+        Journey journey = journeyRepository.findById(journeyId)
+            .orElseThrow(() -> new ValidationException("Journey not found: " + journeyId));
+
+        Train train = fleetRegistry.reserveAvailableTrain(journey, requiredSeats)
+            .orElseThrow(() -> new ValidationException(
+                "No train with at least " + requiredSeats + " seats is available at " + journey.getDepartureTime()));
         journey.assignTrain(train);
         journeyRepository.save(journey);
+        seatAvailabilityCache.refresh(journey);
+        for (JourneyListener listener : listeners) {
+            listener.trainAssigned(journey, train);
+        }
+        metrics.record(Operation.ASSIGN_TRAIN, start);
+        return train;
     }
 
     /**
@@ -82,6 +180,7 @@ public class JourneyService {
      * @throws ValidationException if journey not found or personnel is null
      */
     public void assignPersonnelToJourney(UUID journeyId, Personnel personnel) throws ValidationException {
+        long start = metrics.start();
         if (personnel == null) {
             throw new ValidationException("Personnel cannot be null");
         }
@@ -91,6 +190,65 @@ public class JourneyService {
 
         journey.assignPersonnel(personnel);
         journeyRepository.save(journey);
+        for (JourneyListener listener : listeners) {
+            listener.personnelAssigned(journey, personnel);
+        }
+        metrics.record(Operation.ASSIGN_PERSONNEL, start);
+    }
+
+    /**
+     * Updates the seat inventories of the upcoming journeys of a train whose composition changed.
+     *
+     * <p>The journey listeners are notified as if the train was assigned
+     * again, so they pick up the new composition too.
+     *
+     * @param train the changed train
+     */
+    @Override
+    public void compositionChanged(Train train) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Journey> journeys = journeyRepository.stream()
+            .filter(journey -> journey.getTrain() != null
+                && journey.getTrain().getTrainId().equals(train.getTrainId())
+                && !journey.getDepartureTime().isBefore(now))
+            .toList();
+        for (Journey journey : journeys) {
+            seatAvailabilityCache.refresh(journey);
+            for (JourneyListener listener : listeners) {
+                listener.trainAssigned(journey, train);
+            }
+        }
+    }
+
+    @Override
+    public void ticketSold(Ticket ticket) {
+        // Sales do not change the resources of a journey.
+    }
+
+    @Override
+    public void ticketCancelled(Ticket ticket) {
+        // Cancellations do not change the resources of a journey.
+    }
+
+    /**
+     * Releases the train of a departed journey in the fleet registry, so its booking is not kept forever.
+     *
+     * @param journey the departed journey
+     */
+    @Override
+    public void journeyDeparted(Journey journey) {
+        fleetRegistry.release(journey);
+    }
+
+    /**
+     * Registers a listener that is notified of every train and personnel assignment.
+     *
+     * @param listener the listener to register
+     */
+    public void addJourneyListener(JourneyListener listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
     }
 
     /**
@@ -128,6 +286,28 @@ public class JourneyService {
             .orElseThrow(() -> new ValidationException("Journey not found: " + journeyId));
     }
 
+    /**
+     * Returns a page of journeys, in the order they were created.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of journeys on the page
+     * @return the page of journeys
+     */
+    public Page<Journey> getJourneys(String cursor, int size) {
+        return journeyRepository.findPage(cursor, size);
+    }
+
+    /**
+     * Returns a page of the journeys that have not departed yet, ordered by departure time.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of journeys on the page
+     * @return the page of journeys
+     */
+    public Page<Journey> getUpcomingJourneys(String cursor, int size) {
+        return journeyRepository.findDepartingPage(LocalDateTime.now(), cursor, size);
+    }
+
     /**
      * Returns all journeys in the system.
      *
@@ -0,0 +1,175 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.train.ConfiguredLocomotiveType;
+import be.ehb.euromoon.model.train.LocomotiveType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Registry of the locomotive types known to the system, loaded from configuration.
+ *
+ * <p>Each type is described by a group of properties sharing a key prefix:
+ * <pre>
+ * class-373.name=Class 373
+ * class-373.max-wagons=12
+ * class-373.capacity=80
+ * class-373.classes=FIRST,SECOND
+ * class-373.seats.FIRST=50
+ * class-373.seats.SECOND=70
+ * </pre>
+ * The seats of a class type are the seats in a standard wagon of that
+ * class. Adding a locomotive type only requires adding its properties.
+ *
+ * <p>The registry is filled once when it is loaded and never changes, so it
+ * can be shared between threads without locking.
+ */
+public class LocomotiveTypeRegistry {
+    public static final String DEFAULT_RESOURCE = "/locomotive-types.properties";
+
+    private static final String NAME_SUFFIX = ".name";
+    private static final ClassType[] CLASS_TYPES = ClassType.values();
+
+    private final Map<String, LocomotiveType> typesByName;
+
+    private LocomotiveTypeRegistry(Map<String, LocomotiveType> typesByName) {
+        this.typesByName = typesByName;
+    }
+
+    /**
+     * Loads the locomotive types bundled with the application.
+     *
+     * @return the registry
+     * @throws IOException if the configuration cannot be read
+     * @throws ValidationException if the configuration is invalid
+     */
+    public static LocomotiveTypeRegistry loadDefault() throws IOException, ValidationException {
+        try (InputStream in = LocomotiveTypeRegistry.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Locomotive type configuration not found: " + DEFAULT_RESOURCE);
+            }
+            return load(in);
+        }
+    }
+
+    /**
+     * Loads locomotive types from a configuration file.
+     *
+     * @param path the path of the configuration file
+     * @return the registry
+     * @throws IOException if the file cannot be read
+     * @throws ValidationException if the configuration is invalid
+     */
+    public static LocomotiveTypeRegistry load(Path path) throws IOException, ValidationException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return load(in);
+        }
+    }
+
+    /**
+     * Loads locomotive types from a configuration stream.
+     *
+     * @param in the stream to read, which is not closed
+     * @return the registry
+     * @throws IOException if the stream cannot be read
+     * @throws ValidationException if the configuration is invalid
+     */
+    public static LocomotiveTypeRegistry load(InputStream in) throws IOException, ValidationException {
+        Properties properties = new Properties();
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        properties.load(reader);
+
+        Map<String, LocomotiveType> typesByName = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.endsWith(NAME_SUFFIX)) {
+                continue;
+            }
+            LocomotiveType type = parseType(properties, key.substring(0, key.length() - NAME_SUFFIX.length()));
+            if (typesByName.put(type.getTypeName(), type) != null) {
+                throw new ValidationException("Duplicate locomotive type: " + type.getTypeName());
+            }
+        }
+        return new LocomotiveTypeRegistry(Collections.unmodifiableMap(typesByName));
+    }
+
+    /**
+     * Finds a locomotive type by its name.
+     *
+     * @param typeName the type name to search for
+     * @return an Optional containing the type if found, empty otherwise
+     */
+    public Optional<LocomotiveType> findByName(String typeName) {
+        return Optional.ofNullable(typesByName.get(typeName));
+    }
+
+    /**
+     * Returns all locomotive types, ordered by name.
+     *
+     * @return a list of all locomotive types
+     */
+    public List<LocomotiveType> findAll() {
+        return new ArrayList<>(typesByName.values());
+    }
+
+    /**
+     * Returns the number of locomotive types.
+     *
+     * @return the number of types in the registry
+     */
+    public int size() {
+        return typesByName.size();
+    }
+
+    private static LocomotiveType parseType(Properties properties, String prefix) throws ValidationException {
+        String name = properties.getProperty(prefix + NAME_SUFFIX).trim();
+        if (name.isEmpty()) {
+            throw new ValidationException("Locomotive type name cannot be empty: " + prefix + NAME_SUFFIX);
+        }
+        int maxWagons = parsePositive(properties, prefix + ".max-wagons");
+        int capacity = parsePositive(properties, prefix + ".capacity");
+
+        Set<ClassType> supportedClasses = EnumSet.noneOf(ClassType.class);
+        String classes = properties.getProperty(prefix + ".classes");
+        if (classes == null) {
+            supportedClasses.addAll(EnumSet.allOf(ClassType.class));
+        } else {
+            for (String classType : classes.split(",")) {
+                try {
+                    supportedClasses.add(ClassType.valueOf(classType.trim()));
+                } catch (IllegalArgumentException e) {
+                    throw new ValidationException("Unknown class type in " + prefix + ".classes: " + classType.trim());
+                }
+            }
+        }
+
+        int[] seatsPerWagon = new int[CLASS_TYPES.length];
+        for (ClassType classType : supportedClasses) {
+            seatsPerWagon[classType.ordinal()] = parsePositive(properties, prefix + ".seats." + classType);
+        }
+        return new ConfiguredLocomotiveType(name, maxWagons, capacity, supportedClasses, seatsPerWagon);
+    }
+
+    private static int parsePositive(Properties properties, String key) throws ValidationException {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new ValidationException("Missing locomotive type property: " + key);
+        }
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number <= 0) {
+                throw new ValidationException("Locomotive type property must be greater than 0: " + key);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Locomotive type property is not a number: " + key);
+        }
+    }
+}
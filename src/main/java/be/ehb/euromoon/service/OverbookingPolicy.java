@@ -0,0 +1,184 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.ticket.ClassType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides how many tickets may be sold above the seat capacity of a journey.
+ *
+ * <p>For every route and class type the policy keeps an exponentially
+ * weighted mean and variance of the share of passengers that did not show
+ * up. Each departed journey updates them in constant time. The allowance
+ * for a journey is the number of no-shows that can be expected with high
+ * confidence: the mean no-show rate is lowered by its own uncertainty and
+ * by the spread of a binomial draw over the seats, both scaled by the
+ * risk factor. The allowance never exceeds the maximum overbooking rate
+ * and stays 0 until enough departures have been observed.
+ *
+ * <p>An allowance can also be fixed for one journey and class type, which
+ * takes precedence over the statistics.
+ */
+public class OverbookingPolicy {
+    public static final double DEFAULT_RISK_FACTOR = 1.645;
+    public static final double DEFAULT_MAX_OVERBOOKING_RATE = 0.1;
+    public static final double DEFAULT_SMOOTHING = 0.1;
+    public static final int DEFAULT_MIN_OBSERVATIONS = 5;
+
+    private static final int CLASS_COUNT = ClassType.values().length;
+
+    private final double riskFactor;
+    private final double maxOverbookingRate;
+    private final double smoothing;
+    private final int minObservations;
+    private final Map<String, NoShowStatistics[]> statisticsByRoute = new ConcurrentHashMap<>();
+    private final Map<UUID, int[]> overridesByJourney = new ConcurrentHashMap<>();
+
+    public OverbookingPolicy() {
+        this(DEFAULT_RISK_FACTOR, DEFAULT_MAX_OVERBOOKING_RATE, DEFAULT_SMOOTHING, DEFAULT_MIN_OBSERVATIONS);
+    }
+
+    /**
+     * Creates a policy with custom settings.
+     *
+     * @param riskFactor the number of standard deviations kept as safety margin,
+     *                   e.g. 1.645 to deny boarding on about 5% of journeys at most
+     * @param maxOverbookingRate the largest allowance as a share of the seat capacity
+     * @param smoothing the weight of the most recent departure in the statistics, between 0 and 1
+     * @param minObservations the number of departures to observe on a route before overbooking it
+     */
+    public OverbookingPolicy(double riskFactor, double maxOverbookingRate, double smoothing, int minObservations) {
+        this.riskFactor = riskFactor;
+        this.maxOverbookingRate = maxOverbookingRate;
+        this.smoothing = smoothing;
+        this.minObservations = minObservations;
+    }
+
+    /**
+     * Returns a policy that does not overbook on the basis of no-show statistics.
+     *
+     * <p>Only allowances fixed for a single journey apply.
+     *
+     * @return the policy without statistical overbooking
+     */
+    public static OverbookingPolicy none() {
+        return new OverbookingPolicy(DEFAULT_RISK_FACTOR, 0, DEFAULT_SMOOTHING, DEFAULT_MIN_OBSERVATIONS);
+    }
+
+    /**
+     * Returns the number of tickets that may be sold above the seat capacity.
+     *
+     * @param journey the journey to sell tickets for
+     * @param classType the class type of the tickets
+     * @param capacity the number of seats of the class type on the journey
+     * @return the allowance, 0 if the journey may not be overbooked
+     */
+    public int getAllowance(Journey journey, ClassType classType, int capacity) {
+        int[] overrides = overridesByJourney.get(journey.getId());
+        if (overrides != null && overrides[classType.ordinal()] >= 0) {
+            return overrides[classType.ordinal()];
+        }
+        if (maxOverbookingRate <= 0 || capacity <= 0) {
+            return 0;
+        }
+        NoShowStatistics[] statistics = statisticsByRoute.get(routeOf(journey));
+        if (statistics == null) {
+            return 0;
+        }
+        return statistics[classType.ordinal()].allowance(capacity);
+    }
+
+    /**
+     * Records the realised no-shows of a departed journey.
+     *
+     * @param journey the departed journey
+     * @param classType the class type
+     * @param booked the number of tickets sold for the class type
+     * @param noShows the number of those passengers that did not board
+     */
+    public void recordDeparture(Journey journey, ClassType classType, int booked, int noShows) {
+        if (booked <= 0) {
+            return;
+        }
+        NoShowStatistics[] statistics = statisticsByRoute.computeIfAbsent(routeOf(journey), route -> {
+            NoShowStatistics[] byClass = new NoShowStatistics[CLASS_COUNT];
+            for (int i = 0; i < CLASS_COUNT; i++) {
+                byClass[i] = new NoShowStatistics();
+            }
+            return byClass;
+        });
+        statistics[classType.ordinal()].record((double) noShows / booked);
+    }
+
+    /**
+     * Fixes the allowance of one journey and class type, ignoring the statistics.
+     *
+     * @param journeyId the journey ID
+     * @param classType the class type
+     * @param allowance the number of tickets that may be sold above the seat capacity
+     */
+    public void setOverride(UUID journeyId, ClassType classType, int allowance) {
+        int[] overrides = overridesByJourney.computeIfAbsent(journeyId, id -> newOverrides());
+        overrides[classType.ordinal()] = Math.max(0, allowance);
+    }
+
+    /**
+     * Removes the fixed allowances of a journey, so the statistics apply again.
+     *
+     * @param journeyId the journey ID
+     */
+    public void clearOverrides(UUID journeyId) {
+        overridesByJourney.remove(journeyId);
+    }
+
+    /**
+     * Returns the key under which the statistics of a journey's route are kept.
+     *
+     * @param journey the journey
+     * @return the route key
+     */
+    String routeOf(Journey journey) {
+        return journey.getDepartureStation() + " -> " + journey.getArrivalStation();
+    }
+
+    private static int[] newOverrides() {
+        int[] overrides = new int[CLASS_COUNT];
+        Arrays.fill(overrides, -1);
+        return overrides;
+    }
+
+    /**
+     * Exponentially weighted statistics of the no-show rate of one route and class type.
+     */
+    private class NoShowStatistics {
+        private int observations;
+        private double mean;
+        private double variance;
+
+        synchronized void record(double rate) {
+            if (observations == 0) {
+                mean = rate;
+            } else {
+                double difference = rate - mean;
+                mean += smoothing * difference;
+                variance = (1 - smoothing) * (variance + smoothing * difference * difference);
+            }
+            observations++;
+        }
+
+        synchronized int allowance(int capacity) {
+            if (observations < minObservations) {
+                return 0;
+            }
+            double rate = Math.max(0, mean - riskFactor * Math.sqrt(variance));
+            double expected = capacity * rate;
+            double margin = expected - riskFactor * Math.sqrt(expected * (1 - rate));
+            int allowance = (int) Math.floor(Math.max(0, margin));
+            return Math.min(allowance, (int) Math.floor(capacity * maxOverbookingRate));
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package be.ehb.euromoon.service;
 
 import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.metrics.Operation;
+import be.ehb.euromoon.metrics.ServiceMetrics;
 import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.repository.Page;
 import be.ehb.euromoon.repository.PassengerRepository;
 
 import java.time.LocalDate;
@@ -18,10 +21,16 @@ import java.util.Random;
 public class PassengerService {
     private final PassengerRepository passengerRepository;
     private final Random random;
+    private final ServiceMetrics metrics;
 
     public PassengerService(PassengerRepository passengerRepository) {
+        this(passengerRepository, ServiceMetrics.disabled());
+    }
+
+    public PassengerService(PassengerRepository passengerRepository, ServiceMetrics metrics) {
         this.passengerRepository = passengerRepository;
         this.random = new Random();
+        this.metrics = metrics;
     }
 
     /**
@@ -36,6 +45,7 @@ public class PassengerService {
      */
     public Passenger registerPassenger(String name, String lastname, String rijksregisternummer,
                                        LocalDate geboortedatum) throws ValidationException {
+        long start = metrics.start();
         validatePassengerData(name, lastname, rijksregisternummer, geboortedatum);
 
         if (passengerRepository.exists(rijksregisternummer)) {
@@ -48,6 +58,7 @@ public class PassengerService {
         Passenger passenger = new Passenger(processedName, lastname, rijksregisternummer, geboortedatum);
         passengerRepository.save(passenger);
 
+        metrics.record(Operation.REGISTER_PASSENGER, start);
         return passenger;
     }
 
@@ -65,6 +76,31 @@ public class PassengerService {
             ));
     }
 
+    /**
+     * Searches registered passengers by name.
+     *
+     * @param query the (partial) first and/or last name to search for
+     * @param limit the maximum number of results
+     * @return the matching passengers, best matches first
+     */
+    public List<Passenger> searchPassengers(String query, int limit) {
+        if (query == null || query.trim().isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return passengerRepository.searchByName(query, limit);
+    }
+
+    /**
+     * Returns a page of registered passengers, ordered by rijksregisternummer.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of passengers on the page
+     * @return the page of passengers
+     */
+    public Page<Passenger> getPassengers(String cursor, int size) {
+        return passengerRepository.findPage(cursor, size);
+    }
+
     /**
      * Returns all registered passengers.
      *
@@ -0,0 +1,164 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.analytics.TicketAnalytics;
+import be.ehb.euromoon.analytics.TicketColumns;
+import be.ehb.euromoon.event.EventBus;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.report.HourlySalesReadModel;
+import be.ehb.euromoon.report.OccupancyReadModel;
+import be.ehb.euromoon.report.RoutePassengersReadModel;
+import be.ehb.euromoon.repository.TicketRepository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service answering reporting queries from read models kept next to the booking data.
+ *
+ * <p>The read models subscribe to the event bus and are updated by its
+ * dispatcher threads after a ticket is sold or cancelled. Selling a ticket
+ * therefore never waits for reporting, and a report never scans or locks
+ * the ticket repository. Reports lag behind sales by the time the event
+ * bus needs to deliver an event, usually well under a millisecond.
+ *
+ * <p>The occupancy and route read models are seeded from the ticket
+ * repository when the service is created, so they are complete after a
+ * restart from a snapshot. When the event bus has dropped events since the
+ * last check, the next query rebuilds them from the repository first. Hourly
+ * sales cannot be rebuilt, since tickets do not record when they were sold,
+ * so sales whose event was dropped are missing from them.
+ *
+ * <p>Questions over all tickets, such as load factors, are answered by
+ * {@link TicketAnalytics} on a columnar copy of the ticket repository.
+ * The copy is kept and only taken again once tickets were saved or removed.
+ */
+public class ReportService {
+    private final EventBus eventBus;
+    private final TicketRepository ticketRepository;
+    private final OccupancyReadModel occupancy = new OccupancyReadModel();
+    private final HourlySalesReadModel hourlySales = new HourlySalesReadModel();
+    private final RoutePassengersReadModel routePassengers = new RoutePassengersReadModel();
+    private final AtomicLong syncedDropCount = new AtomicLong();
+    private TicketAnalytics analytics;
+    private long analyticsModificationCount;
+
+    /**
+     * Creates the service, subscribes its read models to an event bus and seeds them from the repository.
+     *
+     * <p>The bus must not have been started yet.
+     *
+     * @param eventBus the event bus that publishes the booking events
+     * @param ticketRepository the repository to analyse
+     */
+    public ReportService(EventBus eventBus, TicketRepository ticketRepository) {
+        this.eventBus = eventBus;
+        this.ticketRepository = ticketRepository;
+        eventBus.subscribe(occupancy);
+        eventBus.subscribe(hourlySales);
+        eventBus.subscribe(routePassengers);
+        syncedDropCount.set(eventBus.getDroppedCount());
+        resync();
+    }
+
+    /**
+     * Rebuilds the occupancy and route read models from the tickets in the repository.
+     *
+     * <p>Events that are still queued for tickets already counted are
+     * ignored when they arrive, so this can run while sales go on.
+     */
+    public void resync() {
+        occupancy.rebuild(ticketRepository.stream()::iterator);
+        routePassengers.rebuild(ticketRepository.stream()::iterator);
+    }
+
+    /**
+     * Returns the number of tickets held for a journey.
+     *
+     * @param journeyId the journey ID
+     * @param classType the class type
+     * @return the number of tickets sold and not cancelled
+     */
+    public long getTickets(UUID journeyId, ClassType classType) {
+        resyncIfEventsDropped();
+        return occupancy.getTickets(journeyId, classType);
+    }
+
+    /**
+     * Returns the number of tickets held for all journeys departing on a day.
+     *
+     * @param day the departure day
+     * @param classType the class type
+     * @return the number of tickets sold and not cancelled
+     */
+    public long getTicketsOnDay(LocalDate day, ClassType classType) {
+        resyncIfEventsDropped();
+        return occupancy.getTicketsOnDay(day, classType);
+    }
+
+    /**
+     * Returns the number of tickets sold per hour in a period, leaving out hours without sales.
+     *
+     * @param from the start of the period, inclusive
+     * @param until the end of the period, exclusive
+     * @return the tickets sold, keyed by the start of each hour
+     */
+    public SortedMap<Instant, Long> getSoldPerHour(Instant from, Instant until) {
+        return hourlySales.getSoldPerHour(from, until);
+    }
+
+    /**
+     * Returns the routes with the most passengers.
+     *
+     * @param limit the maximum number of routes to return
+     * @return the routes and their number of passengers, busiest first
+     */
+    public List<Map.Entry<String, Long>> getBusiestRoutes(int limit) {
+        resyncIfEventsDropped();
+        return routePassengers.getBusiestRoutes(limit);
+    }
+
+    /**
+     * Returns analytics over a columnar copy of the tickets in the repository.
+     *
+     * <p>The copy is reused as long as no ticket was saved or removed since
+     * it was taken. The returned analytics are not updated afterwards; call
+     * this method again to include later changes.
+     *
+     * @return the analytics over the current tickets
+     */
+    public synchronized TicketAnalytics analyseTickets() {
+        long modificationCount = ticketRepository.getModificationCount();
+        if (analytics == null || analyticsModificationCount != modificationCount) {
+            analytics = new TicketAnalytics(TicketColumns.of(ticketRepository.stream()::iterator));
+            analyticsModificationCount = modificationCount;
+        }
+        return analytics;
+    }
+
+    public OccupancyReadModel getOccupancy() {
+        resyncIfEventsDropped();
+        return occupancy;
+    }
+
+    public HourlySalesReadModel getHourlySales() {
+        return hourlySales;
+    }
+
+    public RoutePassengersReadModel getRoutePassengers() {
+        resyncIfEventsDropped();
+        return routePassengers;
+    }
+
+    private void resyncIfEventsDropped() {
+        long synced = syncedDropCount.get();
+        long dropped = eventBus.getDroppedCount();
+        if (dropped > synced && syncedDropCount.compareAndSet(synced, dropped)) {
+            resync();
+        }
+    }
+}
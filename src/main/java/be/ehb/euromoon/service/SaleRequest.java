@@ -0,0 +1,51 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.ticket.ClassType;
+
+/**
+ * A ticket sale to be carried out, used to submit many sales at once.
+ *
+ * <p>Without stations the ticket covers the whole journey.
+ */
+public class SaleRequest {
+    private final Passenger passenger;
+    private final Journey journey;
+    private final ClassType classType;
+    private final String boardingStation;
+    private final String alightingStation;
+
+    public SaleRequest(Passenger passenger, Journey journey, ClassType classType) {
+        this(passenger, journey, classType, null, null);
+    }
+
+    public SaleRequest(Passenger passenger, Journey journey, ClassType classType,
+                       String boardingStation, String alightingStation) {
+        this.passenger = passenger;
+        this.journey = journey;
+        this.classType = classType;
+        this.boardingStation = boardingStation;
+        this.alightingStation = alightingStation;
+    }
+
+    public Passenger getPassenger() {
+        return passenger;
+    }
+
+    public Journey getJourney() {
+        return journey;
+    }
+
+    public ClassType getClassType() {
+        return classType;
+    }
+
+    public String getBoardingStation() {
+        return boardingStation;
+    }
+
+    public String getAlightingStation() {
+        return alightingStation;
+    }
+}
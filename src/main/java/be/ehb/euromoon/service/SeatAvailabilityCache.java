@@ -0,0 +1,320 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.journey.SeatInventory;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.SeatHold;
+import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.repository.TicketRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-optimised cache of the seat inventory of every journey.
+ *
+ * <p>Instead of summing wagon seats and counting sold tickets on every
+ * lookup, the {@link SeatInventory} of a journey is built once when a train
+ * is assigned and then adjusted on every sale and cancellation. Reading the
+ * availability of a journey is therefore a map lookup plus a pass over its
+ * segments. A departed journey is evicted, so the cache only holds journeys
+ * that can still be booked.
+ *
+ * <p>The overbooking allowance of each class type is taken from the
+ * {@link OverbookingPolicy} when the inventory is built, and recalculated
+ * for every cached journey on the same route when new no-show data arrives.
+ * Cached journeys are kept per route, so that only touches the journeys of
+ * the affected route.
+ *
+ * <p>Seats that are held for a passenger occupy the inventory like sold
+ * tickets. The cache keeps the active holds of each journey, so they are
+ * still counted when the inventory of the journey is rebuilt.
+ */
+public class SeatAvailabilityCache {
+    private static final ClassType[] CLASS_TYPES = ClassType.values();
+
+    private final TicketRepository ticketRepository;
+    private final OverbookingPolicy overbookingPolicy;
+    private final Map<UUID, SeatInventory> inventories = new ConcurrentHashMap<>();
+    private final Map<String, Map<UUID, Journey>> journeysByRoute = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<SeatHold>> holdsByJourney = new ConcurrentHashMap<>();
+
+    public SeatAvailabilityCache(TicketRepository ticketRepository) {
+        this(ticketRepository, OverbookingPolicy.none());
+    }
+
+    public SeatAvailabilityCache(TicketRepository ticketRepository, OverbookingPolicy overbookingPolicy) {
+        this.ticketRepository = ticketRepository;
+        this.overbookingPolicy = overbookingPolicy;
+    }
+
+    /**
+     * Updates the seat inventory of a journey to the capacity of its current train.
+     *
+     * <p>This must be called whenever the train of a journey changes. The
+     * seats taken so far are kept: only the capacity and the overbooking
+     * allowance change, in one step under the inventory's lock, so a sale
+     * running at the same time is counted exactly once. A journey that has
+     * no inventory yet gets one built from its sold tickets.
+     *
+     * @param journey the journey to refresh
+     */
+    public void refresh(Journey journey) {
+        if (journey == null || journey.getId() == null) {
+            return;
+        }
+        if (journey.getTrain() == null) {
+            inventories.remove(journey.getId());
+            return;
+        }
+        SeatInventory inventory = inventories.get(journey.getId());
+        if (inventory == null) {
+            inventoryOf(journey);
+            return;
+        }
+        synchronized (inventory) {
+            for (ClassType classType : CLASS_TYPES) {
+                inventory.setCapacity(classType, journey.getAvailableSeats(classType));
+                applyAllowance(journey, inventory, classType);
+            }
+        }
+    }
+
+    /**
+     * Forgets the inventory of a journey, e.g. after it departed.
+     *
+     * <p>Its active holds are dropped too. Asking for the availability of the
+     * journey afterwards builds a new inventory from its sold tickets.
+     *
+     * @param journey the journey to forget
+     */
+    public void evict(Journey journey) {
+        inventories.remove(journey.getId());
+        holdsByJourney.remove(journey.getId());
+        journeysByRoute.computeIfPresent(overbookingPolicy.routeOf(journey), (route, journeys) -> {
+            journeys.remove(journey.getId());
+            return journeys.isEmpty() ? null : journeys;
+        });
+    }
+
+    /**
+     * Records the realised no-shows of a departed journey and updates the
+     * overbooking allowance of all cached journeys on the same route.
+     *
+     * @param journey the departed journey
+     * @param classType the class type
+     * @param booked the number of tickets sold for the class type
+     * @param noShows the number of those passengers that did not board
+     */
+    public void recordNoShows(Journey journey, ClassType classType, int booked, int noShows) {
+        overbookingPolicy.recordDeparture(journey, classType, booked, noShows);
+        Map<UUID, Journey> journeys = journeysByRoute.get(overbookingPolicy.routeOf(journey));
+        if (journeys == null) {
+            return;
+        }
+        for (Journey cached : journeys.values()) {
+            SeatInventory inventory = inventories.get(cached.getId());
+            if (inventory != null) {
+                applyAllowance(cached, inventory, classType);
+            }
+        }
+    }
+
+    /**
+     * Fixes the overbooking allowance of one journey and class type.
+     *
+     * @param journey the journey
+     * @param classType the class type
+     * @param allowance the number of tickets that may be sold above the seat capacity
+     */
+    public void setOverbookingAllowance(Journey journey, ClassType classType, int allowance) {
+        overbookingPolicy.setOverride(journey.getId(), classType, allowance);
+        SeatInventory inventory = inventoryOf(journey);
+        if (inventory != null) {
+            applyAllowance(journey, inventory, classType);
+        }
+    }
+
+    /**
+     * Reserves one seat over the whole journey if one is still available.
+     *
+     * @param journey the journey to reserve a seat on
+     * @param classType the class type of the seat
+     * @return true if a seat was reserved, false if the class is sold out
+     */
+    public boolean tryReserve(Journey journey, ClassType classType) {
+        return tryReserve(journey, classType, 0, journey.getSegmentCount());
+    }
+
+    /**
+     * Reserves one seat between two stops if every segment in between has a free seat.
+     *
+     * @param journey the journey to reserve a seat on
+     * @param classType the class type of the seat
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     * @return true if a seat was reserved, false if a segment is sold out
+     */
+    public boolean tryReserve(Journey journey, ClassType classType, int fromStop, int toStop) {
+        SeatInventory inventory = inventoryOf(journey);
+        return inventory != null && inventory.tryReserve(classType, fromStop, toStop);
+    }
+
+    /**
+     * Takes a seat that was already sold elsewhere, even if it exceeds the capacity.
+     *
+     * <p>Used to replay sales made by another instance, which already checked
+     * the availability. The ticket must be saved after the seat is taken, so
+     * it is not counted twice when the inventory is built by this call.
+     *
+     * @param journey the journey the seat belongs to
+     * @param classType the class type of the seat
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     */
+    public void occupy(Journey journey, ClassType classType, int fromStop, int toStop) {
+        SeatInventory inventory = inventoryOf(journey);
+        if (inventory != null) {
+            inventory.occupy(classType, fromStop, toStop);
+        }
+    }
+
+    /**
+     * Returns a previously reserved seat to the pool, e.g. after a cancellation.
+     *
+     * @param journey the journey the seat belongs to
+     * @param classType the class type of the seat
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     */
+    public void release(Journey journey, ClassType classType, int fromStop, int toStop) {
+        SeatInventory inventory = inventoryOf(journey);
+        if (inventory != null) {
+            inventory.release(classType, fromStop, toStop);
+        }
+    }
+
+    /**
+     * Reserves the seat of a hold if every segment of the hold has a free seat.
+     *
+     * @param hold the hold to reserve a seat for
+     * @return true if the seat was reserved, false if a segment is sold out
+     */
+    public boolean tryHold(SeatHold hold) {
+        if (!tryReserve(hold.getJourney(), hold.getClassType(), hold.getFromStop(), hold.getToStop())) {
+            return false;
+        }
+        holdsByJourney.computeIfAbsent(hold.getJourney().getId(), id -> ConcurrentHashMap.newKeySet()).add(hold);
+        return true;
+    }
+
+    /**
+     * Returns the seat of a hold that lapsed or was released to the pool.
+     *
+     * @param hold the hold to release
+     */
+    public void releaseHold(SeatHold hold) {
+        if (forgetHold(hold)) {
+            release(hold.getJourney(), hold.getClassType(), hold.getFromStop(), hold.getToStop());
+        }
+    }
+
+    /**
+     * Keeps the seat of a confirmed hold reserved for the ticket that replaced it.
+     *
+     * <p>The ticket must be saved before the hold is confirmed, so the seat
+     * is counted by a rebuilt inventory at all times.
+     *
+     * @param hold the confirmed hold
+     */
+    public void confirmHold(SeatHold hold) {
+        forgetHold(hold);
+    }
+
+    /**
+     * Returns the seats that are free over the whole journey.
+     *
+     * @param journey the journey to check
+     * @param classType the class type to check
+     * @return the number of remaining seats, 0 if no train is assigned
+     */
+    public int getAvailableSeats(Journey journey, ClassType classType) {
+        SeatInventory inventory = inventoryOf(journey);
+        return inventory == null ? 0 : inventory.getAvailableSeats(classType);
+    }
+
+    /**
+     * Returns the seats that are free on every segment between two stops.
+     *
+     * @param journey the journey to check
+     * @param classType the class type to check
+     * @param fromStop the index of the boarding stop
+     * @param toStop the index of the alighting stop
+     * @return the number of remaining seats, 0 if no train is assigned
+     */
+    public int getAvailableSeats(Journey journey, ClassType classType, int fromStop, int toStop) {
+        SeatInventory inventory = inventoryOf(journey);
+        return inventory == null ? 0 : inventory.getAvailableSeats(classType, fromStop, toStop);
+    }
+
+    /**
+     * Returns the seats that are free over the whole journey, per class type, for many journeys at once.
+     *
+     * <p>Journeys without an assigned train are omitted from the result.
+     *
+     * @param journeys the journeys to look up
+     * @return the remaining seats per class type, keyed by journey ID
+     */
+    public Map<UUID, Map<ClassType, Integer>> getAvailability(Collection<Journey> journeys) {
+        Map<UUID, Map<ClassType, Integer>> availability = new HashMap<>(journeys.size() * 2);
+        for (Journey journey : journeys) {
+            SeatInventory inventory = inventoryOf(journey);
+            if (inventory == null) {
+                continue;
+            }
+            Map<ClassType, Integer> byClass = new EnumMap<>(ClassType.class);
+            for (ClassType classType : CLASS_TYPES) {
+                byClass.put(classType, inventory.getAvailableSeats(classType));
+            }
+            availability.put(journey.getId(), byClass);
+        }
+        return availability;
+    }
+
+    private boolean forgetHold(SeatHold hold) {
+        Set<SeatHold> holds = holdsByJourney.get(hold.getJourney().getId());
+        return holds != null && holds.remove(hold);
+    }
+
+    private SeatInventory inventoryOf(Journey journey) {
+        if (journey == null || journey.getTrain() == null) {
+            return null;
+        }
+        return inventories.computeIfAbsent(journey.getId(), id -> buildInventory(journey));
+    }
+
+    private void applyAllowance(Journey journey, SeatInventory inventory, ClassType classType) {
+        inventory.setAllowance(classType,
+            overbookingPolicy.getAllowance(journey, classType, inventory.getCapacity(classType)));
+    }
+
+    private SeatInventory buildInventory(Journey journey) {
+        journeysByRoute.compute(overbookingPolicy.routeOf(journey), (route, journeys) -> {
+            Map<UUID, Journey> onRoute = journeys != null ? journeys : new ConcurrentHashMap<>();
+            onRoute.put(journey.getId(), journey);
+            return onRoute;
+        });
+        SeatInventory inventory = new SeatInventory(journey.getSegmentCount());
+        for (ClassType classType : CLASS_TYPES) {
+            inventory.setCapacity(classType, journey.getAvailableSeats(classType));
+            applyAllowance(journey, inventory, classType);
+        }
+        for (Ticket ticket : ticketRepository.findByJourney(journey.getId())) {
+            inventory.occupy(ticket.getClassType(), ticket.getFromStop(), ticket.getToStop());
+        }
+        for (SeatHold hold : holdsByJourney.getOrDefault(journey.getId(), Set.of())) {
+            inventory.occupy(hold.getClassType(), hold.getFromStop(), hold.getToStop());
+        }
+        return inventory;
+    }
+}
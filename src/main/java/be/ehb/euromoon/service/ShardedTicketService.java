@@ -0,0 +1,348 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.exception.OversellException;
+import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.metrics.ServiceMetrics;
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.model.train.Train;
+import be.ehb.euromoon.repository.TicketRepository;
+import be.ehb.euromoon.util.IdGenerator;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ticket service that spreads journeys over partitions, each run by a single thread.
+ *
+ * <p>Every partition owns the tickets and seat inventory of the journeys
+ * assigned to it by journey ID, in its own {@link TicketRepository} and
+ * {@link SeatAvailabilityCache}. Sales and cancellations are put on the
+ * partition's lock-free queue and carried out one after the other by the
+ * partition's thread, so a busy departure only holds up the journeys of
+ * its own partition and no two threads ever compete for the same booking
+ * data. With one partition per core, throughput grows with the number of
+ * cores as long as sales are spread over many journeys.
+ *
+ * <p>Queries read the partition's repository directly from the calling
+ * thread and see every sale that completed before the query started.
+ *
+ * <p>The service must be registered as a {@link JourneyListener} with the
+ * {@link JourneyService}, so the seat inventory of a partition follows when
+ * a journey gets another train. The inventory is refreshed on the
+ * partition's thread, in order with the sales of the journey.
+ */
+public class ShardedTicketService implements JourneyListener, AutoCloseable {
+    private static final int SPINS_BEFORE_PARK = 1000;
+
+    private final Partition[] partitions;
+
+    public ShardedTicketService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ShardedTicketService(int partitionCount) {
+        this(partitionCount, IdGenerator.timeOrdered(), ServiceMetrics.disabled());
+    }
+
+    /**
+     * Creates the service and starts the partition threads.
+     *
+     * @param partitionCount the number of partitions
+     * @param idGenerator the generator for ticket IDs, shared by all partitions
+     * @param metrics the metrics recorder, shared by all partitions
+     */
+    public ShardedTicketService(int partitionCount, IdGenerator idGenerator, ServiceMetrics metrics) {
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be greater than 0");
+        }
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            TicketRepository ticketRepository = new TicketRepository();
+            SeatAvailabilityCache seatAvailabilityCache = new SeatAvailabilityCache(ticketRepository);
+            TicketService ticketService = new TicketService(ticketRepository, seatAvailabilityCache, idGenerator,
+                metrics);
+            partitions[i] = new Partition(ticketService, ticketRepository, seatAvailabilityCache,
+                "ticket-partition-" + i);
+        }
+    }
+
+    /**
+     * Sells a ticket for the whole journey and waits for the sale to complete.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @return the created ticket
+     * @throws ValidationException for any reason listed in
+     *         {@link TicketService#sellTicket(Passenger, Journey, ClassType)}
+     * @throws OversellException if no seats are available
+     */
+    public Ticket sellTicket(Passenger passenger, Journey journey, ClassType classType)
+            throws ValidationException, OversellException {
+        return TicketService.awaitSale(submitSale(passenger, journey, classType));
+    }
+
+    /**
+     * Sells a ticket between two stops and waits for the sale to complete.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @param boardingStation the station where the passenger boards
+     * @param alightingStation the station where the passenger gets off
+     * @return the created ticket
+     * @throws ValidationException for any reason listed in
+     *         {@link TicketService#sellTicket(Passenger, Journey, ClassType, String, String)}
+     * @throws OversellException if a segment of the trip has no available seats
+     */
+    public Ticket sellTicket(Passenger passenger, Journey journey, ClassType classType,
+                             String boardingStation, String alightingStation)
+            throws ValidationException, OversellException {
+        return TicketService.awaitSale(submitSale(passenger, journey, classType, boardingStation, alightingStation));
+    }
+
+    /**
+     * Queues the sale of a ticket for the whole journey.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @return the future ticket, completed with a ValidationException or OversellException if the sale fails
+     */
+    public CompletableFuture<Ticket> submitSale(Passenger passenger, Journey journey, ClassType classType) {
+        if (journey == null) {
+            return CompletableFuture.failedFuture(new ValidationException("Journey cannot be null"));
+        }
+        return submitSale(passenger, journey, classType, journey.getDepartureStation(), journey.getArrivalStation());
+    }
+
+    /**
+     * Queues the sale of a ticket between two stops.
+     *
+     * <p>Sales for the same journey are carried out in the order they were submitted.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @param boardingStation the station where the passenger boards
+     * @param alightingStation the station where the passenger gets off
+     * @return the future ticket, completed with a ValidationException or OversellException if the sale fails
+     */
+    public CompletableFuture<Ticket> submitSale(Passenger passenger, Journey journey, ClassType classType,
+                                                String boardingStation, String alightingStation) {
+        if (journey == null) {
+            return CompletableFuture.failedFuture(new ValidationException("Journey cannot be null"));
+        }
+        return partitionOf(journey).submit(
+            service -> service.sellTicket(passenger, journey, classType, boardingStation, alightingStation));
+    }
+
+    /**
+     * Cancels a ticket and waits for its seat to be returned to the journey.
+     *
+     * @param ticket the ticket to cancel
+     * @return the cancelled ticket
+     * @throws ValidationException if the ticket does not exist
+     */
+    public Ticket cancelTicket(Ticket ticket) throws ValidationException {
+        if (ticket == null) {
+            throw new ValidationException("Ticket cannot be null");
+        }
+        try {
+            return TicketService.awaitSale(
+                partitionOf(ticket.getJourney()).submit(service -> service.cancelTicket(ticket.getId())));
+        } catch (OversellException e) {
+            throw new IllegalStateException("Unexpected oversell on cancellation", e);
+        }
+    }
+
+    /**
+     * Queues a refresh of the seat inventory of a journey that got a new train.
+     *
+     * <p>Returns without waiting for the refresh.
+     *
+     * @param journey the journey
+     * @param train the assigned train
+     */
+    @Override
+    public void trainAssigned(Journey journey, Train train) {
+        Partition partition = partitionOf(journey);
+        partition.submit(service -> {
+            partition.seatAvailabilityCache.refresh(journey);
+            return null;
+        });
+    }
+
+    @Override
+    public void personnelAssigned(Journey journey, Personnel personnel) {
+    }
+
+    /**
+     * Adds a listener that is notified of the sales and cancellations of every partition.
+     *
+     * <p>Listeners are called on the partition threads and must be safe to call from several threads at once.
+     *
+     * @param listener the listener to add
+     */
+    public void addTicketListener(TicketListener listener) {
+        for (Partition partition : partitions) {
+            partition.ticketService.addTicketListener(listener);
+        }
+    }
+
+    /**
+     * Returns all tickets for a journey.
+     *
+     * @param journey the journey
+     * @return the tickets for the journey
+     */
+    public List<Ticket> getTicketsByJourney(Journey journey) {
+        return partitionOf(journey).ticketService.getTicketsByJourney(journey);
+    }
+
+    /**
+     * Returns the seats of a class type that are free over the whole journey.
+     *
+     * @param journey the journey
+     * @param classType the class type
+     * @return the number of available seats
+     */
+    public long getAvailableSeats(Journey journey, ClassType classType) {
+        return partitionOf(journey).ticketService.getAvailableSeats(journey, classType);
+    }
+
+    /**
+     * Returns the number of tickets over all partitions.
+     *
+     * @return the number of tickets
+     */
+    public int getTicketCount() {
+        int count = 0;
+        for (Partition partition : partitions) {
+            count += partition.ticketRepository.count();
+        }
+        return count;
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Stops accepting requests, carries out the requests that are still queued and stops the partition threads.
+     *
+     * <p>The ticket services of the partitions are closed as well.
+     */
+    @Override
+    public void close() {
+        for (Partition partition : partitions) {
+            partition.closed = true;
+            LockSupport.unpark(partition.worker);
+        }
+        for (Partition partition : partitions) {
+            try {
+                partition.worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Partition partition : partitions) {
+            partition.ticketService.close();
+        }
+    }
+
+    private Partition partitionOf(Journey journey) {
+        int hash = journey.getId().hashCode();
+        return partitions[Math.floorMod(hash ^ (hash >>> 16), partitions.length)];
+    }
+
+    /**
+     * An operation carried out on the ticket service of a partition.
+     */
+    @FunctionalInterface
+    private interface Request {
+        Ticket apply(TicketService ticketService) throws ValidationException, OversellException;
+    }
+
+    /**
+     * The booking data of a group of journeys and the thread that changes it.
+     */
+    private static class Partition {
+        private final TicketService ticketService;
+        private final TicketRepository ticketRepository;
+        private final SeatAvailabilityCache seatAvailabilityCache;
+        private final Queue<Runnable> requests = new ConcurrentLinkedQueue<>();
+        private final Thread worker;
+        private volatile boolean parked;
+        private volatile boolean closed;
+
+        Partition(TicketService ticketService, TicketRepository ticketRepository,
+                  SeatAvailabilityCache seatAvailabilityCache, String name) {
+            this.ticketService = ticketService;
+            this.ticketRepository = ticketRepository;
+            this.seatAvailabilityCache = seatAvailabilityCache;
+            this.worker = new Thread(this::run, name);
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        /**
+         * Queues a request for the partition's thread.
+         *
+         * <p>If the service is closed while the request is being queued, the
+         * thread may already have stopped. The request is then taken back
+         * and failed, unless the thread picked it up in time.
+         */
+        CompletableFuture<Ticket> submit(Request request) {
+            CompletableFuture<Ticket> result = new CompletableFuture<>();
+            if (closed) {
+                result.completeExceptionally(new IllegalStateException("Ticket service is closed"));
+                return result;
+            }
+            Runnable task = () -> {
+                try {
+                    result.complete(request.apply(ticketService));
+                } catch (ValidationException | OversellException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            };
+            requests.add(task);
+            if (closed && requests.remove(task)) {
+                result.completeExceptionally(new IllegalStateException("Ticket service is closed"));
+                return result;
+            }
+            if (parked) {
+                LockSupport.unpark(worker);
+            }
+            return result;
+        }
+
+        private void run() {
+            int idleSpins = 0;
+            while (!closed || !requests.isEmpty()) {
+                Runnable request = requests.poll();
+                if (request != null) {
+                    request.run();
+                    idleSpins = 0;
+                } else if (idleSpins < SPINS_BEFORE_PARK) {
+                    idleSpins++;
+                    Thread.onSpinWait();
+                } else {
+                    parked = true;
+                    if (requests.isEmpty() && !closed) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+/**
+ * Listener that is notified by {@link TicketService} when tickets change.
+ *
+ * <p>Listeners are called synchronously on the thread that sold or
+ * cancelled the ticket, so implementations should return quickly.
+ */
+public interface TicketListener {
+
+    /**
+     * Called after a ticket has been sold and saved.
+     *
+     * @param ticket the sold ticket
+     */
+    void ticketSold(Ticket ticket);
+
+    /**
+     * Called after a ticket has been cancelled and removed.
+     *
+     * @param ticket the cancelled ticket
+     */
+    void ticketCancelled(Ticket ticket);
+
+    /**
+     * Called after a journey has departed, so no more tickets change for it.
+     *
+     * <p>Listeners that keep state per journey should release it here.
+     *
+     * @param journey the departed journey
+     */
+    default void journeyDeparted(Journey journey) {
+    }
+}
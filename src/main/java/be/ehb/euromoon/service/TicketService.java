@@ -2,13 +2,34 @@ package be.ehb.euromoon.service;
 
 import be.ehb.euromoon.exception.OversellException;
 import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.metrics.Operation;
+import be.ehb.euromoon.metrics.ServiceMetrics;
 import be.ehb.euromoon.model.journey.Journey;
 import be.ehb.euromoon.model.person.Passenger;
 import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.SaleRejection;
+import be.ehb.euromoon.model.ticket.SeatHold;
+import be.ehb.euromoon.model.ticket.SellResult;
 import be.ehb.euromoon.model.ticket.Ticket;
+import be.ehb.euromoon.repository.Page;
 import be.ehb.euromoon.repository.TicketRepository;
+import be.ehb.euromoon.util.IdGenerator;
+import be.ehb.euromoon.util.TimerWheel;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Service for managing ticket operations.
@@ -17,12 +38,80 @@ import java.util.List;
  * It ensures that tickets cannot be oversold by checking available
  * capacity before creating new tickets. This is a critical component
  * for maintaining journey capacity constraints.
+ *
+ * <p>A passenger can book a journey only once. While a ticket is being
+ * sold, its passenger and journey are claimed, so a second sale to the
+ * same passenger for the same journey is rejected even if it runs at the
+ * same time. Likewise, a passenger can hold only one seat per journey at a
+ * time.
+ *
+ * <p>Holds lapse on a {@link TimerWheel}. A service that created its own
+ * wheel stops the wheel thread when it is closed.
  */
-public class TicketService {
+public class TicketService implements AutoCloseable {
+    public static final Duration DEFAULT_HOLD_DURATION = Duration.ofMinutes(10);
+
     private final TicketRepository ticketRepository;
+    private final SeatAvailabilityCache seatAvailabilityCache;
+    private final IdGenerator idGenerator;
+    private final ServiceMetrics metrics;
+    private final IdempotencyCache<IdempotentSale> idempotencyCache;
+    private final TimerWheel holdTimer;
+    private final boolean ownsHoldTimer;
+    private final Map<UUID, PendingHold> holds = new ConcurrentHashMap<>();
+    private final Set<BookingKey> heldBookings = ConcurrentHashMap.newKeySet();
+    private final Set<BookingKey> bookingsInProgress = ConcurrentHashMap.newKeySet();
+    private final List<TicketListener> listeners = new CopyOnWriteArrayList<>();
+
+    public TicketService(TicketRepository ticketRepository, SeatAvailabilityCache seatAvailabilityCache) {
+        this(ticketRepository, seatAvailabilityCache, IdGenerator.timeOrdered());
+    }
+
+    public TicketService(TicketRepository ticketRepository, SeatAvailabilityCache seatAvailabilityCache,
+                         IdGenerator idGenerator) {
+        this(ticketRepository, seatAvailabilityCache, idGenerator, ServiceMetrics.disabled());
+    }
+
+    public TicketService(TicketRepository ticketRepository, SeatAvailabilityCache seatAvailabilityCache,
+                         IdGenerator idGenerator, ServiceMetrics metrics) {
+        this(ticketRepository, seatAvailabilityCache, idGenerator, metrics, new IdempotencyCache<>());
+    }
 
-    public TicketService(TicketRepository ticketRepository) {
+    public TicketService(TicketRepository ticketRepository, SeatAvailabilityCache seatAvailabilityCache,
+                         IdGenerator idGenerator, ServiceMetrics metrics,
+                         IdempotencyCache<IdempotentSale> idempotencyCache) {
+        this(ticketRepository, seatAvailabilityCache, idGenerator, metrics, idempotencyCache, new TimerWheel(), true);
+    }
+
+    /**
+     * Creates the service with a timer wheel for holds that is shared with other users.
+     *
+     * <p>The wheel is not closed when this service is closed.
+     *
+     * @param ticketRepository the repository to store tickets in
+     * @param seatAvailabilityCache the seat inventory of the journeys
+     * @param idGenerator the generator for ticket and hold IDs
+     * @param metrics the metrics recorder
+     * @param idempotencyCache the outcomes of sales made with an idempotency key
+     * @param holdTimer the timer wheel that lets holds lapse
+     */
+    public TicketService(TicketRepository ticketRepository, SeatAvailabilityCache seatAvailabilityCache,
+                         IdGenerator idGenerator, ServiceMetrics metrics,
+                         IdempotencyCache<IdempotentSale> idempotencyCache, TimerWheel holdTimer) {
+        this(ticketRepository, seatAvailabilityCache, idGenerator, metrics, idempotencyCache, holdTimer, false);
+    }
+
+    private TicketService(TicketRepository ticketRepository, SeatAvailabilityCache seatAvailabilityCache,
+                          IdGenerator idGenerator, ServiceMetrics metrics,
+                          IdempotencyCache<IdempotentSale> idempotencyCache, TimerWheel holdTimer,
+                          boolean ownsHoldTimer) {
         this.ticketRepository = ticketRepository;
+        this.seatAvailabilityCache = seatAvailabilityCache;
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
+        this.idempotencyCache = idempotencyCache;
+        this.holdTimer = holdTimer;
+        this.ownsHoldTimer = ownsHoldTimer;
     }
 
     /**
@@ -30,6 +119,7 @@ public class TicketService {
      *
      * <p>This method validates that:
      * - The journey has an assigned train
+     * - The passenger does not already hold a ticket for the journey
      * - There are available seats in the requested class
      * - The ticket sale won't exceed capacity
      *
@@ -37,40 +127,369 @@ public class TicketService {
      * @param journey the journey to travel on
      * @param classType the class type (FIRST or SECOND)
      * @return the created ticket
-     * @throws ValidationException if journey has no train or inputs are invalid
+     * @throws ValidationException if journey has no train, the passenger already booked it or inputs are invalid
      * @throws OversellException if no seats are available
      */
     public Ticket sellTicket(Passenger passenger, Journey journey, ClassType classType)
             throws ValidationException, OversellException {
+        if (journey == null) {
+            throw new ValidationException("Journey cannot be null");
+        }
+        return sellTicket(passenger, journey, classType, journey.getDepartureStation(), journey.getArrivalStation());
+    }
+
+    /**
+     * Sells a ticket to a passenger for part of a journey.
+     *
+     * <p>The seat is taken only on the segments between the boarding and
+     * alighting station, so the same seat can be sold again for the other
+     * segments of the journey.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @param boardingStation the station where the passenger boards
+     * @param alightingStation the station where the passenger gets off
+     * @return the created ticket
+     * @throws ValidationException if the stations are not stops of the journey in travel order,
+     *         or for any reason listed in {@link #sellTicket(Passenger, Journey, ClassType)}
+     * @throws OversellException if a segment of the trip has no available seats
+     */
+    public Ticket sellTicket(Passenger passenger, Journey journey, ClassType classType,
+                             String boardingStation, String alightingStation)
+            throws ValidationException, OversellException {
+        SellResult result = trySellTicket(passenger, journey, classType, boardingStation, alightingStation);
+        if (!result.isSold()) {
+            throwRejection(result.getRejection(), journey, classType, boardingStation, alightingStation);
+        }
+        return result.getTicket();
+    }
+
+    /**
+     * Sells a ticket for the whole journey, returning a rejection instead of throwing it.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @return the sold ticket, or the reason the sale was rejected
+     * @see #sellTicket(Passenger, Journey, ClassType)
+     */
+    public SellResult trySellTicket(Passenger passenger, Journey journey, ClassType classType) {
+        if (journey == null) {
+            return SellResult.rejected(SaleRejection.JOURNEY_MISSING);
+        }
+        return trySellTicket(passenger, journey, classType, journey.getDepartureStation(),
+            journey.getArrivalStation());
+    }
+
+    /**
+     * Sells a ticket for part of a journey, returning a rejection instead of throwing it.
+     *
+     * <p>Use this method where rejections are frequent, e.g. for a popular
+     * departure that sells out: a rejection costs no exception and no
+     * message, only a shared result object.
+     *
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @param boardingStation the station where the passenger boards
+     * @param alightingStation the station where the passenger gets off
+     * @return the sold ticket, or the reason the sale was rejected
+     * @see #sellTicket(Passenger, Journey, ClassType, String, String)
+     */
+    public SellResult trySellTicket(Passenger passenger, Journey journey, ClassType classType,
+                                    String boardingStation, String alightingStation) {
+        long start = metrics.startSampled();
+        SaleRejection rejection = checkSale(passenger, journey, classType);
+        if (rejection != null) {
+            return SellResult.rejected(rejection);
+        }
+        BookingKey bookingKey = new BookingKey(passenger, journey);
+        if (!claimBooking(bookingKey, passenger, journey)) {
+            return SellResult.rejected(SaleRejection.ALREADY_BOOKED);
+        }
+        try {
+            int fromStop = journey.indexOfStop(boardingStation);
+            int toStop = journey.indexOfStop(alightingStation);
+            if (!isTrip(fromStop, toStop)) {
+                return SellResult.rejected(SaleRejection.INVALID_STOPS);
+            }
+
+            if (!seatAvailabilityCache.tryReserve(journey, classType, fromStop, toStop)) {
+                metrics.record(Operation.OVERSELL_REJECTED, start);
+                return SellResult.rejected(SaleRejection.SOLD_OUT);
+            }
+
+            Ticket ticket = new Ticket(idGenerator.nextId(), passenger, journey, classType, fromStop, toStop);
+            ticketRepository.save(ticket);
+
+            for (TicketListener listener : listeners) {
+                listener.ticketSold(ticket);
+            }
+            metrics.record(Operation.SELL_TICKET, start);
+            return SellResult.sold(ticket);
+        } finally {
+            bookingsInProgress.remove(bookingKey);
+        }
+    }
+
+    /**
+     * Sells a ticket for the whole journey, unless a sale with the same idempotency key was already made.
+     *
+     * @param idempotencyKey a key chosen by the client, unique for each intended sale
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @return the created ticket, or the ticket created by the earlier sale with the same key
+     * @throws ValidationException for any reason listed in
+     *         {@link #sellTicket(String, Passenger, Journey, ClassType, String, String)}
+     * @throws OversellException if no seats are available
+     */
+    public Ticket sellTicket(String idempotencyKey, Passenger passenger, Journey journey, ClassType classType)
+            throws ValidationException, OversellException {
+        if (journey == null) {
+            throw new ValidationException("Journey cannot be null");
+        }
+        return sellTicket(idempotencyKey, passenger, journey, classType,
+            journey.getDepartureStation(), journey.getArrivalStation());
+    }
+
+    /**
+     * Sells a ticket, unless a sale with the same idempotency key was already made.
+     *
+     * <p>A client that retries a sale, e.g. after a timeout, sends the same
+     * key again and receives the outcome of the first attempt: the same
+     * ticket, or the same exception if that sale failed. A retry that
+     * arrives while the first attempt is still running waits for it.
+     * Outcomes are remembered until they expire from the idempotency cache;
+     * a sale that should be attempted again needs a new key.
+     *
+     * @param idempotencyKey a key chosen by the client, unique for each intended sale
+     * @param passenger the passenger purchasing the ticket
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @param boardingStation the station where the passenger boards
+     * @param alightingStation the station where the passenger gets off
+     * @return the created ticket, or the ticket created by the earlier sale with the same key
+     * @throws ValidationException if the key is empty or was used for a sale to another passenger,
+     *         journey, class or pair of stations, or for any reason listed in
+     *         {@link #sellTicket(Passenger, Journey, ClassType, String, String)}
+     * @throws OversellException if a segment of the trip has no available seats
+     */
+    public Ticket sellTicket(String idempotencyKey, Passenger passenger, Journey journey, ClassType classType,
+                             String boardingStation, String alightingStation)
+            throws ValidationException, OversellException {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new ValidationException("Idempotency key cannot be empty");
+        }
         if (passenger == null) {
-            throw new ValidationException("Passenger cannot be null");
+            throw new ValidationException(SaleRejection.PASSENGER_MISSING.getMessage());
         }
+        if (journey == null) {
+            throw new ValidationException(SaleRejection.JOURNEY_MISSING.getMessage());
+        }
+        IdempotentSale sale = new IdempotentSale(
+            new SaleRequest(passenger, journey, classType, boardingStation, alightingStation));
+        IdempotentSale earlierSale = idempotencyCache.putIfAbsent(idempotencyKey, sale);
+        if (earlierSale != null) {
+            if (!isSameSale(earlierSale.getRequest(), sale.getRequest())) {
+                throw new ValidationException("Idempotency key was already used for another sale: " + idempotencyKey);
+            }
+            return awaitSale(earlierSale.getOutcome());
+        }
+
+        try {
+            Ticket ticket = sellTicket(passenger, journey, classType, boardingStation, alightingStation);
+            sale.getOutcome().complete(ticket);
+            return ticket;
+        } catch (ValidationException | OversellException | RuntimeException e) {
+            sale.getOutcome().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Holds a seat over the whole journey for the default hold duration.
+     *
+     * @param passenger the passenger to hold the seat for
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @return the hold
+     * @throws ValidationException for any reason listed in {@link #sellTicket(Passenger, Journey, ClassType)}
+     * @throws OversellException if no seats are available
+     */
+    public SeatHold holdSeat(Passenger passenger, Journey journey, ClassType classType)
+            throws ValidationException, OversellException {
         if (journey == null) {
             throw new ValidationException("Journey cannot be null");
         }
-        if (classType == null) {
-            throw new ValidationException("Class type cannot be null");
+        return holdSeat(passenger, journey, classType, journey.getDepartureStation(), journey.getArrivalStation(),
+            DEFAULT_HOLD_DURATION);
+    }
+
+    /**
+     * Holds a seat for a passenger, e.g. while the passenger pays.
+     *
+     * <p>The seat counts as taken until the hold is confirmed, released or
+     * lapses. A hold that is not confirmed within the hold duration lapses
+     * automatically and its seat becomes available again. A passenger can
+     * have only one active hold per journey.
+     *
+     * @param passenger the passenger to hold the seat for
+     * @param journey the journey to travel on
+     * @param classType the class type (FIRST or SECOND)
+     * @param boardingStation the station where the passenger boards
+     * @param alightingStation the station where the passenger gets off
+     * @param holdDuration how long the seat is held
+     * @return the hold
+     * @throws ValidationException if the passenger already holds a seat for the journey, or for any
+     *         reason listed in {@link #sellTicket(Passenger, Journey, ClassType, String, String)}
+     * @throws OversellException if a segment of the trip has no available seats
+     * @throws IllegalStateException if the service's timer wheel has been closed
+     */
+    public SeatHold holdSeat(Passenger passenger, Journey journey, ClassType classType,
+                             String boardingStation, String alightingStation, Duration holdDuration)
+            throws ValidationException, OversellException {
+        long start = metrics.startSampled();
+        SaleRejection rejection = checkSale(passenger, journey, classType);
+        if (rejection != null) {
+            throwRejection(rejection, journey, classType, boardingStation, alightingStation);
         }
-        if (journey.getTrain() == null) {
-            throw new ValidationException("Journey must have an assigned train before selling tickets");
+        int fromStop = journey.indexOfStop(boardingStation);
+        int toStop = journey.indexOfStop(alightingStation);
+        if (!isTrip(fromStop, toStop)) {
+            throwRejection(SaleRejection.INVALID_STOPS, journey, classType, boardingStation, alightingStation);
+        }
+        if (holdDuration == null || holdDuration.isNegative() || holdDuration.isZero()) {
+            throw new ValidationException("Hold duration must be positive");
         }
 
-        int availableSeats = journey.getAvailableSeats(classType);
-        long soldTickets = ticketRepository.countByJourneyAndClass(journey.getId(), classType);
+        BookingKey bookingKey = new BookingKey(passenger, journey);
+        if (!heldBookings.add(bookingKey)) {
+            throwRejection(SaleRejection.ALREADY_HELD, journey, classType, boardingStation, alightingStation);
+        }
 
-        if (soldTickets >= availableSeats) {
-            throw new OversellException(
-                "No available seats in " + classType + " class for this journey. " +
-                "Capacity: " + availableSeats + ", Already sold: " + soldTickets
-            );
+        SeatHold hold = new SeatHold(idGenerator.nextId(), passenger, journey, classType, fromStop, toStop,
+            Instant.now().plus(holdDuration));
+        if (!seatAvailabilityCache.tryHold(hold)) {
+            heldBookings.remove(bookingKey);
+            metrics.record(Operation.OVERSELL_REJECTED, start);
+            throwRejection(SaleRejection.SOLD_OUT, journey, classType, boardingStation, alightingStation);
+        }
+
+        PendingHold pending = new PendingHold(hold, bookingKey);
+        holds.put(hold.getId(), pending);
+        try {
+            pending.timeout = holdTimer.schedule(holdDuration, () -> expireHold(hold));
+        } catch (IllegalStateException e) {
+            // The timer wheel was closed: without a timeout the hold would never lapse.
+            holds.remove(hold.getId(), pending);
+            heldBookings.remove(bookingKey);
+            seatAvailabilityCache.releaseHold(hold);
+            throw e;
+        }
+        metrics.record(Operation.HOLD_SEAT, start);
+        return hold;
+    }
+
+    /**
+     * Turns a hold into a ticket for the held seat.
+     *
+     * @param holdId the ID of the hold
+     * @return the created ticket
+     * @throws ValidationException if the hold does not exist, has lapsed or was released,
+     *         or the passenger already holds a ticket for the journey
+     */
+    public Ticket confirmHold(UUID holdId) throws ValidationException {
+        long start = metrics.startSampled();
+        PendingHold pending = holds.remove(holdId);
+        if (pending == null) {
+            throw new ValidationException("Seat hold not found or expired: " + holdId);
+        }
+        pending.cancelTimeout();
+        heldBookings.remove(pending.bookingKey);
+        SeatHold hold = pending.hold;
+        BookingKey bookingKey = pending.bookingKey;
+        if (!claimBooking(bookingKey, hold.getPassenger(), hold.getJourney())) {
+            seatAvailabilityCache.releaseHold(hold);
+            throw new ValidationException("Passenger already holds a ticket for this journey");
+        }
+
+        Ticket ticket = new Ticket(idGenerator.nextId(), hold.getPassenger(), hold.getJourney(),
+            hold.getClassType(), hold.getFromStop(), hold.getToStop());
+        try {
+            ticketRepository.save(ticket);
+        } finally {
+            bookingsInProgress.remove(bookingKey);
+        }
+        seatAvailabilityCache.confirmHold(hold);
+
+        for (TicketListener listener : listeners) {
+            listener.ticketSold(ticket);
         }
+        metrics.record(Operation.CONFIRM_HOLD, start);
+        return ticket;
+    }
+
+    /**
+     * Releases a hold before it lapses, so its seat becomes available again.
+     *
+     * @param holdId the ID of the hold
+     * @return true if the hold was released, false if it did not exist or had already lapsed
+     */
+    public boolean releaseHold(UUID holdId) {
+        PendingHold pending = holds.remove(holdId);
+        if (pending == null) {
+            return false;
+        }
+        pending.cancelTimeout();
+        heldBookings.remove(pending.bookingKey);
+        seatAvailabilityCache.releaseHold(pending.hold);
+        return true;
+    }
+
+    /**
+     * Returns the number of holds that are neither confirmed, released nor lapsed.
+     *
+     * @return the number of active holds
+     */
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    /**
+     * Cancels a ticket and returns its seat to the journey.
+     *
+     * @param ticketId the ID of the ticket to cancel
+     * @return the cancelled ticket
+     * @throws ValidationException if the ticket does not exist
+     */
+    public Ticket cancelTicket(UUID ticketId) throws ValidationException {
+        long start = metrics.startSampled();
+        Ticket ticket = ticketRepository.delete(ticketId)
+            .orElseThrow(() -> new ValidationException("Ticket not found: " + ticketId));
 
-        Ticket ticket = new Ticket(passenger, journey, classType);
-        ticketRepository.save(ticket);
+        seatAvailabilityCache.release(ticket.getJourney(), ticket.getClassType(),
+            ticket.getFromStop(), ticket.getToStop());
 
+        for (TicketListener listener : listeners) {
+            listener.ticketCancelled(ticket);
+        }
+        metrics.record(Operation.CANCEL_TICKET, start);
         return ticket;
     }
 
+    /**
+     * Registers a listener that is notified of every ticket sale and cancellation.
+     *
+     * @param listener the listener to register
+     */
+    public void addTicketListener(TicketListener listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
+    }
+
     /**
      * Finds all tickets for a specific journey.
      *
@@ -84,6 +503,85 @@ public class TicketService {
         return ticketRepository.findByJourney(journey.getId());
     }
 
+    /**
+     * Checks whether a passenger already holds a ticket for a journey.
+     *
+     * @param passenger the passenger to check
+     * @param journey the journey to check
+     * @return true if the passenger has booked the journey, false otherwise
+     */
+    public boolean hasBooking(Passenger passenger, Journey journey) {
+        if (passenger == null || journey == null) {
+            return false;
+        }
+        return ticketRepository.existsByPassengerAndJourney(passenger.getRijksregisternummer(), journey.getId());
+    }
+
+    /**
+     * Returns the tickets of a passenger for journeys that have not departed yet.
+     *
+     * @param passenger the passenger to look up
+     * @return the upcoming trips, earliest departure first
+     */
+    public List<Ticket> getUpcomingTrips(Passenger passenger) {
+        LocalDateTime now = LocalDateTime.now();
+        return getTicketsByPassenger(passenger).stream()
+            .filter(t -> t.getJourney().getDepartureTime().isAfter(now))
+            .sorted(Comparator.comparing(t -> t.getJourney().getDepartureTime()))
+            .toList();
+    }
+
+    /**
+     * Returns the tickets of a passenger for journeys departing within a time range.
+     *
+     * @param passenger the passenger to look up
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @return the trips in the range, earliest departure first
+     */
+    public List<Ticket> getTravelHistory(Passenger passenger, LocalDateTime from, LocalDateTime to) {
+        return getTicketsByPassenger(passenger).stream()
+            .filter(t -> !t.getJourney().getDepartureTime().isBefore(from))
+            .filter(t -> t.getJourney().getDepartureTime().isBefore(to))
+            .sorted(Comparator.comparing(t -> t.getJourney().getDepartureTime()))
+            .toList();
+    }
+
+    /**
+     * Finds all tickets held by a passenger.
+     *
+     * @param passenger the passenger to look up
+     * @return the passenger's tickets
+     */
+    public List<Ticket> getTicketsByPassenger(Passenger passenger) {
+        if (passenger == null) {
+            return List.of();
+        }
+        return ticketRepository.findByPassenger(passenger.getRijksregisternummer());
+    }
+
+    /**
+     * Finds all tickets issued within a time range.
+     *
+     * @param from the start of the range (inclusive)
+     * @param to the end of the range (exclusive)
+     * @return the tickets issued in the range, oldest first
+     */
+    public List<Ticket> getTicketsIssuedBetween(Instant from, Instant to) {
+        return ticketRepository.findIssuedBetween(from, to);
+    }
+
+    /**
+     * Returns a page of tickets, in the order they were issued.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of tickets on the page
+     * @return the page of tickets
+     */
+    public Page<Ticket> getTickets(String cursor, int size) {
+        return ticketRepository.findPage(cursor, size);
+    }
+
     /**
      * Returns all tickets in the system.
      *
@@ -93,6 +591,57 @@ public class TicketService {
         return ticketRepository.findAll();
     }
 
+    /**
+     * Allows a number of tickets to be sold above the seat capacity of one journey and class type.
+     *
+     * <p>This replaces the allowance computed from the no-show statistics of the route.
+     *
+     * @param journey the journey to overbook
+     * @param classType the class type to overbook
+     * @param allowance the number of extra tickets, 0 to disable overbooking
+     * @throws ValidationException if the journey or class type is null or the allowance is negative
+     */
+    public void setOverbookingAllowance(Journey journey, ClassType classType, int allowance)
+            throws ValidationException {
+        if (journey == null || classType == null) {
+            throw new ValidationException("Journey and class type cannot be null");
+        }
+        if (allowance < 0) {
+            throw new ValidationException("Overbooking allowance cannot be negative");
+        }
+        seatAvailabilityCache.setOverbookingAllowance(journey, classType, allowance);
+    }
+
+    /**
+     * Records how many passengers of a departed journey did not board.
+     *
+     * <p>The no-show statistics of the route are updated and the overbooking
+     * allowance of upcoming journeys on that route follows.
+     *
+     * @param journey the departed journey
+     * @param classType the class type
+     * @param booked the number of tickets sold for the class type
+     * @param noShows the number of those passengers that did not board
+     */
+    public void recordNoShows(Journey journey, ClassType classType, int booked, int noShows) {
+        seatAvailabilityCache.recordNoShows(journey, classType, booked, noShows);
+    }
+
+    /**
+     * Releases the booking state kept for a journey that has departed.
+     *
+     * <p>Registered listeners are notified, so they can release their own
+     * state for the journey.
+     *
+     * @param journey the departed journey
+     */
+    public void journeyDeparted(Journey journey) {
+        seatAvailabilityCache.evict(journey);
+        for (TicketListener listener : listeners) {
+            listener.journeyDeparted(journey);
+        }
+    }
+
     /**
      * Gets the number of available seats for a journey and class type.
      *
@@ -101,11 +650,200 @@ public class TicketService {
      * @return the number of available seats
      */
     public long getAvailableSeats(Journey journey, ClassType classType) {
-        if (journey == null || journey.getTrain() == null) {
+        if (journey == null || classType == null) {
             return 0;
         }
-        int totalSeats = journey.getAvailableSeats(classType);
-        long soldTickets = ticketRepository.countByJourneyAndClass(journey.getId(), classType);
-        return Math.max(0, totalSeats - soldTickets);
+        return seatAvailabilityCache.getAvailableSeats(journey, classType);
+    }
+
+    /**
+     * Gets the number of available seats between two stations of a journey.
+     *
+     * @param journey the journey to check
+     * @param classType the class type to check
+     * @param boardingStation the station where the passenger would board
+     * @param alightingStation the station where the passenger would get off
+     * @return the number of seats free on every segment in between, 0 if the stations are invalid
+     */
+    public long getAvailableSeats(Journey journey, ClassType classType,
+                                  String boardingStation, String alightingStation) {
+        if (journey == null || classType == null) {
+            return 0;
+        }
+        int fromStop = journey.indexOfStop(boardingStation);
+        int toStop = journey.indexOfStop(alightingStation);
+        if (fromStop < 0 || toStop < 0 || fromStop >= toStop) {
+            return 0;
+        }
+        return seatAvailabilityCache.getAvailableSeats(journey, classType, fromStop, toStop);
+    }
+
+    /**
+     * Gets the number of available seats per class type for many journeys at once.
+     *
+     * <p>Journeys without an assigned train are not included in the result.
+     *
+     * @param journeys the journeys to check
+     * @return the available seats per class type, keyed by journey ID
+     */
+    public Map<UUID, Map<ClassType, Integer>> getAvailability(Collection<Journey> journeys) {
+        return seatAvailabilityCache.getAvailability(journeys);
+    }
+
+    /**
+     * Stops the timer wheel of the holds, if this service created it.
+     *
+     * <p>Holds that are still active no longer lapse afterwards.
+     */
+    @Override
+    public void close() {
+        if (ownsHoldTimer) {
+            holdTimer.close();
+        }
+    }
+
+    private SaleRejection checkSale(Passenger passenger, Journey journey, ClassType classType) {
+        if (passenger == null) {
+            return SaleRejection.PASSENGER_MISSING;
+        }
+        if (journey == null) {
+            return SaleRejection.JOURNEY_MISSING;
+        }
+        if (classType == null) {
+            return SaleRejection.CLASS_TYPE_MISSING;
+        }
+        if (journey.getTrain() == null) {
+            return SaleRejection.NO_TRAIN;
+        }
+        if (journey.getDepartureTime().isBefore(LocalDateTime.now())) {
+            return SaleRejection.DEPARTED;
+        }
+        if (hasBooking(passenger, journey)) {
+            return SaleRejection.ALREADY_BOOKED;
+        }
+        return null;
+    }
+
+    /**
+     * Claims the booking of a journey by a passenger, unless it is booked already or being booked.
+     *
+     * <p>A successful claim must be released by removing the key from
+     * {@link #bookingsInProgress} once the ticket is saved or the sale fails.
+     */
+    private boolean claimBooking(BookingKey bookingKey, Passenger passenger, Journey journey) {
+        if (!bookingsInProgress.add(bookingKey)) {
+            return false;
+        }
+        if (hasBooking(passenger, journey)) {
+            bookingsInProgress.remove(bookingKey);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isSameSale(SaleRequest earlier, SaleRequest retry) {
+        String passengerNumber = earlier.getPassenger().getRijksregisternummer();
+        return Objects.equals(passengerNumber, retry.getPassenger().getRijksregisternummer())
+            && earlier.getJourney().getId().equals(retry.getJourney().getId())
+            && earlier.getClassType() == retry.getClassType()
+            && Objects.equals(earlier.getBoardingStation(), retry.getBoardingStation())
+            && Objects.equals(earlier.getAlightingStation(), retry.getAlightingStation());
+    }
+
+    private static boolean isTrip(int fromStop, int toStop) {
+        return fromStop >= 0 && toStop >= 0 && fromStop < toStop;
+    }
+
+    private void throwRejection(SaleRejection rejection, Journey journey, ClassType classType,
+                                String boardingStation, String alightingStation)
+            throws ValidationException, OversellException {
+        switch (rejection) {
+            case SOLD_OUT -> {
+                int capacity = journey.getAvailableSeats(classType);
+                long soldTickets = ticketRepository.countByJourneyAndClass(journey.getId(), classType);
+                throw new OversellException(
+                    "No available seats in " + classType + " class for this journey. " +
+                    "Capacity: " + capacity + ", Already sold: " + soldTickets
+                );
+            }
+            case INVALID_STOPS -> throw new ValidationException(
+                "Journey does not travel from " + boardingStation + " to " + alightingStation
+            );
+            default -> throw new ValidationException(rejection.getMessage());
+        }
+    }
+
+    private void expireHold(SeatHold hold) {
+        long start = metrics.startSampled();
+        PendingHold pending = holds.get(hold.getId());
+        if (pending != null && pending.hold == hold && holds.remove(hold.getId(), pending)) {
+            heldBookings.remove(pending.bookingKey);
+            seatAvailabilityCache.releaseHold(hold);
+            metrics.record(Operation.EXPIRE_HOLD, start);
+        }
+    }
+
+    static Ticket awaitSale(CompletableFuture<Ticket> sale) throws ValidationException, OversellException {
+        try {
+            return sale.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ValidationException validationException) {
+                throw validationException;
+            }
+            if (e.getCause() instanceof OversellException oversellException) {
+                throw oversellException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * An active hold and the timer that lets it lapse.
+     */
+    private static class PendingHold {
+        private final SeatHold hold;
+        private final BookingKey bookingKey;
+        private volatile TimerWheel.Timeout timeout;
+
+        PendingHold(SeatHold hold, BookingKey bookingKey) {
+            this.hold = hold;
+            this.bookingKey = bookingKey;
+        }
+
+        void cancelTimeout() {
+            TimerWheel.Timeout scheduled = timeout;
+            if (scheduled != null) {
+                scheduled.cancel();
+            }
+        }
+    }
+
+    /**
+     * The passenger and journey of a booking that is being made.
+     */
+    private static class BookingKey {
+        private final String rijksregisternummer;
+        private final UUID journeyId;
+
+        BookingKey(Passenger passenger, Journey journey) {
+            this.rijksregisternummer = passenger.getRijksregisternummer();
+            this.journeyId = journey.getId();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            BookingKey other = (BookingKey) o;
+            return rijksregisternummer.equals(other.rijksregisternummer) && journeyId.equals(other.journeyId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * rijksregisternummer.hashCode() + journeyId.hashCode();
+        }
     }
 }
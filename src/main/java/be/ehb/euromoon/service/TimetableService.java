@@ -0,0 +1,214 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.metrics.Operation;
+import be.ehb.euromoon.metrics.ServiceMetrics;
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.timetable.TimetablePattern;
+import be.ehb.euromoon.repository.JourneyRepository;
+import be.ehb.euromoon.repository.Page;
+import be.ehb.euromoon.repository.TimetableRepository;
+import be.ehb.euromoon.util.IdGenerator;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for managing the recurring timetable.
+ *
+ * <p>Timetable patterns describe departures that repeat on selected days of
+ * the week. Their journeys are not created up front: they are materialised
+ * in the journey repository only when a window of dates is requested, and
+ * each departure always gets the same journey ID, so requesting a window
+ * again returns the journeys created before instead of duplicates.
+ *
+ * <p>Materialised journeys are also kept per pattern and date, so returning
+ * a window that was requested before costs one hash lookup per departure
+ * rather than a search of the whole journey repository.
+ */
+public class TimetableService {
+    private final TimetableRepository timetableRepository;
+    private final JourneyRepository journeyRepository;
+    private final IdGenerator idGenerator;
+    private final ServiceMetrics metrics;
+    private final Map<UUID, Map<LocalDate, Journey>> materialisedJourneys = new ConcurrentHashMap<>();
+
+    public TimetableService(TimetableRepository timetableRepository, JourneyRepository journeyRepository) {
+        this(timetableRepository, journeyRepository, IdGenerator.timeOrdered());
+    }
+
+    public TimetableService(TimetableRepository timetableRepository, JourneyRepository journeyRepository,
+                            IdGenerator idGenerator) {
+        this(timetableRepository, journeyRepository, idGenerator, ServiceMetrics.disabled());
+    }
+
+    public TimetableService(TimetableRepository timetableRepository, JourneyRepository journeyRepository,
+                            IdGenerator idGenerator, ServiceMetrics metrics) {
+        this.timetableRepository = timetableRepository;
+        this.journeyRepository = journeyRepository;
+        this.idGenerator = idGenerator;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates a new timetable pattern.
+     *
+     * @param stops the station names of all stops, at least two and all distinct
+     * @param departureTime the departure time from the first stop
+     * @param daysOfWeek the days of the week on which the pattern runs
+     * @param validFrom the first date on which the pattern runs
+     * @param validUntil the last date on which the pattern runs
+     * @return the created pattern
+     * @throws ValidationException if validation fails
+     */
+    public TimetablePattern createPattern(List<String> stops, LocalTime departureTime, Set<DayOfWeek> daysOfWeek,
+                                          LocalDate validFrom, LocalDate validUntil) throws ValidationException {
+        long start = metrics.start();
+        if (stops == null || stops.size() < 2) {
+            throw new ValidationException("A journey needs at least a departure and an arrival station");
+        }
+        for (String stop : stops) {
+            if (stop == null || stop.trim().isEmpty()) {
+                throw new ValidationException("Station names cannot be empty");
+            }
+        }
+        if (new HashSet<>(stops).size() != stops.size()) {
+            throw new ValidationException("A journey cannot call at the same station twice");
+        }
+        if (departureTime == null) {
+            throw new ValidationException("Departure time cannot be null");
+        }
+        if (daysOfWeek == null || daysOfWeek.isEmpty()) {
+            throw new ValidationException("A timetable pattern must run on at least one day of the week");
+        }
+        if (validFrom == null || validUntil == null) {
+            throw new ValidationException("Validity period cannot be null");
+        }
+        if (validUntil.isBefore(validFrom)) {
+            throw new ValidationException("Validity period cannot end before it starts");
+        }
+
+        TimetablePattern pattern = new TimetablePattern(idGenerator.nextId(), stops, departureTime, daysOfWeek,
+            validFrom, validUntil);
+        timetableRepository.save(pattern);
+
+        metrics.record(Operation.CREATE_TIMETABLE, start);
+        return pattern;
+    }
+
+    /**
+     * Excludes a date from a timetable pattern.
+     *
+     * <p>A journey that was already materialised for the date is kept, as
+     * tickets may have been sold for it.
+     *
+     * @param patternId the pattern ID
+     * @param date the date on which the pattern does not run
+     * @throws ValidationException if the pattern is not found or the date is null
+     */
+    public void addException(UUID patternId, LocalDate date) throws ValidationException {
+        if (date == null) {
+            throw new ValidationException("Date cannot be null");
+        }
+        findPattern(patternId).addException(date);
+    }
+
+    /**
+     * Returns the journeys of all timetable patterns departing in a window of dates.
+     *
+     * <p>Journeys that do not exist yet are created and saved in the journey
+     * repository. Journeys that were materialised before are returned as they
+     * are, including their assigned train and personnel. Departures that have
+     * already left are skipped, so they are never created to be sold.
+     *
+     * @param from the first date of the window
+     * @param until the last date of the window
+     * @return the journeys in the window, ordered by departure time
+     * @throws ValidationException if the window is invalid
+     */
+    public List<Journey> materialise(LocalDate from, LocalDate until) throws ValidationException {
+        long start = metrics.start();
+        if (from == null || until == null) {
+            throw new ValidationException("Window cannot be null");
+        }
+        if (until.isBefore(from)) {
+            throw new ValidationException("Window cannot end before it starts");
+        }
+
+        List<TimetablePattern> patterns = timetableRepository.stream()
+            .filter(pattern -> !pattern.getValidFrom().isAfter(until) && !pattern.getValidUntil().isBefore(from))
+            .sorted(Comparator.comparing(TimetablePattern::getDepartureTime))
+            .toList();
+        List<Map<LocalDate, Journey>> journeysByPattern = new ArrayList<>(patterns.size());
+        for (TimetablePattern pattern : patterns) {
+            journeysByPattern.add(materialisedJourneys.computeIfAbsent(pattern.getId(),
+                id -> new ConcurrentHashMap<>()));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Journey> journeys = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(until); date = date.plusDays(1)) {
+            for (int i = 0; i < patterns.size(); i++) {
+                TimetablePattern pattern = patterns.get(i);
+                if (pattern.runsOn(date) && !pattern.getDepartureOn(date).isBefore(now)) {
+                    journeys.add(materialise(pattern, journeysByPattern.get(i), date));
+                }
+            }
+        }
+
+        metrics.record(Operation.MATERIALISE_TIMETABLE, start);
+        return journeys;
+    }
+
+    /**
+     * Finds a journey by its ID, materialising it if it belongs to a timetable pattern.
+     *
+     * @param journeyId the journey ID to search for
+     * @return an Optional containing the journey if found, empty otherwise
+     */
+    public Optional<Journey> findJourney(UUID journeyId) {
+        Optional<Journey> journey = journeyRepository.findById(journeyId);
+        if (journey.isPresent()) {
+            return journey;
+        }
+        return timetableRepository.findByJourneyId(journeyId)
+            .flatMap(pattern -> pattern.getDepartureDateOf(journeyId).map(date -> materialise(pattern,
+                materialisedJourneys.computeIfAbsent(pattern.getId(), id -> new ConcurrentHashMap<>()), date)));
+    }
+
+    /**
+     * Finds a timetable pattern by its ID.
+     *
+     * @param patternId the pattern ID to search for
+     * @return the pattern if found
+     * @throws ValidationException if pattern not found
+     */
+    public TimetablePattern findPattern(UUID patternId) throws ValidationException {
+        return timetableRepository.findById(patternId)
+            .orElseThrow(() -> new ValidationException("Timetable pattern not found: " + patternId));
+    }
+
+    /**
+     * Returns a page of timetable patterns, in the order they were created.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of patterns on the page
+     * @return the page of patterns
+     */
+    public Page<TimetablePattern> getPatterns(String cursor, int size) {
+        return timetableRepository.findPage(cursor, size);
+    }
+
+    private Journey materialise(TimetablePattern pattern, Map<LocalDate, Journey> journeysByDate, LocalDate date) {
+        Journey journey = journeysByDate.get(date);
+        if (journey != null) {
+            return journey;
+        }
+        return journeysByDate.computeIfAbsent(date, d -> journeyRepository.saveIfAbsent(
+            new Journey(pattern.getJourneyIdOn(d), pattern.getStops(), pattern.getDepartureOn(d))));
+    }
+}
@@ -0,0 +1,19 @@
+package be.ehb.euromoon.service;
+
+import be.ehb.euromoon.model.train.Train;
+
+/**
+ * Listener that is notified by {@link TrainService} when the composition of a train changes.
+ *
+ * <p>Listeners are called synchronously on the thread that changed the
+ * train, so implementations should return quickly.
+ */
+public interface TrainListener {
+
+    /**
+     * Called after a wagon has been added to a train.
+     *
+     * @param train the changed train
+     */
+    void compositionChanged(Train train);
+}
@@ -2,11 +2,15 @@ package be.ehb.euromoon.service;
 
 import be.ehb.euromoon.exception.InvalidTrainException;
 import be.ehb.euromoon.exception.ValidationException;
+import be.ehb.euromoon.metrics.Operation;
+import be.ehb.euromoon.metrics.ServiceMetrics;
 import be.ehb.euromoon.model.ticket.ClassType;
 import be.ehb.euromoon.model.train.*;
+import be.ehb.euromoon.repository.Page;
 import be.ehb.euromoon.repository.TrainRepository;
 
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Service for managing train operations.
@@ -17,9 +21,22 @@ import java.util.List;
  */
 public class TrainService {
     private final TrainRepository trainRepository;
+    private final ServiceMetrics metrics;
+    private final FleetRegistry fleetRegistry;
+    private final List<TrainListener> listeners = new CopyOnWriteArrayList<>();
 
     public TrainService(TrainRepository trainRepository) {
+        this(trainRepository, ServiceMetrics.disabled());
+    }
+
+    public TrainService(TrainRepository trainRepository, ServiceMetrics metrics) {
+        this(trainRepository, metrics, new FleetRegistry());
+    }
+
+    public TrainService(TrainRepository trainRepository, ServiceMetrics metrics, FleetRegistry fleetRegistry) {
         this.trainRepository = trainRepository;
+        this.metrics = metrics;
+        this.fleetRegistry = fleetRegistry;
     }
 
     /**
@@ -31,6 +48,7 @@ public class TrainService {
      * @throws ValidationException if validation fails
      */
     public Train createTrain(String trainId, LocomotiveType locomotiveType) throws ValidationException {
+        long start = metrics.start();
         if (trainId == null || trainId.trim().isEmpty()) {
             throw new ValidationException("Train ID cannot be empty");
         }
@@ -44,13 +62,46 @@ public class TrainService {
         Locomotive locomotive = new Locomotive(locomotiveType);
         Train train = new Train(trainId, locomotive);
         trainRepository.save(train);
+        fleetRegistry.register(train);
+
+        metrics.record(Operation.CREATE_TRAIN, start);
+        return train;
+    }
+
+    /**
+     * Creates a new train with the locomotive type and wagons of a composition template.
+     *
+     * @param trainId the unique identifier for the train
+     * @param template the composition to build the train from
+     * @return the created train
+     * @throws ValidationException if validation fails
+     */
+    public Train createTrainFromTemplate(String trainId, CompositionTemplate template) throws ValidationException {
+        long start = metrics.start();
+        if (trainId == null || trainId.trim().isEmpty()) {
+            throw new ValidationException("Train ID cannot be empty");
+        }
+        if (template == null) {
+            throw new ValidationException("Composition template cannot be null");
+        }
+        if (trainRepository.exists(trainId)) {
+            throw new ValidationException("A train with ID " + trainId + " already exists");
+        }
+
+        Train train = template.instantiate(trainId);
+        trainRepository.save(train);
+        fleetRegistry.register(train);
 
+        metrics.record(Operation.CREATE_TRAIN, start);
         return train;
     }
 
     /**
      * Adds a wagon to an existing train.
      *
+     * <p>Listeners are notified afterwards, so journeys that already use the
+     * train can offer the seats of the new wagon.
+     *
      * @param trainId the ID of the train
      * @param wagonNumber the wagon number
      * @param classType the class type of the wagon
@@ -70,6 +121,21 @@ public class TrainService {
         Wagon wagon = new Wagon(wagonNumber, classType, seats);
         train.addWagon(wagon);
         trainRepository.save(train);
+        fleetRegistry.register(train);
+        for (TrainListener listener : listeners) {
+            listener.compositionChanged(train);
+        }
+    }
+
+    /**
+     * Registers a listener that is notified of every change to the composition of a train.
+     *
+     * @param listener the listener to register
+     */
+    public void addTrainListener(TrainListener listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
     }
 
     /**
@@ -84,6 +150,17 @@ public class TrainService {
             .orElseThrow(() -> new ValidationException("Train not found: " + trainId));
     }
 
+    /**
+     * Returns a page of trains, ordered by train ID.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size the maximum number of trains on the page
+     * @return the page of trains
+     */
+    public Page<Train> getTrains(String cursor, int size) {
+        return trainRepository.findPage(cursor, size);
+    }
+
     /**
      * Returns all trains in the system.
      *
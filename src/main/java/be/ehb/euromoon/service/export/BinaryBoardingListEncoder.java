@@ -0,0 +1,87 @@
+package be.ehb.euromoon.service.export;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Encodes a boarding list in a compact length-prefixed binary format.
+ *
+ * <p>Layout (big-endian):
+ * <pre>
+ * header    : magic "EMBL" (4 bytes), version (1 byte)
+ * journey   : departure station, arrival station (strings),
+ *             departure time (8 bytes, epoch seconds UTC), train ID (string, empty if none),
+ *             stop count (2 bytes) followed by the stop names (strings)
+ * passengers: count (4 bytes), then per passenger
+ *             ticket ID (16 bytes), class ordinal (1 byte),
+ *             name, lastname, rijksregisternummer (strings),
+ *             birth date (4 bytes, epoch day, {@code 0x80000000} if unknown),
+ *             boarding and alighting stop index (2 bytes each)
+ * personnel : count (4 bytes), then per member
+ *             role, name, lastname, rijksregisternummer (strings)
+ * </pre>
+ * Strings are written as a 2-byte length followed by modified UTF-8 bytes.
+ */
+public class BinaryBoardingListEncoder implements BoardingListEncoder {
+    private static final byte[] MAGIC = {'E', 'M', 'B', 'L'};
+    private static final int VERSION = 3;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    @Override
+    public String getFileExtension() {
+        return "bin";
+    }
+
+    @Override
+    public void encode(Journey journey, List<Ticket> tickets, OutputStream out) throws IOException {
+        if (journey.getStops().size() > 0xFFFF) {
+            throw new IOException("A journey with " + journey.getStops().size() + " stops cannot be encoded");
+        }
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+
+        data.writeUTF(journey.getDepartureStation());
+        data.writeUTF(journey.getArrivalStation());
+        data.writeLong(journey.getDepartureTime().toEpochSecond(ZoneOffset.UTC));
+        data.writeUTF(journey.getTrain() != null ? journey.getTrain().getTrainId() : "");
+        data.writeShort(journey.getStops().size());
+        for (String stop : journey.getStops()) {
+            data.writeUTF(stop);
+        }
+
+        data.writeInt(tickets.size());
+        for (Ticket ticket : tickets) {
+            Passenger passenger = ticket.getPassenger();
+            data.writeLong(ticket.getId().getMostSignificantBits());
+            data.writeLong(ticket.getId().getLeastSignificantBits());
+            data.writeByte(ticket.getClassType().ordinal());
+            data.writeUTF(passenger.getName());
+            data.writeUTF(passenger.getLastname());
+            data.writeUTF(passenger.getRijksregisternummer());
+            data.writeInt(passenger.getGeboortedatum() == null ? NO_DATE
+                : (int) passenger.getGeboortedatum().toEpochDay());
+            data.writeShort(ticket.getFromStop());
+            data.writeShort(ticket.getToStop());
+        }
+
+        List<Personnel> personnel = journey.getAssignedPersonnel();
+        data.writeInt(personnel.size());
+        for (Personnel person : personnel) {
+            data.writeUTF(person.getClass().getSimpleName());
+            data.writeUTF(person.getName());
+            data.writeUTF(person.getLastname());
+            data.writeUTF(person.getRijksregisternummer());
+        }
+        data.flush();
+    }
+}
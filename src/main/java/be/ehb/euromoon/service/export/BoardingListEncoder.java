@@ -0,0 +1,37 @@
+package be.ehb.euromoon.service.export;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Encodes the boarding list of a journey into a specific file format.
+ *
+ * <p>Encoders write directly to the given stream, field by field, so no
+ * intermediate String is built per passenger. New formats can be added by
+ * implementing this interface.
+ */
+public interface BoardingListEncoder {
+
+    /**
+     * Returns the file extension used for this format, without the dot.
+     *
+     * @return the file extension
+     */
+    String getFileExtension();
+
+    /**
+     * Writes the boarding list of a journey to an output stream.
+     *
+     * <p>The stream is flushed but not closed.
+     *
+     * @param journey the journey the boarding list is for
+     * @param tickets the tickets sold for the journey
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    void encode(Journey journey, List<Ticket> tickets, OutputStream out) throws IOException;
+}
@@ -0,0 +1,36 @@
+package be.ehb.euromoon.service.export;
+
+/**
+ * The boarding list formats supported out of the box.
+ */
+public enum BoardingListFormat {
+    /**
+     * Human-readable text, as printed at the gate.
+     */
+    TEXT(new TextBoardingListEncoder()),
+
+    /**
+     * Comma-separated values with one row per passenger or personnel member.
+     */
+    CSV(new CsvBoardingListEncoder()),
+
+    /**
+     * A single JSON document describing the journey, passengers and personnel.
+     */
+    JSON(new JsonBoardingListEncoder()),
+
+    /**
+     * Compact length-prefixed binary records for gate scanners.
+     */
+    BINARY(new BinaryBoardingListEncoder());
+
+    private final BoardingListEncoder encoder;
+
+    BoardingListFormat(BoardingListEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    public BoardingListEncoder getEncoder() {
+        return encoder;
+    }
+}
@@ -0,0 +1,98 @@
+package be.ehb.euromoon.service.export;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes a boarding list as comma-separated values.
+ *
+ * <p>Every row describes one person. Passenger rows carry their ticket ID
+ * class type and stations, personnel rows carry their role instead. Fields are
+ * quoted only when they contain a comma, quote or line break.
+ */
+public class CsvBoardingListEncoder implements BoardingListEncoder {
+    private static final String HEADER = "type,class,ticket_id,name,lastname,rijksregisternummer,birth_date,boarding_station,alighting_station";
+
+    @Override
+    public String getFileExtension() {
+        return "csv";
+    }
+
+    @Override
+    public void encode(Journey journey, List<Ticket> tickets, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write("\r\n");
+
+        for (Ticket ticket : tickets) {
+            Passenger passenger = ticket.getPassenger();
+            writer.write("PASSENGER,");
+            writer.write(ticket.getClassType().name());
+            writer.write(',');
+            EncoderSupport.writeUuid(writer, ticket.getId());
+            writer.write(',');
+            writeField(writer, passenger.getName());
+            writer.write(',');
+            writeField(writer, passenger.getLastname());
+            writer.write(',');
+            writeField(writer, passenger.getRijksregisternummer());
+            writer.write(',');
+            EncoderSupport.writeDate(writer, passenger.getGeboortedatum());
+            writer.write(',');
+            writeField(writer, ticket.getBoardingStation());
+            writer.write(',');
+            writeField(writer, ticket.getAlightingStation());
+            writer.write("\r\n");
+        }
+
+        for (Personnel person : journey.getAssignedPersonnel()) {
+            writer.write(person.getClass().getSimpleName().toUpperCase());
+            writer.write(",,,");
+            writeField(writer, person.getName());
+            writer.write(',');
+            writeField(writer, person.getLastname());
+            writer.write(',');
+            writeField(writer, person.getRijksregisternummer());
+            writer.write(',');
+            EncoderSupport.writeDate(writer, person.getGeboortedatum());
+            writer.write(",,\r\n");
+        }
+        writer.flush();
+    }
+
+    private void writeField(Writer writer, String value) throws IOException {
+        if (!needsQuoting(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
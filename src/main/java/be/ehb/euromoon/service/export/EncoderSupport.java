@@ -0,0 +1,71 @@
+package be.ehb.euromoon.service.export;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Helpers for writing values to a Writer without converting them to Strings first.
+ */
+final class EncoderSupport {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private EncoderSupport() {
+    }
+
+    static void writeInt(Writer writer, int value) throws IOException {
+        if (value < 0) {
+            writer.write('-');
+            value = -value;
+        }
+        if (value >= 10) {
+            writeInt(writer, value / 10);
+        }
+        writer.write('0' + value % 10);
+    }
+
+    static void writePadded(Writer writer, int value, int width) throws IOException {
+        for (int limit = 10; width > 1; width--, limit *= 10) {
+            if (value < limit) {
+                writer.write('0');
+            }
+        }
+        writeInt(writer, value);
+    }
+
+    static void writeDate(Writer writer, LocalDate date) throws IOException {
+        writePadded(writer, date.getYear(), 4);
+        writer.write('-');
+        writePadded(writer, date.getMonthValue(), 2);
+        writer.write('-');
+        writePadded(writer, date.getDayOfMonth(), 2);
+    }
+
+    static void writeDateTime(Writer writer, LocalDateTime dateTime) throws IOException {
+        writeDate(writer, dateTime.toLocalDate());
+        writer.write('T');
+        writePadded(writer, dateTime.getHour(), 2);
+        writer.write(':');
+        writePadded(writer, dateTime.getMinute(), 2);
+    }
+
+    static void writeUuid(Writer writer, UUID id) throws IOException {
+        writeHex(writer, id.getMostSignificantBits() >>> 32, 8);
+        writer.write('-');
+        writeHex(writer, id.getMostSignificantBits() >>> 16, 4);
+        writer.write('-');
+        writeHex(writer, id.getMostSignificantBits(), 4);
+        writer.write('-');
+        writeHex(writer, id.getLeastSignificantBits() >>> 48, 4);
+        writer.write('-');
+        writeHex(writer, id.getLeastSignificantBits(), 12);
+    }
+
+    private static void writeHex(Writer writer, long value, int digits) throws IOException {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            writer.write(HEX_DIGITS[(int) (value >>> shift) & 0xF]);
+        }
+    }
+}
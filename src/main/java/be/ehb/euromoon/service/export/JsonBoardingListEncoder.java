@@ -0,0 +1,125 @@
+package be.ehb.euromoon.service.export;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes a boarding list as a single JSON document.
+ *
+ * <p>The document has a journey header followed by a "passengers" and a
+ * "personnel" array. Strings are escaped while they are written.
+ */
+public class JsonBoardingListEncoder implements BoardingListEncoder {
+
+    @Override
+    public String getFileExtension() {
+        return "json";
+    }
+
+    @Override
+    public void encode(Journey journey, List<Ticket> tickets, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("{\"departureStation\":");
+        writeString(writer, journey.getDepartureStation());
+        writer.write(",\"arrivalStation\":");
+        writeString(writer, journey.getArrivalStation());
+        writer.write(",\"stops\":[");
+        for (int i = 0; i < journey.getStops().size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeString(writer, journey.getStops().get(i));
+        }
+        writer.write("],\"departureTime\":\"");
+        EncoderSupport.writeDateTime(writer, journey.getDepartureTime());
+        writer.write("\",\"trainId\":");
+        if (journey.getTrain() != null) {
+            writeString(writer, journey.getTrain().getTrainId());
+        } else {
+            writer.write("null");
+        }
+
+        writer.write(",\"passengers\":[");
+        for (int i = 0; i < tickets.size(); i++) {
+            Ticket ticket = tickets.get(i);
+            Passenger passenger = ticket.getPassenger();
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write("{\"ticketId\":\"");
+            EncoderSupport.writeUuid(writer, ticket.getId());
+            writer.write("\",\"class\":\"");
+            writer.write(ticket.getClassType().name());
+            writer.write('"');
+            writePerson(writer, passenger.getName(), passenger.getLastname(),
+                passenger.getRijksregisternummer());
+            writer.write(",\"birthDate\":\"");
+            EncoderSupport.writeDate(writer, passenger.getGeboortedatum());
+            writer.write("\",\"boardingStation\":");
+            writeString(writer, ticket.getBoardingStation());
+            writer.write(",\"alightingStation\":");
+            writeString(writer, ticket.getAlightingStation());
+            writer.write('}');
+        }
+
+        writer.write("],\"personnel\":[");
+        List<Personnel> personnel = journey.getAssignedPersonnel();
+        for (int i = 0; i < personnel.size(); i++) {
+            Personnel person = personnel.get(i);
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write("{\"role\":\"");
+            writer.write(person.getClass().getSimpleName());
+            writer.write('"');
+            writePerson(writer, person.getName(), person.getLastname(), person.getRijksregisternummer());
+            writer.write('}');
+        }
+        writer.write("]}");
+        writer.flush();
+    }
+
+    private void writePerson(Writer writer, String name, String lastname, String rijksregisternummer)
+            throws IOException {
+        writer.write(",\"name\":");
+        writeString(writer, name);
+        writer.write(",\"lastname\":");
+        writeString(writer, lastname);
+        writer.write(",\"rijksregisternummer\":");
+        writeString(writer, rijksregisternummer);
+    }
+
+    private void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write("\\u00");
+                        writer.write(Character.forDigit(c >> 4, 16));
+                        writer.write(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+}
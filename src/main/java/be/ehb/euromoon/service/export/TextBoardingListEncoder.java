@@ -0,0 +1,125 @@
+package be.ehb.euromoon.service.export;
+
+import be.ehb.euromoon.model.journey.Journey;
+import be.ehb.euromoon.model.person.Passenger;
+import be.ehb.euromoon.model.person.personnel.Personnel;
+import be.ehb.euromoon.model.ticket.ClassType;
+import be.ehb.euromoon.model.ticket.Ticket;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Encodes a boarding list as human-readable text.
+ *
+ * <p>The list contains the journey information, the passengers grouped
+ * by class type and the assigned personnel. Passengers travelling only
+ * part of the journey are listed with their boarding and alighting station.
+ */
+public class TextBoardingListEncoder implements BoardingListEncoder {
+    private static final String SEPARATOR = "=".repeat(70);
+    private static final String NEWLINE = System.lineSeparator();
+
+    @Override
+    public String getFileExtension() {
+        return "txt";
+    }
+
+    @Override
+    public void encode(Journey journey, List<Ticket> tickets, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeHeader(writer, journey);
+        writePassengers(writer, tickets);
+        writePersonnel(writer, journey);
+        writer.flush();
+    }
+
+    private void writeHeader(Writer writer, Journey journey) throws IOException {
+        writeLine(writer, "EUROMOON BOARDING LIST");
+        writer.write("Journey: ");
+        writer.write(journey.getDepartureStation());
+        writer.write(" -> ");
+        writeLine(writer, journey.getArrivalStation());
+        writer.write("Departure: ");
+        writeLine(writer, journey.getDepartureTime().toString());
+        writer.write("Train: ");
+        writeLine(writer, journey.getTrain() != null ? journey.getTrain().getTrainId() : "Not assigned");
+        writeLine(writer, SEPARATOR);
+        writer.write(NEWLINE);
+    }
+
+    private void writePassengers(Writer writer, List<Ticket> tickets) throws IOException {
+        for (ClassType classType : ClassType.values()) {
+            writer.write(classType.name());
+            writeLine(writer, " CLASS:");
+
+            int number = 0;
+            for (Ticket ticket : tickets) {
+                if (ticket.getClassType() != classType) {
+                    continue;
+                }
+                Passenger passenger = ticket.getPassenger();
+                writer.write("  ");
+                EncoderSupport.writeInt(writer, ++number);
+                writer.write(". ");
+                writer.write(passenger.getName());
+                writer.write(' ');
+                writer.write(passenger.getLastname());
+                writer.write(" (RRN: ");
+                writer.write(passenger.getRijksregisternummer());
+                writer.write(", DOB: ");
+                EncoderSupport.writeDate(writer, passenger.getGeboortedatum());
+                writer.write(')');
+                if (!ticket.isFullRoute()) {
+                    writer.write(" [");
+                    writer.write(ticket.getBoardingStation());
+                    writer.write(" -> ");
+                    writer.write(ticket.getAlightingStation());
+                    writer.write(']');
+                }
+                writer.write(NEWLINE);
+            }
+
+            if (number == 0) {
+                writeLine(writer, "  No passengers");
+            }
+            writer.write(NEWLINE);
+        }
+    }
+
+    private void writePersonnel(Writer writer, Journey journey) throws IOException {
+        writeLine(writer, "ASSIGNED PERSONNEL:");
+        List<Personnel> personnel = journey.getAssignedPersonnel();
+
+        if (personnel.isEmpty()) {
+            writeLine(writer, "  No personnel assigned");
+        } else {
+            for (Personnel person : personnel) {
+                writer.write("  ");
+                writer.write(person.getClass().getSimpleName());
+                writer.write(": ");
+                writer.write(person.getName());
+                writer.write(' ');
+                writer.write(person.getLastname());
+                writer.write(" (RRN: ");
+                writer.write(person.getRijksregisternummer());
+                writeLine(writer, ")");
+            }
+        }
+        writer.write(NEWLINE);
+        writeLine(writer, SEPARATOR);
+        writer.write("Total passengers: ");
+        EncoderSupport.writeInt(writer, personnel.size());
+        writer.write(NEWLINE);
+    }
+
+    private void writeLine(Writer writer, String line) throws IOException {
+        writer.write(line);
+        writer.write(NEWLINE);
+    }
+}
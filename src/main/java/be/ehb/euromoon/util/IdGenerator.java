@@ -0,0 +1,38 @@
+package be.ehb.euromoon.util;
+
+import java.util.UUID;
+
+/**
+ * Strategy for generating unique identifiers for tickets and journeys.
+ *
+ * <p>Implementations must be safe to call from many threads at once.
+ * The default generator produces time-ordered identifiers, see
+ * {@link TimeOrderedIdGenerator}.
+ */
+public interface IdGenerator {
+
+    /**
+     * Returns a new unique identifier.
+     *
+     * @return the generated identifier
+     */
+    UUID nextId();
+
+    /**
+     * Returns the shared time-ordered generator used by default.
+     *
+     * @return the default generator
+     */
+    static IdGenerator timeOrdered() {
+        return TimeOrderedIdGenerator.INSTANCE;
+    }
+
+    /**
+     * Returns a generator producing random (version 4) UUIDs backed by SecureRandom.
+     *
+     * @return a random generator
+     */
+    static IdGenerator random() {
+        return UUID::randomUUID;
+    }
+}
@@ -1,9 +1,13 @@
 package be.ehb.euromoon.util;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Utility class for validating user inputs.
@@ -68,6 +72,51 @@ public class InputValidator {
         }
     }
 
+    /**
+     * Parses a time string in the format HH:mm.
+     *
+     * @param timeString the time string to parse
+     * @return the parsed LocalTime
+     * @throws IllegalArgumentException if the time format is invalid
+     */
+    public static LocalTime parseTime(String timeString) {
+        try {
+            return LocalTime.parse(timeString, DateTimeFormatter.ISO_LOCAL_TIME);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time format. Expected: HH:mm (e.g., 08:15)");
+        }
+    }
+
+    /**
+     * Parses a comma separated list of days of the week, e.g. MON,WED,FRI.
+     *
+     * <p>Days can be given by their full English name or its first three letters.
+     *
+     * @param daysString the days to parse
+     * @return the parsed days of the week
+     * @throws IllegalArgumentException if a day is not recognised
+     */
+    public static Set<DayOfWeek> parseDaysOfWeek(String daysString) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : daysString.split(",")) {
+            String day = part.trim().toUpperCase();
+            if (day.isEmpty()) {
+                continue;
+            }
+            DayOfWeek match = null;
+            for (DayOfWeek candidate : DayOfWeek.values()) {
+                if (day.length() >= 3 && candidate.name().startsWith(day)) {
+                    match = candidate;
+                }
+            }
+            if (match == null) {
+                throw new IllegalArgumentException("Invalid day of the week: " + part.trim() + " (e.g., MON,WED,FRI)");
+            }
+            days.add(match);
+        }
+        return days;
+    }
+
     /**
      * Validates that a number is positive.
      *
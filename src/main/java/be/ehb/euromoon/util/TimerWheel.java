@@ -0,0 +1,220 @@
+package be.ehb.euromoon.util;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel that runs tasks after a delay.
+ *
+ * <p>Time is divided into ticks, and the wheel is a ring of buckets with
+ * one bucket per tick. A task due at tick t is put in bucket t modulo the
+ * number of buckets. A single thread advances the wheel one tick at a time
+ * and only visits the bucket of the current tick, where it runs the tasks
+ * that are due and leaves those that are due in a later round of the
+ * wheel. Scheduling and cancelling a task therefore take constant time,
+ * however many tasks are pending, and a task runs at most one tick late.
+ *
+ * <p>New tasks are handed to the wheel thread through a queue and put in
+ * their bucket at the next tick, so buckets are only ever touched by the
+ * wheel thread. The thread is a daemon thread started when the first task
+ * is scheduled. Tasks run on the wheel thread and must be short.
+ */
+public class TimerWheel implements AutoCloseable {
+    public static final Duration DEFAULT_TICK_DURATION = Duration.ofMillis(100);
+    public static final int DEFAULT_BUCKET_COUNT = 512;
+
+    private final long tickNanos;
+    private final Queue<Timeout>[] buckets;
+    private final int mask;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Object startLock = new Object();
+    private volatile long startTime;
+    private volatile Thread worker;
+    private volatile boolean closed;
+
+    public TimerWheel() {
+        this(DEFAULT_TICK_DURATION, DEFAULT_BUCKET_COUNT);
+    }
+
+    /**
+     * Creates a timer wheel.
+     *
+     * @param tickDuration the resolution of the wheel
+     * @param bucketCount the number of buckets, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(Duration tickDuration, int bucketCount) {
+        if (tickDuration.isNegative() || tickDuration.isZero() || bucketCount <= 0) {
+            throw new IllegalArgumentException("Tick duration and bucket count must be greater than 0");
+        }
+        int size = Integer.highestOneBit(Math.max(1, bucketCount - 1)) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedules a task to run once after a delay.
+     *
+     * @param delay the delay after which the task runs
+     * @param task the task to run
+     * @return the handle to cancel the task with
+     * @throws IllegalStateException if the wheel has been closed
+     */
+    public Timeout schedule(Duration delay, Runnable task) {
+        if (closed) {
+            throw new IllegalStateException("Timer wheel is closed");
+        }
+        ensureStarted();
+        Timeout timeout = new Timeout(System.nanoTime() + Math.max(0, delay.toNanos()), task);
+        pendingCount.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Returns the number of tasks that have been scheduled and have neither run nor been cancelled.
+     *
+     * @return the number of pending tasks
+     */
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    /**
+     * Stops the wheel thread. Pending tasks are not run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) + 1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void ensureStarted() {
+        if (worker != null) {
+            return;
+        }
+        synchronized (startLock) {
+            if (worker == null) {
+                startTime = System.nanoTime();
+                Thread thread = new Thread(this::run, "timer-wheel");
+                thread.setDaemon(true);
+                thread.start();
+                worker = thread;
+            }
+        }
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            long now;
+            while ((now = System.nanoTime()) - deadline < 0 && !closed) {
+                LockSupport.parkNanos(deadline - now);
+            }
+            if (closed) {
+                break;
+            }
+            tick++;
+            transferScheduled(tick);
+            expire(buckets[(int) (tick & mask)], tick);
+        }
+    }
+
+    private void transferScheduled(long currentTick) {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long dueTick = (timeout.deadline - startTime + tickNanos - 1) / tickNanos;
+            timeout.dueTick = Math.max(dueTick, currentTick);
+            buckets[(int) (timeout.dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket, long currentTick) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+            } else if (timeout.dueTick <= currentTick) {
+                iterator.remove();
+                timeout.expire();
+            }
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final long deadline;
+        private final Runnable task;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long dueTick;
+
+        private Timeout(long deadline, Runnable task) {
+            this.deadline = deadline;
+            this.task = task;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * <p>The task is dropped from its bucket when the wheel next reaches it.
+         *
+         * @return true if the task was cancelled, false if it already ran or was cancelled before
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                pendingCount.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void expire() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                pendingCount.decrementAndGet();
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("Warning: Timer task failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}